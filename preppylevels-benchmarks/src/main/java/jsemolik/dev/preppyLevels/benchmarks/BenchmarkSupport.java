@@ -0,0 +1,75 @@
+package jsemolik.dev.preppyLevels.benchmarks;
+
+import jsemolik.dev.preppyLevels.config.ConfigLoader;
+import jsemolik.dev.preppyLevels.config.PluginConfig;
+import jsemolik.dev.preppyLevels.storage.PlayerData;
+import jsemolik.dev.preppyLevels.storage.StorageProvider;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.UUID;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.stream.Stream;
+
+/**
+ * Setup shared by the benchmarks: configuration in a scratch folder and seeded players
+ */
+final class BenchmarkSupport {
+    // Only warnings, so startup messages do not end up between benchmark results
+    static final Logger LOGGER = Logger.getLogger("PreppyLevels-Benchmarks");
+
+    static {
+        LOGGER.setLevel(Level.WARNING);
+    }
+
+    private static final int SEED_BATCH_SIZE = 500;
+
+    private BenchmarkSupport() {
+    }
+
+    /**
+     * Load the default configuration into a scratch folder, using the given storage backend
+     */
+    static PluginConfig loadConfig(Path dataFolder, PluginConfig.StorageType storageType) {
+        PluginConfig config = new ConfigLoader(LOGGER, dataFolder.resolve("config.yml")).loadConfig();
+        config.setStorageType(storageType);
+        // Every run starts cold, whatever the previous one left behind
+        config.getCacheConfig().setWarmStart(false);
+        return config;
+    }
+
+    /**
+     * Store the given number of players with random IDs and XP
+     * @return The stored players
+     */
+    static List<PlayerData> seed(StorageProvider provider, int count) {
+        List<PlayerData> players = new ArrayList<>(count);
+        List<PlayerData> batch = new ArrayList<>(SEED_BATCH_SIZE);
+        for (int i = 0; i < count; i++) {
+            PlayerData data = new PlayerData(UUID.randomUUID(), "player" + i, 1 + i % 50, i * 37L);
+            players.add(data);
+            batch.add(data);
+            if (batch.size() == SEED_BATCH_SIZE || i == count - 1) {
+                provider.savePlayerDataBatch(batch).join();
+                batch = new ArrayList<>(SEED_BATCH_SIZE);
+            }
+        }
+        return players;
+    }
+
+    static void deleteRecursively(Path directory) throws IOException {
+        if (!Files.exists(directory)) {
+            return;
+        }
+        try (Stream<Path> files = Files.walk(directory)) {
+            for (Path file : (Iterable<Path>) files.sorted(Comparator.reverseOrder())::iterator) {
+                Files.deleteIfExists(file);
+            }
+        }
+    }
+}
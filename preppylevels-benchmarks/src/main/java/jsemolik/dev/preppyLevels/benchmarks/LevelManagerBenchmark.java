@@ -0,0 +1,119 @@
+package jsemolik.dev.preppyLevels.benchmarks;
+
+import jsemolik.dev.preppyLevels.LevelManager;
+import jsemolik.dev.preppyLevels.XpEngine;
+import jsemolik.dev.preppyLevels.config.PluginConfig;
+import jsemolik.dev.preppyLevels.platform.ExecutorScheduler;
+import jsemolik.dev.preppyLevels.platform.PlayerSink;
+import jsemolik.dev.preppyLevels.storage.PlayerData;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The level manager's hot paths on a headless engine backed by embedded H2: player lookups served
+ * from the cache and from storage, and XP grants from several threads at once, either all to one
+ * player or spread over many.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LevelManagerBenchmark {
+    private static final int STORED_PLAYERS = 10_000;
+    private static final int CACHED_PLAYERS = 1_024;
+    private static final int GRANT_THREADS = 4;
+
+    private Path dataFolder;
+    private ExecutorScheduler scheduler;
+    private XpEngine engine;
+    private LevelManager levelManager;
+    private UUID[] cached;
+    private UUID[] uncached;
+
+    @Setup
+    public void setUp() throws IOException {
+        dataFolder = Files.createTempDirectory("preppylevels-bench");
+        PluginConfig config = BenchmarkSupport.loadConfig(dataFolder, PluginConfig.StorageType.H2);
+        scheduler = new ExecutorScheduler(2);
+        engine = new XpEngine(config, dataFolder, BenchmarkSupport.LOGGER, scheduler, PlayerSink.NONE);
+        engine.start().join();
+        levelManager = engine.getLevelManager();
+
+        List<PlayerData> players = BenchmarkSupport.seed(engine.getStorageProvider(), STORED_PLAYERS);
+        cached = new UUID[CACHED_PLAYERS];
+        uncached = new UUID[STORED_PLAYERS - CACHED_PLAYERS];
+        for (int i = 0; i < players.size(); i++) {
+            UUID playerId = players.get(i).getPlayerId();
+            if (i < CACHED_PLAYERS) {
+                cached[i] = playerId;
+                levelManager.getPlayerData(playerId).join();
+            } else {
+                uncached[i - CACHED_PLAYERS] = playerId;
+            }
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        engine.shutdown();
+        scheduler.shutdown();
+        BenchmarkSupport.deleteRecursively(dataFolder);
+    }
+
+    @Benchmark
+    public PlayerData getPlayerDataCacheHit() {
+        return levelManager.getPlayerData(cached[ThreadLocalRandom.current().nextInt(cached.length)]).join();
+    }
+
+    @Benchmark
+    public PlayerData getPlayerDataCacheMiss() {
+        UUID playerId = uncached[ThreadLocalRandom.current().nextInt(uncached.length)];
+        // Dropped first so every call goes to storage
+        levelManager.invalidateCache(playerId);
+        return levelManager.getPlayerData(playerId).join();
+    }
+
+    @Benchmark
+    @Threads(GRANT_THREADS)
+    public void addXpSamePlayer() {
+        levelManager.addXp(cached[0], "player0", 1).join();
+    }
+
+    @Benchmark
+    @Threads(GRANT_THREADS)
+    public void addXpManyPlayers() {
+        int index = ThreadLocalRandom.current().nextInt(cached.length);
+        levelManager.addXp(cached[index], "player" + index, 1).join();
+    }
+
+    /**
+     * Grants through the API, which buffers them and applies them once per tick
+     */
+    @Benchmark
+    @Threads(GRANT_THREADS)
+    public CompletableFuture<Void> pipelineSubmit() {
+        int index = ThreadLocalRandom.current().nextInt(cached.length);
+        return engine.getXpPipeline().submit(cached[index], "player" + index, 1, "benchmark");
+    }
+}
@@ -0,0 +1,112 @@
+package jsemolik.dev.preppyLevels.benchmarks;
+
+import jsemolik.dev.preppyLevels.config.PluginConfig;
+import jsemolik.dev.preppyLevels.storage.PlayerData;
+import jsemolik.dev.preppyLevels.storage.StorageExecutor;
+import jsemolik.dev.preppyLevels.storage.StorageFactory;
+import jsemolik.dev.preppyLevels.storage.StorageProvider;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Load and save throughput of each storage backend that runs locally: embedded H2 and SQLite
+ * databases and the file-based YAML, JSON and log storage. Batch results are per player.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class StorageProviderBenchmark {
+    private static final int STORED_PLAYERS = 10_000;
+    private static final int BATCH_SIZE = 100;
+
+    @Param({"H2", "SQLITE", "YAML", "JSON", "LOG"})
+    public PluginConfig.StorageType storageType;
+
+    private Path dataFolder;
+    private StorageExecutor executor;
+    private StorageProvider provider;
+    private List<PlayerData> players;
+
+    @Setup
+    public void setUp() throws IOException {
+        dataFolder = Files.createTempDirectory("preppylevels-bench");
+        PluginConfig config = BenchmarkSupport.loadConfig(dataFolder, storageType);
+        executor = new StorageExecutor(config.getStorageExecutorConfig(), () -> false);
+        provider = StorageFactory.createStorageProvider(config, BenchmarkSupport.LOGGER, dataFolder, executor);
+        provider.initialize().join();
+        players = BenchmarkSupport.seed(provider, STORED_PLAYERS);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        provider.shutdown().join();
+        executor.shutdown();
+        BenchmarkSupport.deleteRecursively(dataFolder);
+    }
+
+    @Benchmark
+    public PlayerData load() {
+        return provider.loadPlayerData(randomPlayer().getPlayerId()).join();
+    }
+
+    @Benchmark
+    public void save() {
+        PlayerData data = randomPlayer();
+        data.setXp(data.getXp() + 1);
+        provider.savePlayerData(data).join();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH_SIZE)
+    public Map<UUID, PlayerData> loadBatch() {
+        List<PlayerData> batch = randomBatch();
+        List<UUID> playerIds = new ArrayList<>(batch.size());
+        for (PlayerData data : batch) {
+            playerIds.add(data.getPlayerId());
+        }
+        return provider.loadPlayerDataBatch(playerIds).join();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH_SIZE)
+    public void saveBatch() {
+        List<PlayerData> batch = randomBatch();
+        for (PlayerData data : batch) {
+            data.setXp(data.getXp() + 1);
+        }
+        provider.savePlayerDataBatch(batch).join();
+    }
+
+    private PlayerData randomPlayer() {
+        return players.get(ThreadLocalRandom.current().nextInt(players.size()));
+    }
+
+    private List<PlayerData> randomBatch() {
+        int start = ThreadLocalRandom.current().nextInt(players.size() - BATCH_SIZE);
+        return players.subList(start, start + BATCH_SIZE);
+    }
+}
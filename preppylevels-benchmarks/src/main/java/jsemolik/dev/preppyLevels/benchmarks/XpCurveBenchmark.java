@@ -0,0 +1,84 @@
+package jsemolik.dev.preppyLevels.benchmarks;
+
+import jsemolik.dev.preppyLevels.config.PluginConfig;
+import jsemolik.dev.preppyLevels.curve.XpCurve;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Level computation for each curve shape, from level 1 up to level 100,000. Covers what
+ * every XP grant runs to find the new level, and the per-level lookups behind the XP bar.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class XpCurveBenchmark {
+    public enum Shape {
+        // The default xp-requirements table with its default increment
+        TABLE(""),
+        LINEAR("linear(100, 100)"),
+        QUADRATIC("quadratic(5, 50, 100)"),
+        EXPONENTIAL("exponential(100, 1.0001)"),
+        PIECEWISE("piecewise(1: linear(100, 100), 100: quadratic(5, 50, 10000), 10000: linear(500000, 10))");
+
+        private final String formula;
+
+        Shape(String formula) {
+            this.formula = formula;
+        }
+    }
+
+    @Param
+    public Shape shape;
+
+    @Param({"1", "100", "10000", "100000"})
+    public int level;
+
+    private PluginConfig config;
+    private XpCurve curve;
+    private long totalXp;
+
+    @Setup
+    public void setUp() {
+        config = new PluginConfig();
+        config.setXpRequirements(Map.of(1, 100, 2, 200, 3, 300, 4, 400, 5, 500));
+        config.setDefaultXpIncrement(100);
+        config.setLevelFormula(shape.formula);
+        curve = config.getXpCurve();
+        // Halfway through the level, so the search cannot stop at a boundary
+        totalXp = curve.getXpToReachLevel(level) + curve.getXpRequiredForLevel(level) / 2;
+        if (curve.getLevel(totalXp) != level) {
+            throw new IllegalStateException(shape + " puts " + totalXp + " XP at level " + curve.getLevel(totalXp) + ", not " + level);
+        }
+    }
+
+    @Benchmark
+    public int calculateLevel() {
+        return curve.getLevel(totalXp);
+    }
+
+    @Benchmark
+    public long xpToReachLevel() {
+        return curve.getXpToReachLevel(level);
+    }
+
+    @Benchmark
+    public int configXpRequiredForLevel() {
+        return config.getXpRequiredForLevel(level);
+    }
+}
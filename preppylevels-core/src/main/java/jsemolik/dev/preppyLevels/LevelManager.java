@@ -0,0 +1,355 @@
+package jsemolik.dev.preppyLevels;
+
+import jsemolik.dev.preppyLevels.cache.PlayerCache;
+import jsemolik.dev.preppyLevels.config.PluginConfig;
+import jsemolik.dev.preppyLevels.curve.XpCurve;
+import jsemolik.dev.preppyLevels.storage.PlayerData;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+
+public class LevelManager {
+    private final XpEngine engine;
+    private final PluginConfig config;
+    private final PlayerCache cache;
+    private final ConcurrentHashMap<UUID, CompletableFuture<PlayerData>> pendingLoads = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<UUID, PlayerSnapshot> snapshots = new ConcurrentHashMap<>();
+
+    public LevelManager(XpEngine engine, PluginConfig config) {
+        this.engine = engine;
+        this.config = config;
+        PluginConfig.CacheConfig cacheConfig = config.getCacheConfig();
+        this.cache = new PlayerCache(cacheConfig.getMaxSize(), cacheConfig.getExpireAfterAccess(), this::onEvicted);
+    }
+
+    public CompletableFuture<PlayerData> getPlayerData(UUID playerId) {
+        // Check cache first
+        PlayerData cached = cache.get(playerId);
+        if (cached != null) {
+            return CompletableFuture.completedFuture(cached);
+        }
+
+        // Data evicted with unsaved changes is newer than the stored copy
+        PlayerData pending = engine.getWriteBehindQueue().getPending(playerId);
+        if (pending != null) {
+            return CompletableFuture.completedFuture(cacheData(playerId, pending));
+        }
+
+        // Load from storage, sharing a single load between all concurrent callers
+        CompletableFuture<PlayerData> load = pendingLoads.computeIfAbsent(playerId, this::loadPlayerData);
+        // Once the load has finished, later misses must start a new one
+        load.whenComplete((data, throwable) -> pendingLoads.remove(playerId, load));
+        return load;
+    }
+
+    private CompletableFuture<PlayerData> loadPlayerData(UUID playerId) {
+        return engine.getStorageProvider().loadPlayerData(playerId).thenApply(data -> {
+            if (data == null) {
+                // A concurrent addXp may already have created data for a new player
+                return cache.get(playerId);
+            }
+            return cacheData(playerId, data);
+        });
+    }
+
+    private PlayerData cacheData(UUID playerId, PlayerData data) {
+        // Keep whichever instance reached the cache first so no thread updates a stale copy
+        PlayerData existing = cache.putIfAbsent(playerId, data);
+        PlayerData cached = existing != null ? existing : data;
+        publishSnapshot(cached);
+        return cached;
+    }
+
+    private PlayerData createData(UUID playerId, String playerName) {
+        PlayerData created = cache.computeIfAbsent(playerId, id -> new PlayerData(id, playerName, 1, 0));
+        publishSnapshot(created);
+        return created;
+    }
+
+    /**
+     * Make sure a player's data is cached, creating a fresh entry for players without stored data
+     */
+    public CompletableFuture<PlayerData> preload(UUID playerId, String playerName) {
+        return getPlayerData(playerId).thenApply(data -> {
+            if (data == null) {
+                return createData(playerId, playerName);
+            }
+            if (playerName != null && !playerName.equals(data.getPlayerName())) {
+                // Keep stored names current for players who renamed themselves
+                data.setPlayerName(playerName);
+                engine.getWriteBehindQueue().markDirty(data);
+            }
+            return data;
+        });
+    }
+
+    /**
+     * Fill the cache from a warm-start snapshot. Players loaded since startup keep their loaded entry.
+     */
+    public void warmUp(Collection<PlayerData> players) {
+        for (PlayerData data : players) {
+            cacheData(data.getPlayerId(), data);
+        }
+    }
+
+    /**
+     * Release a player's cached entry once they have left, unless they have rejoined since
+     */
+    public void unload(UUID playerId) {
+        if (!cache.isPinned(playerId)) {
+            cache.remove(playerId);
+            snapshots.remove(playerId);
+        }
+    }
+
+    public CompletableFuture<Void> addXp(UUID playerId, String playerName, long xpAmount) {
+        return getPlayerData(playerId).thenCompose(data -> {
+            // Create or get player data
+            PlayerData playerData = data;
+            if (playerData == null) {
+                playerData = createData(playerId, playerName);
+            }
+
+            // Evicted since it was read: a later load may already have replaced it, so read it again
+            if (!cache.beginUpdate(playerId, playerData)) {
+                return addXp(playerId, playerName, xpAmount);
+            }
+            boolean leveledUp;
+            try {
+                // Check for level up; only the grant that actually raises the level reports it
+                leveledUp = applyAdd(playerData, xpAmount).isLeveledUp();
+
+                // Queue the write; the write-behind queue coalesces and flushes it in the background
+                engine.getWriteBehindQueue().markDirty(playerData);
+            } finally {
+                cache.endUpdate(playerId, playerData);
+            }
+            publishSnapshot(playerData);
+
+            // Level-up message and XP bar are shown by the player sink, on a server with the next tick's batch
+            engine.getPlayerSink().update(playerId, playerData, leveledUp);
+            return CompletableFuture.completedFuture(null);
+        });
+    }
+
+    /**
+     * Add XP to, or set the XP of, many players at once. All players are loaded first, with those not
+     * in memory read from storage in one batch, then every change is applied in one pass, written to storage as one batch and shown to online
+     * players with the next tick's UI update.
+     * @param amounts XP to add (or the new total XP when setting) per player
+     * @param set Whether to replace each player's XP instead of adding to it
+     * @return CompletableFuture that completes with each player's change once it has been written
+     */
+    public CompletableFuture<Map<UUID, XpChange>> applyXpBulk(Map<UUID, Long> amounts, boolean set) {
+        Map<UUID, PlayerData> loaded = new HashMap<>();
+        List<UUID> missing = new ArrayList<>();
+        for (UUID playerId : amounts.keySet()) {
+            PlayerData data = cache.get(playerId);
+            if (data == null) {
+                data = engine.getWriteBehindQueue().getPending(playerId);
+            }
+            if (data != null) {
+                loaded.put(playerId, cacheData(playerId, data));
+            } else {
+                missing.add(playerId);
+            }
+        }
+
+        // Players that are not in memory are read from storage in one batch
+        CompletableFuture<Map<UUID, PlayerData>> batchLoad = missing.isEmpty()
+            ? CompletableFuture.completedFuture(Map.of())
+            : engine.getStorageProvider().loadPlayerDataBatch(missing);
+
+        return batchLoad.thenCompose(stored -> {
+            stored.forEach((playerId, data) -> loaded.put(playerId, cacheData(playerId, data)));
+
+            Map<UUID, XpChange> changes = new HashMap<>();
+            Map<UUID, Long> evicted = new HashMap<>();
+            for (Map.Entry<UUID, Long> entry : amounts.entrySet()) {
+                UUID playerId = entry.getKey();
+                PlayerData playerData = loaded.get(playerId);
+                if (playerData == null) {
+                    // Names are refreshed on the player's next login
+                    String playerName = engine.getPlayerSink().lookupName(playerId);
+                    playerData = createData(playerId, playerName != null ? playerName : "");
+                }
+
+                if (!cache.beginUpdate(playerId, playerData)) {
+                    evicted.put(playerId, entry.getValue());
+                    continue;
+                }
+                XpChange change;
+                try {
+                    change = set
+                        ? applySet(playerData, entry.getValue())
+                        : applyAdd(playerData, entry.getValue());
+                    engine.getWriteBehindQueue().markDirty(playerData);
+                } finally {
+                    cache.endUpdate(playerId, playerData);
+                }
+                changes.put(playerId, change);
+                publishSnapshot(playerData);
+                engine.getPlayerSink().update(playerId, playerData, change.isLeveledUp());
+            }
+
+            // Write every changed player in one batch instead of waiting for the next flush
+            CompletableFuture<Map<UUID, XpChange>> written = engine.getWriteBehindQueue().flush(changes.keySet())
+                .thenApply(flushed -> changes);
+            if (evicted.isEmpty()) {
+                return written;
+            }
+            // Players evicted since they were loaded may already have been replaced by a later load, so read them again
+            return applyXpBulk(evicted, set).thenCombine(written, (retried, applied) -> {
+                Map<UUID, XpChange> all = new HashMap<>(applied);
+                all.putAll(retried);
+                return all;
+            });
+        });
+    }
+
+    private XpChange applyAdd(PlayerData data, long amount) {
+        // XP and level change together, so no reader ever sees one without the other
+        while (true) {
+            PlayerData.Progress current = data.getProgress();
+            long newXp = current.getXp() + amount;
+            // Grants never lower the level, even if a concurrent set moved it past what this total reaches
+            int newLevel = Math.max(current.getLevel(), calculateLevel(newXp));
+            if (data.compareAndSetProgress(current, new PlayerData.Progress(newXp, newLevel))) {
+                return new XpChange(data.getPlayerId(), current.getLevel(), newLevel, current.getXp(), newXp);
+            }
+        }
+    }
+
+    private XpChange applySet(PlayerData data, long xp) {
+        // Setting may lower the level, so it is recalculated rather than only raised
+        int newLevel = calculateLevel(xp);
+        while (true) {
+            PlayerData.Progress current = data.getProgress();
+            if (data.compareAndSetProgress(current, new PlayerData.Progress(xp, newLevel))) {
+                return new XpChange(data.getPlayerId(), current.getLevel(), newLevel, current.getXp(), xp);
+            }
+        }
+    }
+
+    private int calculateLevel(long totalXp) {
+        return config.getXpCurve().getLevel(totalXp);
+    }
+
+    public long getXpForNextLevel(PlayerData data) {
+        return getXpForNextLevel(data.getProgress());
+    }
+
+    public float getLevelProgress(PlayerData data) {
+        return getLevelProgress(data.getProgress());
+    }
+
+    private long getXpForNextLevel(PlayerData.Progress progress) {
+        XpCurve curve = config.getXpCurve();
+        long xpNeededForNext = curve.getXpRequiredForLevel(progress.getLevel() + 1);
+        
+        // Calculate how much XP the player has in their current level
+        long xpProgress = progress.getXp() - curve.getXpToReachLevel(progress.getLevel());
+        return xpNeededForNext - xpProgress;
+    }
+
+    private float getLevelProgress(PlayerData.Progress progress) {
+        XpCurve curve = config.getXpCurve();
+        int currentLevel = progress.getLevel();
+        long xpNeededForNext = curve.getXpRequiredForLevel(currentLevel);
+        
+        // Calculate XP progress in current level (towards next level)
+        long xpProgress = progress.getXp() - curve.getXpToReachLevel(currentLevel);
+        
+        // Return progress as a float between 0.0 and 1.0
+        if (xpNeededForNext <= 0) {
+            return 1.0f; // Already max level or invalid
+        }
+        return Math.max(0.0f, Math.min(1.0f, (float) xpProgress / xpNeededForNext));
+    }
+
+    /**
+     * Get the latest published snapshot of a cached player without blocking
+     * @return The snapshot, or null if the player is not cached
+     */
+    public PlayerSnapshot getSnapshot(UUID playerId) {
+        return snapshots.get(playerId);
+    }
+
+    /**
+     * Take a consistent view of a player's progress. Level, XP and the values derived from them
+     * all come from one read, so they never mix two concurrent updates.
+     */
+    public PlayerSnapshot snapshotOf(PlayerData data) {
+        PlayerData.Progress progress = data.getProgress();
+        return new PlayerSnapshot(data.getPlayerId(), progress.getLevel(), progress.getXp(),
+            getXpForNextLevel(progress), getLevelProgress(progress));
+    }
+
+    private void publishSnapshot(PlayerData data) {
+        engine.getLeaderboard().update(data);
+        // Building inside compute serializes publishers per player, so the last one
+        // to run always reads, and publishes, the latest state
+        snapshots.compute(data.getPlayerId(), (id, previous) -> snapshotOf(data));
+    }
+
+    /**
+     * Show XP that another server added to a cached player, found when their changes were written in delta mode
+     */
+    public void onRemoteChange(PlayerData data) {
+        publishSnapshot(data);
+        engine.getPlayerSink().update(data.getPlayerId(), data, false);
+    }
+
+    /**
+     * Bring cached players that other servers changed up to date. Online players and players with
+     * unsaved changes are reloaded in place, other entries are dropped and read again on next use.
+     * @param versions The newest stored version of each changed player
+     */
+    public void onRemoteChanges(Map<UUID, Long> versions) {
+        List<PlayerData> stale = new ArrayList<>();
+        versions.forEach((playerId, version) -> {
+            PlayerData pending = engine.getWriteBehindQueue().getPending(playerId);
+            PlayerData data = pending != null ? pending : cache.peek(playerId);
+            if (data == null || data.getVersion() >= version) {
+                return;
+            }
+            if (pending != null || cache.isPinned(playerId)) {
+                stale.add(data);
+            } else {
+                invalidateCache(playerId);
+            }
+        });
+        if (!stale.isEmpty()) {
+            engine.getWriteBehindQueue().refresh(stale);
+        }
+    }
+
+    private void onEvicted(PlayerData data) {
+        snapshots.remove(data.getPlayerId());
+        // Write back unsaved changes right away instead of waiting for the next flush
+        if (engine.getWriteBehindQueue().getPending(data.getPlayerId()) != null) {
+            engine.getWriteBehindQueue().flush(data.getPlayerId());
+        }
+    }
+
+    public PlayerCache getCache() {
+        return cache;
+    }
+
+    public void invalidateCache(UUID playerId) {
+        cache.remove(playerId);
+        snapshots.remove(playerId);
+    }
+
+    public void clearCache() {
+        cache.clear();
+        snapshots.clear();
+    }
+}
+
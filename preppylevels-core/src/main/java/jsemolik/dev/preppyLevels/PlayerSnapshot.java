@@ -0,0 +1,74 @@
+package jsemolik.dev.preppyLevels;
+
+import java.util.UUID;
+
+/**
+ * Immutable view of a player's level state with its display strings precomputed.
+ * A new snapshot is published whenever the player's XP changes, so readers such as
+ * placeholders never have to wait for storage or recompute anything.
+ */
+public final class PlayerSnapshot {
+    private final UUID playerId;
+    private final int level;
+    private final long xp;
+    private final long xpNeeded;
+    private final float progress;
+    private final String levelText;
+    private final String xpText;
+    private final String xpNeededText;
+    private final String nextLevelText;
+    private final String progressText;
+
+    public PlayerSnapshot(UUID playerId, int level, long xp, long xpNeeded, float progress) {
+        this.playerId = playerId;
+        this.level = level;
+        this.xp = xp;
+        this.xpNeeded = xpNeeded;
+        this.progress = progress;
+        this.levelText = String.valueOf(level);
+        this.xpText = String.valueOf(xp);
+        this.xpNeededText = String.valueOf(xpNeeded);
+        this.nextLevelText = String.valueOf(level + 1);
+        this.progressText = String.format("%.1f%%", progress * 100);
+    }
+
+    public UUID getPlayerId() {
+        return playerId;
+    }
+
+    public int getLevel() {
+        return level;
+    }
+
+    public long getXp() {
+        return xp;
+    }
+
+    public long getXpNeeded() {
+        return xpNeeded;
+    }
+
+    public float getProgress() {
+        return progress;
+    }
+
+    public String getLevelText() {
+        return levelText;
+    }
+
+    public String getXpText() {
+        return xpText;
+    }
+
+    public String getXpNeededText() {
+        return xpNeededText;
+    }
+
+    public String getNextLevelText() {
+        return nextLevelText;
+    }
+
+    public String getProgressText() {
+        return progressText;
+    }
+}
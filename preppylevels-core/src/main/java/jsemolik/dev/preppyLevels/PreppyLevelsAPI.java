@@ -0,0 +1,127 @@
+package jsemolik.dev.preppyLevels;
+
+import jsemolik.dev.preppyLevels.leaderboard.LeaderboardEntry;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Public API for other plugins to interact with PreppyLevels
+ */
+public class PreppyLevelsAPI {
+    private final XpEngine engine;
+
+    public PreppyLevelsAPI(XpEngine engine) {
+        this.engine = engine;
+    }
+
+    /**
+     * Give XP to a player
+     * @param playerId The UUID of the player
+     * @param playerName The name of the player
+     * @param xpAmount The amount of XP to give
+     * @return CompletableFuture that completes when XP is added
+     */
+    public CompletableFuture<Void> giveXp(UUID playerId, String playerName, long xpAmount) {
+        return giveXp(playerId, playerName, xpAmount, "api");
+    }
+
+    /**
+     * Give XP to a player, recording what it was given for.
+     * Grants are batched and applied once per tick, so this is cheap to call for every
+     * mob kill or block break.
+     * @param playerId The UUID of the player
+     * @param playerName The name of the player
+     * @param xpAmount The amount of XP to give
+     * @param source What the XP was given for, e.g. "mob-kill"
+     * @return CompletableFuture that completes when XP is added
+     */
+    public CompletableFuture<Void> giveXp(UUID playerId, String playerName, long xpAmount, String source) {
+        return engine.getXpPipeline().submit(playerId, playerName, xpAmount, source);
+    }
+
+    /**
+     * Give XP to many players at once, e.g. to reward everyone taking part in an event.
+     * All changes are applied together, written to storage as one batch and shown to
+     * online players in a single update.
+     * @param xpAmounts The amount of XP to give to each player
+     * @return CompletableFuture that completes with each player's change once it has been saved
+     */
+    public CompletableFuture<Map<UUID, XpChange>> giveXpBulk(Map<UUID, Long> xpAmounts) {
+        return engine.getLevelManager().applyXpBulk(xpAmounts, false);
+    }
+
+    /**
+     * Set the total XP of many players at once. Levels are recalculated and may go down.
+     * @param xpTotals The new total XP of each player
+     * @return CompletableFuture that completes with each player's change once it has been saved
+     */
+    public CompletableFuture<Map<UUID, XpChange>> setXpBulk(Map<UUID, Long> xpTotals) {
+        return engine.getLevelManager().applyXpBulk(xpTotals, true);
+    }
+
+    /**
+     * Get a player's current level
+     * @param playerId The UUID of the player
+     * @return CompletableFuture that completes with the player's level
+     */
+    public CompletableFuture<Integer> getLevel(UUID playerId) {
+        return engine.getLevelManager().getPlayerData(playerId)
+            .thenApply(data -> data != null ? data.getLevel() : 1);
+    }
+
+    /**
+     * Get a player's current XP
+     * @param playerId The UUID of the player
+     * @return CompletableFuture that completes with the player's total XP
+     */
+    public CompletableFuture<Long> getXp(UUID playerId) {
+        return engine.getLevelManager().getPlayerData(playerId)
+            .thenApply(data -> data != null ? data.getXp() : 0L);
+    }
+
+    /**
+     * Get the XP needed for a player to reach their next level
+     * @param playerId The UUID of the player
+     * @return CompletableFuture that completes with the XP needed
+     */
+    public CompletableFuture<Long> getXpNeededForNextLevel(UUID playerId) {
+        return engine.getLevelManager().getPlayerData(playerId)
+            .thenApply(data -> {
+                if (data == null) {
+                    return (long) engine.getConfig().getXpRequiredForLevel(2);
+                }
+                return engine.getLevelManager().getXpForNextLevel(data);
+            });
+    }
+
+    /**
+     * Get a player's leaderboard rank. Served from memory, so it is safe to call every tick.
+     * @param playerId The UUID of the player
+     * @return The rank, starting at 1 for the player with the most XP, or 0 if the player is not ranked
+     */
+    public int getRank(UUID playerId) {
+        return engine.getLeaderboard().getRank(playerId);
+    }
+
+    /**
+     * Get the players with the most XP. Served from memory, so it is safe to call every tick.
+     * @param count The maximum number of entries to return
+     * @return The top entries, best first
+     */
+    public List<LeaderboardEntry> getTop(int count) {
+        return engine.getLeaderboard().getTop(count);
+    }
+
+    /**
+     * Get a page of the leaderboard. Served from memory, so it is safe to call every tick.
+     * @param offset The number of players to skip, 0 for the top
+     * @param size The maximum number of entries to return
+     * @return The entries on the page, best first
+     */
+    public List<LeaderboardEntry> getPage(int offset, int size) {
+        return engine.getLeaderboard().getPage(offset, size);
+    }
+}
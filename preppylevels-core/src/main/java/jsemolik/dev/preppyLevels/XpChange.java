@@ -0,0 +1,46 @@
+package jsemolik.dev.preppyLevels;
+
+import java.util.UUID;
+
+/**
+ * Outcome of changing a player's XP
+ */
+public final class XpChange {
+    private final UUID playerId;
+    private final int oldLevel;
+    private final int newLevel;
+    private final long oldXp;
+    private final long newXp;
+
+    public XpChange(UUID playerId, int oldLevel, int newLevel, long oldXp, long newXp) {
+        this.playerId = playerId;
+        this.oldLevel = oldLevel;
+        this.newLevel = newLevel;
+        this.oldXp = oldXp;
+        this.newXp = newXp;
+    }
+
+    public UUID getPlayerId() {
+        return playerId;
+    }
+
+    public int getOldLevel() {
+        return oldLevel;
+    }
+
+    public int getNewLevel() {
+        return newLevel;
+    }
+
+    public long getOldXp() {
+        return oldXp;
+    }
+
+    public long getNewXp() {
+        return newXp;
+    }
+
+    public boolean isLeveledUp() {
+        return newLevel > oldLevel;
+    }
+}
@@ -0,0 +1,297 @@
+package jsemolik.dev.preppyLevels;
+
+import jsemolik.dev.preppyLevels.cache.CacheSnapshot;
+import jsemolik.dev.preppyLevels.config.PluginConfig;
+import jsemolik.dev.preppyLevels.leaderboard.Leaderboard;
+import jsemolik.dev.preppyLevels.leaderboard.LeaderboardEntry;
+import jsemolik.dev.preppyLevels.pipeline.XpPipeline;
+import jsemolik.dev.preppyLevels.platform.PlayerSink;
+import jsemolik.dev.preppyLevels.platform.Scheduler;
+import jsemolik.dev.preppyLevels.storage.PlayerData;
+import jsemolik.dev.preppyLevels.storage.StorageExecutor;
+import jsemolik.dev.preppyLevels.storage.StorageFactory;
+import jsemolik.dev.preppyLevels.storage.StorageProvider;
+import jsemolik.dev.preppyLevels.storage.WriteBehindQueue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.logging.Logger;
+
+/**
+ * The leveling engine: storage, write-behind, cache, leaderboard and the XP pipeline, wired
+ * together and started and stopped as one. It only reaches the outside world through a
+ * {@link Scheduler} and a {@link PlayerSink}, so it runs the same on a server and headless.
+ */
+public class XpEngine {
+    private static final String SNAPSHOT_FILE = "cache-snapshot.bin";
+
+    private final PluginConfig config;
+    private final Path dataFolder;
+    private final Logger logger;
+    private final Scheduler scheduler;
+    private final PlayerSink playerSink;
+    private StorageExecutor storageExecutor;
+    private StorageProvider storageProvider;
+    private WriteBehindQueue writeBehindQueue;
+    private LevelManager levelManager;
+    private Leaderboard leaderboard;
+    private XpPipeline xpPipeline;
+    private PreppyLevelsAPI api;
+    private Scheduler.Task cacheCleanupTask;
+    private Scheduler.Task storageMonitorTask;
+    private Scheduler.Task changeFeedTask;
+    private final AtomicBoolean pollingChanges = new AtomicBoolean();
+    // Set once the leaderboard holds every stored player, so a snapshot of it is complete
+    private volatile boolean leaderboardLoaded;
+    private long lastDroppedCount;
+
+    /**
+     * @param dataFolder Where file-based storage and the warm-start snapshot are kept
+     */
+    public XpEngine(PluginConfig config, Path dataFolder, Logger logger, Scheduler scheduler, PlayerSink playerSink) {
+        this.config = config;
+        this.dataFolder = dataFolder;
+        this.logger = logger;
+        this.scheduler = scheduler;
+        this.playerSink = playerSink;
+    }
+
+    /**
+     * Open storage and start the engine's background tasks
+     * @return CompletableFuture that completes once the engine accepts XP; the leaderboard may still be loading
+     */
+    public CompletableFuture<Void> start() {
+        // Threads that must never wait on storage do not run storage work themselves, even when overloaded
+        storageExecutor = new StorageExecutor(config.getStorageExecutorConfig(), scheduler::isMainThread);
+        storageProvider = StorageFactory.createStorageProvider(config, logger, dataFolder, storageExecutor);
+
+        // Read the warm-start snapshot while storage starts up
+        CompletableFuture<CacheSnapshot> snapshotLoad = config.getCacheConfig().isWarmStart()
+            ? storageExecutor.supply(this::readSnapshot)
+            : CompletableFuture.completedFuture(null);
+        return storageProvider.initialize().thenCompose(ignored -> snapshotLoad.thenCompose(this::validateSnapshot)).thenAccept(snapshot -> {
+            logger.info("Storage provider initialized");
+
+            // Start batching writes to storage
+            writeBehindQueue = new WriteBehindQueue(storageProvider, storageExecutor, config.getWriteBehindConfig(),
+                logger, xp -> config.getXpCurve().getLevel(xp));
+            writeBehindQueue.start();
+
+            leaderboard = new Leaderboard();
+            levelManager = new LevelManager(this, config);
+            writeBehindQueue.setRemoteChangeListener(levelManager::onRemoteChange);
+            xpPipeline = new XpPipeline(this, config.getXpPipelineConfig().getBufferSize());
+            api = new PreppyLevelsAPI(this);
+
+            if (snapshot != null) {
+                applySnapshot(snapshot);
+            }
+
+            // Rank every stored player; live XP changes take precedence over stored values
+            if (!leaderboardLoaded) {
+                storageProvider.forEachPlayer(leaderboard::offer).thenRun(() -> {
+                    leaderboardLoaded = true;
+                    logger.info("Leaderboard loaded with " + leaderboard.size() + " players");
+                }).exceptionally(throwable -> {
+                    logger.severe("Failed to load leaderboard: " + throwable.getMessage());
+                    return null;
+                });
+            }
+
+            // Apply queued XP grants once per tick
+            xpPipeline.start();
+            cacheCleanupTask = scheduler.runRepeating(levelManager.getCache()::cleanUp, 1200L, 1200L);
+            storageMonitorTask = scheduler.runRepeating(this::reportStorageLoad, 1200L, 1200L);
+
+            // Pick up players changed by other servers sharing the database
+            PluginConfig.MySQLConfig mysqlConfig = config.getMysqlConfig();
+            if (config.getStorageType() == PluginConfig.StorageType.MYSQL && mysqlConfig != null
+                && mysqlConfig.getChangeFeedConfig().isEnabled()) {
+                long interval = Math.max(1, mysqlConfig.getChangeFeedConfig().getPollInterval());
+                changeFeedTask = scheduler.runRepeating(this::pollRemoteChanges, interval, interval);
+            }
+        });
+    }
+
+    /**
+     * Apply buffered XP, write everything to storage and close it
+     */
+    public void shutdown() {
+        if (xpPipeline != null) {
+            xpPipeline.shutdown();
+        }
+        if (cacheCleanupTask != null) {
+            cacheCleanupTask.cancel();
+        }
+        if (storageMonitorTask != null) {
+            storageMonitorTask.cancel();
+        }
+        if (changeFeedTask != null) {
+            changeFeedTask.cancel();
+        }
+        if (writeBehindQueue != null) {
+            writeBehindQueue.shutdown();
+        }
+        if (levelManager != null && config.getCacheConfig().isWarmStart()) {
+            writeSnapshot();
+        }
+        if (storageProvider != null) {
+            storageProvider.shutdown().join();
+        }
+        if (storageExecutor != null) {
+            storageExecutor.shutdown();
+        }
+        if (levelManager != null) {
+            levelManager.clearCache();
+        }
+        if (leaderboard != null) {
+            leaderboard.clear();
+        }
+    }
+
+    // Warn when storage cannot keep up, so a stalled database shows up in the console
+    private void reportStorageLoad() {
+        long dropped = storageExecutor.getDroppedCount();
+        int depth = storageExecutor.getQueueDepth();
+        if (dropped > lastDroppedCount || depth > storageExecutor.getQueueCapacity() / 2) {
+            logger.warning(String.format(
+                "Storage is falling behind: %d/%d operations queued, %d dropped in the last minute, " +
+                "average wait %.1fms (max %.1fms), average run %.1fms",
+                depth, storageExecutor.getQueueCapacity(), dropped - lastDroppedCount,
+                storageExecutor.getAverageWaitMillis(), storageExecutor.getMaxWaitMillis(),
+                storageExecutor.getAverageRunMillis()));
+        }
+        lastDroppedCount = dropped;
+    }
+
+    private CacheSnapshot readSnapshot() {
+        Path file = dataFolder.resolve(SNAPSHOT_FILE);
+        CacheSnapshot snapshot = null;
+        try {
+            snapshot = CacheSnapshot.read(file);
+        } catch (IOException e) {
+            logger.warning("Ignoring warm-start snapshot: " + e.getMessage());
+        }
+        try {
+            // A snapshot is only good for the start right after it was saved
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            // Some platforms refuse to delete a mapped file; the high-water mark still rejects it once storage changes
+        }
+        return snapshot;
+    }
+
+    private CompletableFuture<CacheSnapshot> validateSnapshot(CacheSnapshot snapshot) {
+        if (snapshot == null) {
+            return CompletableFuture.completedFuture(null);
+        }
+        // Checked before anything is written, so only changes made while the server was down count
+        return storageProvider.getHighWaterMark().thenApply(mark -> {
+            if (snapshot.matches(config.getStorageType().name(), mark)) {
+                return snapshot;
+            }
+            logger.info("Storage changed since the warm-start snapshot was saved, starting with an empty cache");
+            return (CacheSnapshot) null;
+        }).exceptionally(throwable -> null);
+    }
+
+    private void applySnapshot(CacheSnapshot snapshot) {
+        List<PlayerData> ranked = snapshot.getRanked();
+        if (ranked != null) {
+            ranked.forEach(leaderboard::offer);
+            leaderboardLoaded = true;
+        }
+        levelManager.warmUp(snapshot.getPlayers());
+        logger.info("Warm start: restored " + snapshot.getPlayers().size() + " cached players"
+            + (ranked != null ? " and a leaderboard of " + ranked.size() : ""));
+    }
+
+    private void writeSnapshot() {
+        // Unsaved changes would be missing from storage but present in the snapshot
+        if (writeBehindQueue != null && writeBehindQueue.getDirtyCount() > 0) {
+            logger.warning("Not saving a warm-start snapshot: " + writeBehindQueue.getDirtyCount() + " players could not be saved");
+            return;
+        }
+        try {
+            long mark = storageProvider.getHighWaterMark().join();
+            List<PlayerData> players = levelManager.getCache().values();
+            List<LeaderboardEntry> ranked = leaderboardLoaded ? leaderboard.getTop(Integer.MAX_VALUE) : null;
+            CacheSnapshot.write(dataFolder.resolve(SNAPSHOT_FILE), config.getStorageType().name(),
+                mark, players, ranked);
+            logger.info("Saved warm-start snapshot of " + players.size() + " cached players"
+                + (ranked != null ? " and a leaderboard of " + ranked.size() : ""));
+        } catch (Exception e) {
+            logger.warning("Failed to save warm-start snapshot: " + e.getMessage());
+        }
+    }
+
+    private void pollRemoteChanges() {
+        // Skip this run while the previous poll is still waiting on storage
+        if (!pollingChanges.compareAndSet(false, true)) {
+            return;
+        }
+        storageProvider.pollChanges()
+            .thenAccept(levelManager::onRemoteChanges)
+            .whenComplete((result, throwable) -> {
+                pollingChanges.set(false);
+                if (throwable != null) {
+                    logger.warning("Failed to check for changes from other servers: " + throwable.getMessage());
+                }
+            });
+    }
+
+    public PluginConfig getConfig() {
+        return config;
+    }
+
+    public Logger getLogger() {
+        return logger;
+    }
+
+    public Scheduler getScheduler() {
+        return scheduler;
+    }
+
+    public PlayerSink getPlayerSink() {
+        return playerSink;
+    }
+
+    public Leaderboard getLeaderboard() {
+        return leaderboard;
+    }
+
+    /**
+     * Whether the leaderboard ranks every stored player yet, rather than only those seen since startup
+     */
+    public boolean isLeaderboardLoaded() {
+        return leaderboardLoaded;
+    }
+
+    public StorageExecutor getStorageExecutor() {
+        return storageExecutor;
+    }
+
+    public StorageProvider getStorageProvider() {
+        return storageProvider;
+    }
+
+    public WriteBehindQueue getWriteBehindQueue() {
+        return writeBehindQueue;
+    }
+
+    public LevelManager getLevelManager() {
+        return levelManager;
+    }
+
+    public XpPipeline getXpPipeline() {
+        return xpPipeline;
+    }
+
+    public PreppyLevelsAPI getAPI() {
+        return api;
+    }
+}
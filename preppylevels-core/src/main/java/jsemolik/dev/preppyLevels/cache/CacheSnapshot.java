@@ -0,0 +1,225 @@
+package jsemolik.dev.preppyLevels.cache;
+
+import jsemolik.dev.preppyLevels.leaderboard.LeaderboardEntry;
+import jsemolik.dev.preppyLevels.storage.PlayerData;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * Binary snapshot of the player cache and leaderboard, written on shutdown so the next start
+ * begins warm instead of reloading every player from storage.
+ *
+ * A snapshot records the storage type and the storage high-water mark at the time it was written,
+ * and is only used if both still match, so data changed while the server was down is never shadowed
+ * by a stale copy. The payload is covered by a CRC32, and a snapshot that fails the check is ignored.
+ */
+public final class CacheSnapshot {
+    /*
+     * Layout, big-endian:
+     *   int    magic
+     *   int    format version
+     *   long   payload length
+     *   int    CRC32 of the payload
+     * Payload:
+     *   string storage type, as an unsigned short length and UTF-8 bytes
+     *   long   storage high-water mark
+     *   int    cached player count, then per player: UUID, name, level, xp, version
+     *   int    ranked player count, or -1 if the leaderboard was not fully loaded, then per player: UUID, name, level, xp
+     */
+    private static final int MAGIC = 0x50524353;
+    private static final int FORMAT = 1;
+    private static final int HEADER_SIZE = 20;
+
+    private final String storageType;
+    private final long highWaterMark;
+    private final List<PlayerData> players;
+    private final List<PlayerData> ranked;
+
+    private CacheSnapshot(String storageType, long highWaterMark, List<PlayerData> players, List<PlayerData> ranked) {
+        this.storageType = storageType;
+        this.highWaterMark = highWaterMark;
+        this.players = players;
+        this.ranked = ranked;
+    }
+
+    /**
+     * Check whether this snapshot still reflects the given storage
+     */
+    public boolean matches(String storageType, long highWaterMark) {
+        return this.storageType.equals(storageType) && this.highWaterMark == highWaterMark;
+    }
+
+    /**
+     * Cached players, all of them saved to storage when the snapshot was written
+     */
+    public List<PlayerData> getPlayers() {
+        return players;
+    }
+
+    /**
+     * Every ranked player, best first, or null if the snapshot does not include the leaderboard
+     */
+    public List<PlayerData> getRanked() {
+        return ranked;
+    }
+
+    /**
+     * Write a snapshot, replacing any previous one only once the new file is complete
+     * @param ranked The full leaderboard, or null to leave it out
+     */
+    public static void write(Path file, String storageType, long highWaterMark,
+                             Collection<PlayerData> players, List<LeaderboardEntry> ranked) throws IOException {
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            // Reserve the header, stream the payload after it, then fill the header in
+            channel.position(HEADER_SIZE);
+            CRC32 crc = new CRC32();
+            CountingOutputStream counter = new CountingOutputStream(Channels.newOutputStream(channel));
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new CheckedOutputStream(counter, crc), 65536));
+            writeString(out, storageType);
+            out.writeLong(highWaterMark);
+            out.writeInt(players.size());
+            for (PlayerData data : players) {
+                PlayerData.Progress progress = data.getProgress();
+                writePlayer(out, data.getPlayerId(), data.getPlayerName(), progress.getLevel(), progress.getXp());
+                out.writeLong(data.getVersion());
+            }
+            if (ranked == null) {
+                out.writeInt(-1);
+            } else {
+                out.writeInt(ranked.size());
+                for (LeaderboardEntry entry : ranked) {
+                    writePlayer(out, entry.getPlayerId(), entry.getPlayerName(), entry.getLevel(), entry.getXp());
+                }
+            }
+            out.flush();
+
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+            header.putInt(MAGIC).putInt(FORMAT).putLong(counter.count).putInt((int) crc.getValue()).flip();
+            while (header.hasRemaining()) {
+                channel.write(header, header.position());
+            }
+            channel.force(true);
+        }
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Read a snapshot through a memory mapping
+     * @return The snapshot, or null if there is none
+     * @throws IOException If the file cannot be read, or is truncated, corrupt or from another format version
+     */
+    public static CacheSnapshot read(Path file) throws IOException {
+        if (!Files.exists(file)) {
+            return null;
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < HEADER_SIZE) {
+                throw new IOException("Snapshot is truncated");
+            }
+            MappedByteBuffer map = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            if (map.getInt(0) != MAGIC || map.getInt(4) != FORMAT) {
+                throw new IOException("Not a snapshot of this format version");
+            }
+            long length = map.getLong(8);
+            if (length != size - HEADER_SIZE) {
+                throw new IOException("Snapshot is truncated");
+            }
+            ByteBuffer payload = map.slice(HEADER_SIZE, (int) length);
+            CRC32 crc = new CRC32();
+            crc.update(payload.duplicate());
+            if ((int) crc.getValue() != map.getInt(16)) {
+                throw new IOException("Snapshot checksum does not match");
+            }
+
+            String storageType = readString(payload);
+            long highWaterMark = payload.getLong();
+            int playerCount = payload.getInt();
+            List<PlayerData> players = new ArrayList<>(playerCount);
+            for (int i = 0; i < playerCount; i++) {
+                PlayerData data = readPlayer(payload);
+                data.setVersion(payload.getLong());
+                players.add(data);
+            }
+            int rankedCount = payload.getInt();
+            List<PlayerData> ranked = null;
+            if (rankedCount >= 0) {
+                ranked = new ArrayList<>(rankedCount);
+                for (int i = 0; i < rankedCount; i++) {
+                    ranked.add(readPlayer(payload));
+                }
+            }
+            return new CacheSnapshot(storageType, highWaterMark, players, ranked);
+        } catch (RuntimeException e) {
+            // Buffer underflows and bad names passed the checksum, so the writer was broken rather than the disk
+            throw new IOException("Snapshot is malformed: " + e, e);
+        }
+    }
+
+    private static void writePlayer(DataOutputStream out, UUID playerId, String playerName, int level, long xp) throws IOException {
+        out.writeLong(playerId.getMostSignificantBits());
+        out.writeLong(playerId.getLeastSignificantBits());
+        writeString(out, playerName != null ? playerName : "");
+        out.writeInt(level);
+        out.writeLong(xp);
+    }
+
+    private static PlayerData readPlayer(ByteBuffer in) {
+        UUID playerId = new UUID(in.getLong(), in.getLong());
+        String playerName = readString(in);
+        return new PlayerData(playerId, playerName, in.getInt(), in.getLong());
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeShort(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(ByteBuffer in) {
+        byte[] bytes = new byte[in.getShort() & 0xFFFF];
+        in.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static final class CountingOutputStream extends FilterOutputStream {
+        long count;
+
+        CountingOutputStream(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            count += len;
+        }
+    }
+}
@@ -0,0 +1,432 @@
+package jsemolik.dev.preppyLevels.cache;
+
+import jsemolik.dev.preppyLevels.storage.PlayerData;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Size- and idle-time-bounded player cache using a segmented LRU policy.
+ * New entries start in a probation segment and move to a protected segment when read again,
+ * so one-off lookups of offline players cannot push out frequently used entries.
+ * Pinned players (those online) are never evicted, and neither are entries with an update in flight.
+ *
+ * Lookups go through a concurrent map without locking. Recency is recorded under a lock that
+ * readers only try to take, so a contended read skips the reordering instead of waiting.
+ */
+public class PlayerCache {
+    private static final double PROTECTED_RATIO = 0.8;
+
+    private final ConcurrentHashMap<UUID, Node> entries = new ConcurrentHashMap<>();
+    private final Set<UUID> pinned = ConcurrentHashMap.newKeySet();
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Node probation = Node.sentinel();
+    private final Node protectedSegment = Node.sentinel();
+    private final int maxSize;
+    private final int maxProtected;
+    private final long expireAfterAccessNanos;
+    private final Consumer<PlayerData> evictionListener;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    // Set when eviction stopped at an entry with an update in flight, so finishing the update evicts it
+    private volatile boolean evictionDeferred;
+
+    // Guarded by lock
+    private int linkedSize;
+    private int linkedPinned;
+    private int protectedSize;
+
+    /**
+     * @param maxSize Maximum number of unpinned entries to keep
+     * @param expireAfterAccessSeconds Evict unpinned entries not read for this long, or 0 to disable
+     * @param evictionListener Called with each evicted entry, outside the cache lock
+     */
+    public PlayerCache(int maxSize, long expireAfterAccessSeconds, Consumer<PlayerData> evictionListener) {
+        this.maxSize = Math.max(1, maxSize);
+        this.maxProtected = Math.max(1, (int) (this.maxSize * PROTECTED_RATIO));
+        this.expireAfterAccessNanos = TimeUnit.SECONDS.toNanos(Math.max(0, expireAfterAccessSeconds));
+        this.evictionListener = evictionListener;
+    }
+
+    public PlayerData get(UUID playerId) {
+        Node node = entries.get(playerId);
+        if (node == null) {
+            misses.increment();
+            return null;
+        }
+        hits.increment();
+        node.lastAccess = System.nanoTime();
+        if (lock.tryLock()) {
+            try {
+                onAccess(node);
+            } finally {
+                lock.unlock();
+            }
+        }
+        return node.value;
+    }
+
+    /**
+     * Get an entry without counting the lookup or refreshing the entry's recency,
+     * for background checks that should not keep entries alive
+     */
+    public PlayerData peek(UUID playerId) {
+        Node node = entries.get(playerId);
+        return node != null ? node.value : null;
+    }
+
+    /**
+     * Add an entry unless one is already cached
+     * @return The entry already cached, or null if the given data was added
+     */
+    public PlayerData putIfAbsent(UUID playerId, PlayerData data) {
+        Node node = new Node(playerId, data);
+        Node existing = entries.putIfAbsent(playerId, node);
+        if (existing != null) {
+            return existing.value;
+        }
+        link(node);
+        return null;
+    }
+
+    /**
+     * Get the cached entry, creating and caching one if absent
+     */
+    public PlayerData computeIfAbsent(UUID playerId, Function<UUID, PlayerData> factory) {
+        Node[] created = new Node[1];
+        Node node = entries.computeIfAbsent(playerId, id -> created[0] = new Node(id, factory.apply(id)));
+        if (node == created[0]) {
+            link(node);
+        }
+        return node.value;
+    }
+
+    public void remove(UUID playerId) {
+        lock.lock();
+        try {
+            Node node = entries.remove(playerId);
+            if (node != null) {
+                unlink(node);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void clear() {
+        lock.lock();
+        try {
+            entries.clear();
+            while (probation.next != probation) {
+                unlink(probation.next);
+            }
+            while (protectedSegment.next != protectedSegment) {
+                unlink(protectedSegment.next);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Keep a player's entry in the cache regardless of size or idle time, e.g. while they are online
+     */
+    public void pin(UUID playerId) {
+        lock.lock();
+        try {
+            pinned.add(playerId);
+            Node node = entries.get(playerId);
+            if (node != null && node.isLinked() && !node.pinned) {
+                node.pinned = true;
+                linkedPinned++;
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void unpin(UUID playerId) {
+        List<Node> evicted = new ArrayList<>();
+        lock.lock();
+        try {
+            pinned.remove(playerId);
+            Node node = entries.get(playerId);
+            if (node != null && node.isLinked() && node.pinned) {
+                node.pinned = false;
+                linkedPinned--;
+                // The entry counts towards the size limit again
+                evictOverflow(evicted);
+            }
+        } finally {
+            lock.unlock();
+        }
+        notifyEvicted(evicted);
+    }
+
+    /**
+     * Hold an entry in the cache while it is changed, so it cannot be evicted between being read and
+     * having the change queued for writing. Every successful call must be followed by {@link #endUpdate}.
+     * @return False if the given instance is no longer the cached entry, e.g. because it was evicted
+     */
+    public boolean beginUpdate(UUID playerId, PlayerData expected) {
+        Node node = entries.get(playerId);
+        if (node == null || node.value != expected) {
+            return false;
+        }
+        node.updates.incrementAndGet();
+        // Eviction flags the entry before checking for updates, so one of the two sides always backs off
+        if (node.evicting || entries.get(playerId) != node) {
+            endUpdate(node);
+            return false;
+        }
+        return true;
+    }
+
+    public void endUpdate(UUID playerId, PlayerData expected) {
+        Node node = entries.get(playerId);
+        if (node != null && node.value == expected) {
+            endUpdate(node);
+        }
+    }
+
+    private void endUpdate(Node node) {
+        if (node.updates.decrementAndGet() > 0 || !evictionDeferred) {
+            return;
+        }
+        List<Node> evicted = new ArrayList<>();
+        lock.lock();
+        try {
+            evictionDeferred = false;
+            evictOverflow(evicted);
+        } finally {
+            lock.unlock();
+        }
+        notifyEvicted(evicted);
+    }
+
+    public boolean isPinned(UUID playerId) {
+        return pinned.contains(playerId);
+    }
+
+    /**
+     * Evict entries that have been idle longer than the configured expiry
+     */
+    public void cleanUp() {
+        if (expireAfterAccessNanos == 0) {
+            return;
+        }
+        long now = System.nanoTime();
+        List<Node> evicted = new ArrayList<>();
+        lock.lock();
+        try {
+            expire(probation, now, evicted);
+            expire(protectedSegment, now, evicted);
+        } finally {
+            lock.unlock();
+        }
+        notifyEvicted(evicted);
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    /**
+     * Copy every cached entry, e.g. to snapshot the cache on shutdown
+     */
+    public List<PlayerData> values() {
+        List<PlayerData> values = new ArrayList<>(entries.size());
+        for (Node node : entries.values()) {
+            values.add(node.value);
+        }
+        return values;
+    }
+
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+    public long getEvictionCount() {
+        return evictions.sum();
+    }
+
+    private void link(Node node) {
+        List<Node> evicted = new ArrayList<>();
+        lock.lock();
+        try {
+            // The entry may have been removed again before we got the lock
+            if (entries.get(node.key) != node) {
+                return;
+            }
+            node.inProtected = false;
+            addFirst(probation, node);
+            linkedSize++;
+            // Pins are checked under the lock, so the count only includes pinned entries actually in the cache
+            node.pinned = pinned.contains(node.key);
+            if (node.pinned) {
+                linkedPinned++;
+            }
+            evictOverflow(evicted);
+        } finally {
+            lock.unlock();
+        }
+        notifyEvicted(evicted);
+    }
+
+    private void onAccess(Node node) {
+        if (!node.isLinked()) {
+            return;
+        }
+        node.detach();
+        if (!node.inProtected) {
+            node.inProtected = true;
+            protectedSize++;
+            if (protectedSize > maxProtected) {
+                // Demote the least recently used protected entry back to probation
+                Node demoted = protectedSegment.prev;
+                demoted.detach();
+                demoted.inProtected = false;
+                protectedSize--;
+                addFirst(probation, demoted);
+            }
+        }
+        addFirst(protectedSegment, node);
+    }
+
+    private void unlink(Node node) {
+        if (!node.isLinked()) {
+            return;
+        }
+        node.detach();
+        linkedSize--;
+        if (node.pinned) {
+            node.pinned = false;
+            linkedPinned--;
+        }
+        if (node.inProtected) {
+            protectedSize--;
+        }
+    }
+
+    private void evictOverflow(List<Node> evicted) {
+        int unpinned = linkedSize - linkedPinned;
+        while (unpinned > maxSize) {
+            Node victim = leastRecentUnpinned(probation);
+            if (victim == null) {
+                victim = leastRecentUnpinned(protectedSegment);
+            }
+            if (victim == null) {
+                // Every remaining candidate has an update in flight
+                evictionDeferred = true;
+                return;
+            }
+            if (!evict(victim, evicted)) {
+                return;
+            }
+            unpinned--;
+        }
+    }
+
+    private void expire(Node segment, long now, List<Node> evicted) {
+        Node node = segment.prev;
+        while (node != segment) {
+            Node previous = node.prev;
+            if (now - node.lastAccess > expireAfterAccessNanos && !node.pinned) {
+                evict(node, evicted);
+            }
+            node = previous;
+        }
+    }
+
+    private Node leastRecentUnpinned(Node segment) {
+        for (Node node = segment.prev; node != segment; node = node.prev) {
+            if (!node.pinned && node.updates.get() == 0) {
+                return node;
+            }
+        }
+        return null;
+    }
+
+    private boolean evict(Node node, List<Node> evicted) {
+        node.evicting = true;
+        if (node.updates.get() > 0) {
+            node.evicting = false;
+            evictionDeferred = true;
+            return false;
+        }
+        if (entries.remove(node.key, node)) {
+            evicted.add(node);
+            evictions.increment();
+        }
+        unlink(node);
+        return true;
+    }
+
+    private void notifyEvicted(List<Node> evicted) {
+        if (evictionListener == null) {
+            return;
+        }
+        for (Node node : evicted) {
+            evictionListener.accept(node.value);
+        }
+    }
+
+    private static void addFirst(Node segment, Node node) {
+        node.prev = segment;
+        node.next = segment.next;
+        segment.next.prev = node;
+        segment.next = node;
+    }
+
+    private static final class Node {
+        final UUID key;
+        final PlayerData value;
+        volatile long lastAccess;
+        boolean inProtected;
+        // Whether this entry is counted in linkedPinned
+        boolean pinned;
+        final AtomicInteger updates = new AtomicInteger();
+        volatile boolean evicting;
+        Node prev;
+        Node next;
+
+        Node(UUID key, PlayerData value) {
+            this.key = key;
+            this.value = value;
+            this.lastAccess = System.nanoTime();
+        }
+
+        static Node sentinel() {
+            Node node = new Node(null, null);
+            node.prev = node;
+            node.next = node;
+            return node;
+        }
+
+        boolean isLinked() {
+            return prev != null;
+        }
+
+        void detach() {
+            prev.next = next;
+            next.prev = prev;
+            prev = null;
+            next = null;
+        }
+    }
+}
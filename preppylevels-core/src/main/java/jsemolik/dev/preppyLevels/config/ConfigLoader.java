@@ -0,0 +1,444 @@
+package jsemolik.dev.preppyLevels.config;
+
+import jsemolik.dev.preppyLevels.storage.StorageExecutor;
+import jsemolik.dev.preppyLevels.storage.WriteBehindQueue;
+import org.yaml.snakeyaml.Yaml;
+
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.logging.Logger;
+
+public class ConfigLoader {
+    private final Logger logger;
+    private final Path configPath;
+
+    public ConfigLoader(Logger logger, Path configPath) {
+        this.logger = logger;
+        this.configPath = configPath;
+    }
+
+    @SuppressWarnings("unchecked")
+    public PluginConfig loadConfig() {
+        try {
+            if (!Files.exists(configPath)) {
+                logger.warning("Config file not found, creating default config...");
+                createDefaultConfigFile();
+            }
+
+            Yaml yaml = new Yaml();
+            Map<String, Object> data;
+            try (InputStream inputStream = Files.newInputStream(configPath)) {
+                Object loaded = yaml.load(inputStream);
+                if (loaded == null) {
+                    logger.warning("Config file is empty, using defaults");
+                    return createDefaultConfig();
+                }
+                data = (Map<String, Object>) loaded;
+            }
+
+            PluginConfig config = new PluginConfig();
+            
+            // Storage type
+            String storageTypeStr = (String) data.getOrDefault("storage-type", "H2");
+            config.setStorageType(PluginConfig.StorageType.valueOf(storageTypeStr.toUpperCase()));
+
+            // MySQL config
+            if (data.containsKey("mysql")) {
+                @SuppressWarnings("unchecked")
+                Map<String, Object> mysqlData = (Map<String, Object>) data.get("mysql");
+                PluginConfig.MySQLConfig mysqlConfig = new PluginConfig.MySQLConfig();
+                mysqlConfig.setHost((String) mysqlData.getOrDefault("host", "localhost"));
+                mysqlConfig.setPort((Integer) mysqlData.getOrDefault("port", 3306));
+                mysqlConfig.setDatabase((String) mysqlData.getOrDefault("database", "preppylevels"));
+                mysqlConfig.setUsername((String) mysqlData.getOrDefault("username", "root"));
+                mysqlConfig.setPassword((String) mysqlData.getOrDefault("password", "password"));
+                mysqlConfig.setPoolSize((Integer) mysqlData.getOrDefault("pool-size", 10));
+                mysqlConfig.setJdbcUrl(String.valueOf(mysqlData.getOrDefault("jdbc-url", "")));
+
+                PluginConfig.ChangeFeedConfig changeFeedConfig = new PluginConfig.ChangeFeedConfig();
+                if (mysqlData.containsKey("change-feed")) {
+                    @SuppressWarnings("unchecked")
+                    Map<String, Object> changeFeedData = (Map<String, Object>) mysqlData.get("change-feed");
+                    changeFeedConfig.setEnabled((Boolean) changeFeedData.getOrDefault("enabled", false));
+                    changeFeedConfig.setServerId(String.valueOf(changeFeedData.getOrDefault("server-id", "")));
+                    changeFeedConfig.setPollInterval((Integer) changeFeedData.getOrDefault("poll-interval", 40));
+                    changeFeedConfig.setRetention((Integer) changeFeedData.getOrDefault("retention", 3600));
+                } else {
+                    changeFeedConfig.setEnabled(false);
+                    changeFeedConfig.setServerId("");
+                    changeFeedConfig.setPollInterval(40);
+                    changeFeedConfig.setRetention(3600);
+                }
+                mysqlConfig.setChangeFeedConfig(changeFeedConfig);
+                config.setMysqlConfig(mysqlConfig);
+            }
+
+            // H2 config
+            PluginConfig.H2Config h2Config = new PluginConfig.H2Config();
+            if (data.containsKey("h2")) {
+                @SuppressWarnings("unchecked")
+                Map<String, Object> h2Data = (Map<String, Object>) data.get("h2");
+                h2Config.setFile((String) h2Data.getOrDefault("file", "preppylevels.db"));
+            } else {
+                h2Config.setFile("preppylevels.db");
+            }
+            config.setH2Config(h2Config);
+
+            // SQLite config
+            PluginConfig.SQLiteConfig sqliteConfig = new PluginConfig.SQLiteConfig();
+            if (data.containsKey("sqlite")) {
+                @SuppressWarnings("unchecked")
+                Map<String, Object> sqliteData = (Map<String, Object>) data.get("sqlite");
+                sqliteConfig.setFile((String) sqliteData.getOrDefault("file", "preppylevels.db"));
+                sqliteConfig.setReadConnections((Integer) sqliteData.getOrDefault("read-connections", 4));
+                sqliteConfig.setPageCacheKb((Integer) sqliteData.getOrDefault("page-cache-kb", 16384));
+            } else {
+                sqliteConfig.setFile("preppylevels.db");
+                sqliteConfig.setReadConnections(4);
+                sqliteConfig.setPageCacheKb(16384);
+            }
+            config.setSqliteConfig(sqliteConfig);
+
+            // Log storage config
+            PluginConfig.LogConfig logConfig = new PluginConfig.LogConfig();
+            if (data.containsKey("log")) {
+                @SuppressWarnings("unchecked")
+                Map<String, Object> logData = (Map<String, Object>) data.get("log");
+                logConfig.setDirectory((String) logData.getOrDefault("directory", "log"));
+                logConfig.setSegmentSize((Integer) logData.getOrDefault("segment-size", 64));
+                logConfig.setCompactionThreshold(((Number) logData.getOrDefault("compaction-threshold", 0.5)).doubleValue());
+                logConfig.setCompactionInterval((Integer) logData.getOrDefault("compaction-interval", 300));
+            } else {
+                logConfig.setDirectory("log");
+                logConfig.setSegmentSize(64);
+                logConfig.setCompactionThreshold(0.5);
+                logConfig.setCompactionInterval(300);
+            }
+            config.setLogConfig(logConfig);
+
+            // Storage executor config
+            PluginConfig.StorageExecutorConfig storageExecutorConfig = new PluginConfig.StorageExecutorConfig();
+            if (data.containsKey("storage-executor")) {
+                @SuppressWarnings("unchecked")
+                Map<String, Object> executorData = (Map<String, Object>) data.get("storage-executor");
+                storageExecutorConfig.setThreads((Integer) executorData.getOrDefault("threads", 4));
+                storageExecutorConfig.setQueueCapacity((Integer) executorData.getOrDefault("queue-capacity", 1000));
+                String policy = String.valueOf(executorData.getOrDefault("overload-policy", "CALLER_RUNS"));
+                try {
+                    storageExecutorConfig.setOverloadPolicy(StorageExecutor.OverloadPolicy.valueOf(policy.toUpperCase()));
+                } catch (IllegalArgumentException e) {
+                    logger.warning("Unknown storage overload-policy '" + policy + "', using CALLER_RUNS");
+                    storageExecutorConfig.setOverloadPolicy(StorageExecutor.OverloadPolicy.CALLER_RUNS);
+                }
+            } else {
+                storageExecutorConfig.setThreads(4);
+                storageExecutorConfig.setQueueCapacity(1000);
+                storageExecutorConfig.setOverloadPolicy(StorageExecutor.OverloadPolicy.CALLER_RUNS);
+            }
+            config.setStorageExecutorConfig(storageExecutorConfig);
+
+            // XP requirements
+            if (data.containsKey("xp-requirements")) {
+                @SuppressWarnings("unchecked")
+                Map<Object, Object> xpReqData = (Map<Object, Object>) data.get("xp-requirements");
+                Map<Integer, Integer> xpRequirements = new HashMap<>();
+                for (Map.Entry<Object, Object> entry : xpReqData.entrySet()) {
+                    try {
+                        int level;
+                        if (entry.getKey() instanceof Integer) {
+                            level = (Integer) entry.getKey();
+                        } else {
+                            level = Integer.parseInt(entry.getKey().toString());
+                        }
+                        int xp = ((Number) entry.getValue()).intValue();
+                        xpRequirements.put(level, xp);
+                    } catch (NumberFormatException e) {
+                        logger.warning("Invalid XP requirement entry: " + entry.getKey());
+                    }
+                }
+                config.setXpRequirements(xpRequirements);
+            } else {
+                config.setXpRequirements(new HashMap<>());
+            }
+
+            config.setDefaultXpIncrement((Integer) data.getOrDefault("default-xp-increment", 100));
+
+            // Level formula (overrides xp-requirements when set)
+            Object levelFormula = data.get("level-formula");
+            if (levelFormula != null && !levelFormula.toString().isBlank()) {
+                config.setLevelFormula(levelFormula.toString());
+                try {
+                    config.getXpCurve();
+                    logger.info("Using level formula: " + levelFormula);
+                } catch (IllegalArgumentException e) {
+                    logger.warning("Invalid level-formula, falling back to xp-requirements: " + e.getMessage());
+                    config.setLevelFormula(null);
+                }
+            }
+
+            PluginConfig.MessageConfig messageConfig = new PluginConfig.MessageConfig();
+            if (data.containsKey("messages")) {
+                @SuppressWarnings("unchecked")
+                Map<String, Object> messagesData = (Map<String, Object>) data.get("messages");
+                messageConfig.setXpGained((String) messagesData.getOrDefault("xp-gained", "&a+{xp} XP"));
+                messageConfig.setLevelUp((String) messagesData.getOrDefault("level-up", "&6&lLEVEL UP!"));
+                messageConfig.setXpNeeded((String) messagesData.getOrDefault("xp-needed", "&7You need {xp} more XP"));
+            } else {
+                messageConfig.setXpGained("&a+{xp} XP");
+                messageConfig.setLevelUp("&6&lLEVEL UP!");
+                messageConfig.setXpNeeded("&7You need {xp} more XP");
+            }
+            config.setMessageConfig(messageConfig);
+
+            // XP Bar config
+            PluginConfig.XpBarConfig xpBarConfig = new PluginConfig.XpBarConfig();
+            if (data.containsKey("xp-bar")) {
+                @SuppressWarnings("unchecked")
+                Map<String, Object> xpBarData = (Map<String, Object>) data.get("xp-bar");
+                xpBarConfig.setUpdateInterval((Integer) xpBarData.getOrDefault("update-interval", 600));
+                xpBarConfig.setShowLevel((Boolean) xpBarData.getOrDefault("show-level", true));
+            } else {
+                xpBarConfig.setUpdateInterval(600);
+                xpBarConfig.setShowLevel(true);
+            }
+            config.setXpBarConfig(xpBarConfig);
+
+            // Write-behind config
+            PluginConfig.WriteBehindConfig writeBehindConfig = new PluginConfig.WriteBehindConfig();
+            if (data.containsKey("write-behind")) {
+                @SuppressWarnings("unchecked")
+                Map<String, Object> writeBehindData = (Map<String, Object>) data.get("write-behind");
+                writeBehindConfig.setFlushInterval((Integer) writeBehindData.getOrDefault("flush-interval", 100));
+                writeBehindConfig.setMaxDirty((Integer) writeBehindData.getOrDefault("max-dirty", 500));
+                String mode = String.valueOf(writeBehindData.getOrDefault("mode", "ABSOLUTE"));
+                try {
+                    writeBehindConfig.setMode(WriteBehindQueue.WriteMode.valueOf(mode.toUpperCase()));
+                } catch (IllegalArgumentException e) {
+                    logger.warning("Unknown write-behind mode '" + mode + "', using ABSOLUTE");
+                    writeBehindConfig.setMode(WriteBehindQueue.WriteMode.ABSOLUTE);
+                }
+            } else {
+                writeBehindConfig.setFlushInterval(100);
+                writeBehindConfig.setMaxDirty(500);
+                writeBehindConfig.setMode(WriteBehindQueue.WriteMode.ABSOLUTE);
+            }
+            // Only SQL backends can add to stored totals
+            if (writeBehindConfig.getMode() == WriteBehindQueue.WriteMode.DELTA
+                && (config.getStorageType() == PluginConfig.StorageType.JSON || config.getStorageType() == PluginConfig.StorageType.YAML
+                    || config.getStorageType() == PluginConfig.StorageType.LOG)) {
+                logger.warning("write-behind mode DELTA needs a SQL storage type, using ABSOLUTE");
+                writeBehindConfig.setMode(WriteBehindQueue.WriteMode.ABSOLUTE);
+            }
+            config.setWriteBehindConfig(writeBehindConfig);
+
+            // Cache config
+            PluginConfig.CacheConfig cacheConfig = new PluginConfig.CacheConfig();
+            if (data.containsKey("cache")) {
+                @SuppressWarnings("unchecked")
+                Map<String, Object> cacheData = (Map<String, Object>) data.get("cache");
+                cacheConfig.setMaxSize((Integer) cacheData.getOrDefault("max-size", 5000));
+                cacheConfig.setExpireAfterAccess((Integer) cacheData.getOrDefault("expire-after-access", 600));
+                cacheConfig.setPreloadTimeout((Integer) cacheData.getOrDefault("preload-timeout", 3000));
+                cacheConfig.setWarmStart((Boolean) cacheData.getOrDefault("warm-start", true));
+            } else {
+                cacheConfig.setMaxSize(5000);
+                cacheConfig.setExpireAfterAccess(600);
+                cacheConfig.setPreloadTimeout(3000);
+                cacheConfig.setWarmStart(true);
+            }
+            config.setCacheConfig(cacheConfig);
+
+            // XP pipeline config
+            PluginConfig.XpPipelineConfig xpPipelineConfig = new PluginConfig.XpPipelineConfig();
+            if (data.containsKey("xp-pipeline")) {
+                @SuppressWarnings("unchecked")
+                Map<String, Object> xpPipelineData = (Map<String, Object>) data.get("xp-pipeline");
+                xpPipelineConfig.setBufferSize((Integer) xpPipelineData.getOrDefault("buffer-size", 65536));
+            } else {
+                xpPipelineConfig.setBufferSize(65536);
+            }
+            config.setXpPipelineConfig(xpPipelineConfig);
+
+            // Placeholder config
+            PluginConfig.PlaceholderConfig placeholderConfig = new PluginConfig.PlaceholderConfig();
+            if (data.containsKey("placeholders")) {
+                @SuppressWarnings("unchecked")
+                Map<String, Object> placeholderData = (Map<String, Object>) data.get("placeholders");
+                placeholderConfig.setFallback(String.valueOf(placeholderData.getOrDefault("fallback", "...")));
+            } else {
+                placeholderConfig.setFallback("...");
+            }
+            config.setPlaceholderConfig(placeholderConfig);
+            
+            // Auto XP config (with defaults)
+            PluginConfig.AutoXpConfig autoXpConfig = new PluginConfig.AutoXpConfig();
+            if (data.containsKey("auto-xp")) {
+                @SuppressWarnings("unchecked")
+                Map<String, Object> autoXpData = (Map<String, Object>) data.get("auto-xp");
+                autoXpConfig.setEnabled((Boolean) autoXpData.getOrDefault("enabled", true));
+                
+                if (autoXpData.containsKey("tasks")) {
+                    @SuppressWarnings("unchecked")
+                    Map<String, Object> tasksData = (Map<String, Object>) autoXpData.get("tasks");
+                    Map<String, Integer> tasks = new HashMap<>();
+                    for (Map.Entry<String, Object> entry : tasksData.entrySet()) {
+                        tasks.put(entry.getKey(), ((Number) entry.getValue()).intValue());
+                    }
+                    autoXpConfig.setTasks(tasks);
+                } else {
+                    autoXpConfig.setTasks(new HashMap<>());
+                }
+            } else {
+                autoXpConfig.setEnabled(true);
+                autoXpConfig.setTasks(new HashMap<>());
+            }
+            config.setAutoXpConfig(autoXpConfig);
+
+            logger.info("Configuration loaded successfully!");
+            return config;
+        } catch (Exception e) {
+            logger.severe("Failed to load config: " + e.getMessage());
+            e.printStackTrace();
+            return createDefaultConfig();
+        }
+    }
+
+    private void createDefaultConfigFile() {
+        try {
+            // Create parent directories if they don't exist
+            Files.createDirectories(configPath.getParent());
+            
+            // Copy default config from resources
+            try (InputStream defaultConfig = ConfigLoader.class.getClassLoader().getResourceAsStream("config.yml")) {
+                if (defaultConfig != null) {
+                    Files.copy(defaultConfig, configPath, StandardCopyOption.REPLACE_EXISTING);
+                    logger.info("Default config file created at: " + configPath);
+                } else {
+                    logger.severe("Default config.yml not found in resources!");
+                    // Create a minimal config file
+                    createMinimalConfigFile();
+                }
+            }
+        } catch (Exception e) {
+            logger.severe("Failed to create default config file: " + e.getMessage());
+            e.printStackTrace();
+        }
+    }
+    
+    private void createMinimalConfigFile() {
+        try {
+            String minimalConfig = 
+                "storage-type: H2\n" +
+                "h2:\n" +
+                "  file: preppylevels.db\n" +
+                "xp-requirements:\n" +
+                "  1: 100\n" +
+                "default-xp-increment: 100\n" +
+                "auto-xp:\n" +
+                "  enabled: true\n" +
+                "  tasks: {}\n" +
+                "messages:\n" +
+                "  xp-gained: \"&a+{xp} XP\"\n" +
+                "  level-up: \"&6&lLEVEL UP!\"\n" +
+                "  xp-needed: \"&7You need {xp} more XP\"\n" +
+                "xp-bar:\n" +
+                "  update-interval: 600\n" +
+                "  show-level: true\n";
+            Files.writeString(configPath, minimalConfig);
+            logger.info("Minimal config file created");
+        } catch (Exception e) {
+            logger.severe("Failed to create minimal config file: " + e.getMessage());
+            e.printStackTrace();
+        }
+    }
+    
+    private PluginConfig createDefaultConfig() {
+        // Return a default config if file creation fails
+        PluginConfig config = new PluginConfig();
+        config.setStorageType(PluginConfig.StorageType.H2);
+        config.setDefaultXpIncrement(100);
+        
+        // Set H2 config
+        PluginConfig.H2Config h2Config = new PluginConfig.H2Config();
+        h2Config.setFile("preppylevels.db");
+        config.setH2Config(h2Config);
+        
+        // Set SQLite config
+        PluginConfig.SQLiteConfig sqliteConfig = new PluginConfig.SQLiteConfig();
+        sqliteConfig.setFile("preppylevels.db");
+        sqliteConfig.setReadConnections(4);
+        sqliteConfig.setPageCacheKb(16384);
+        config.setSqliteConfig(sqliteConfig);
+
+        // Set log storage config
+        PluginConfig.LogConfig logConfig = new PluginConfig.LogConfig();
+        logConfig.setDirectory("log");
+        logConfig.setSegmentSize(64);
+        logConfig.setCompactionThreshold(0.5);
+        logConfig.setCompactionInterval(300);
+        config.setLogConfig(logConfig);
+        
+        // Set storage executor config
+        PluginConfig.StorageExecutorConfig storageExecutorConfig = new PluginConfig.StorageExecutorConfig();
+        storageExecutorConfig.setThreads(4);
+        storageExecutorConfig.setQueueCapacity(1000);
+        storageExecutorConfig.setOverloadPolicy(StorageExecutor.OverloadPolicy.CALLER_RUNS);
+        config.setStorageExecutorConfig(storageExecutorConfig);
+        
+        // Set XP requirements
+        Map<Integer, Integer> xpReq = new HashMap<>();
+        xpReq.put(1, 100);
+        config.setXpRequirements(xpReq);
+        
+        // Set messages
+        PluginConfig.MessageConfig messageConfig = new PluginConfig.MessageConfig();
+        messageConfig.setXpGained("&a+{xp} XP");
+        messageConfig.setLevelUp("&6&lLEVEL UP!");
+        messageConfig.setXpNeeded("&7You need {xp} more XP");
+        config.setMessageConfig(messageConfig);
+        
+        // Set XP bar config
+        PluginConfig.XpBarConfig xpBarConfig = new PluginConfig.XpBarConfig();
+        xpBarConfig.setUpdateInterval(600);
+        xpBarConfig.setShowLevel(true);
+        config.setXpBarConfig(xpBarConfig);
+        
+        // Set write-behind config
+        PluginConfig.WriteBehindConfig writeBehindConfig = new PluginConfig.WriteBehindConfig();
+        writeBehindConfig.setFlushInterval(100);
+        writeBehindConfig.setMaxDirty(500);
+        writeBehindConfig.setMode(WriteBehindQueue.WriteMode.ABSOLUTE);
+        config.setWriteBehindConfig(writeBehindConfig);
+        
+        // Set cache config
+        PluginConfig.CacheConfig cacheConfig = new PluginConfig.CacheConfig();
+        cacheConfig.setMaxSize(5000);
+        cacheConfig.setExpireAfterAccess(600);
+        cacheConfig.setPreloadTimeout(3000);
+        cacheConfig.setWarmStart(true);
+        config.setCacheConfig(cacheConfig);
+        
+        // Set XP pipeline config
+        PluginConfig.XpPipelineConfig xpPipelineConfig = new PluginConfig.XpPipelineConfig();
+        xpPipelineConfig.setBufferSize(65536);
+        config.setXpPipelineConfig(xpPipelineConfig);
+        
+        // Set placeholder config
+        PluginConfig.PlaceholderConfig placeholderConfig = new PluginConfig.PlaceholderConfig();
+        placeholderConfig.setFallback("...");
+        config.setPlaceholderConfig(placeholderConfig);
+        
+        // Set auto XP config
+        PluginConfig.AutoXpConfig autoXpConfig = new PluginConfig.AutoXpConfig();
+        autoXpConfig.setEnabled(true);
+        autoXpConfig.setTasks(new HashMap<>());
+        config.setAutoXpConfig(autoXpConfig);
+        
+        return config;
+    }
+}
+
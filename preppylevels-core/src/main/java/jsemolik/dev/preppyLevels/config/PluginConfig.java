@@ -0,0 +1,361 @@
+package jsemolik.dev.preppyLevels.config;
+
+import jsemolik.dev.preppyLevels.curve.FormulaXpCurve;
+import jsemolik.dev.preppyLevels.curve.TableXpCurve;
+import jsemolik.dev.preppyLevels.curve.XpCurve;
+import jsemolik.dev.preppyLevels.storage.StorageExecutor;
+import jsemolik.dev.preppyLevels.storage.WriteBehindQueue;
+
+import java.util.Map;
+
+public class PluginConfig {
+    private StorageType storageType;
+    private MySQLConfig mysqlConfig;
+    private H2Config h2Config;
+    private SQLiteConfig sqliteConfig;
+    private LogConfig logConfig;
+    private Map<Integer, Integer> xpRequirements;
+    private int defaultXpIncrement;
+    private String levelFormula;
+    private volatile XpCurve xpCurve;
+    private AutoXpConfig autoXpConfig;
+    private MessageConfig messageConfig;
+    private XpBarConfig xpBarConfig;
+    private WriteBehindConfig writeBehindConfig;
+    private CacheConfig cacheConfig;
+    private XpPipelineConfig xpPipelineConfig;
+    private PlaceholderConfig placeholderConfig;
+    private StorageExecutorConfig storageExecutorConfig;
+
+    public StorageType getStorageType() {
+        return storageType;
+    }
+
+    public void setStorageType(StorageType storageType) {
+        this.storageType = storageType;
+    }
+
+    public MySQLConfig getMysqlConfig() {
+        return mysqlConfig;
+    }
+
+    public void setMysqlConfig(MySQLConfig mysqlConfig) {
+        this.mysqlConfig = mysqlConfig;
+    }
+
+    public H2Config getH2Config() {
+        return h2Config;
+    }
+
+    public void setH2Config(H2Config h2Config) {
+        this.h2Config = h2Config;
+    }
+
+    public SQLiteConfig getSqliteConfig() {
+        return sqliteConfig;
+    }
+
+    public void setSqliteConfig(SQLiteConfig sqliteConfig) {
+        this.sqliteConfig = sqliteConfig;
+    }
+
+    public LogConfig getLogConfig() {
+        return logConfig;
+    }
+
+    public void setLogConfig(LogConfig logConfig) {
+        this.logConfig = logConfig;
+    }
+
+    public Map<Integer, Integer> getXpRequirements() {
+        return xpRequirements;
+    }
+
+    public void setXpRequirements(Map<Integer, Integer> xpRequirements) {
+        this.xpRequirements = xpRequirements;
+        this.xpCurve = null;
+    }
+
+    public int getXpRequiredForLevel(int level) {
+        return (int) Math.min(Integer.MAX_VALUE, getXpCurve().getXpRequiredForLevel(level));
+    }
+
+    /**
+     * Get the XP curve built from the level formula, or from the XP requirements and default
+     * increment when no formula is set. The curve is built on first use and rebuilt only if
+     * one of those settings changes.
+     * @throws IllegalArgumentException if the level formula is invalid
+     */
+    public XpCurve getXpCurve() {
+        XpCurve curve = xpCurve;
+        if (curve == null) {
+            if (levelFormula != null && !levelFormula.isBlank()) {
+                curve = FormulaXpCurve.compile(levelFormula);
+            } else {
+                curve = new TableXpCurve(xpRequirements, defaultXpIncrement);
+            }
+            xpCurve = curve;
+        }
+        return curve;
+    }
+
+    public String getLevelFormula() {
+        return levelFormula;
+    }
+
+    public void setLevelFormula(String levelFormula) {
+        this.levelFormula = levelFormula;
+        this.xpCurve = null;
+    }
+
+    public int getDefaultXpIncrement() {
+        return defaultXpIncrement;
+    }
+
+    public void setDefaultXpIncrement(int defaultXpIncrement) {
+        this.defaultXpIncrement = defaultXpIncrement;
+        this.xpCurve = null;
+    }
+
+    public AutoXpConfig getAutoXpConfig() {
+        return autoXpConfig;
+    }
+
+    public void setAutoXpConfig(AutoXpConfig autoXpConfig) {
+        this.autoXpConfig = autoXpConfig;
+    }
+
+    public MessageConfig getMessageConfig() {
+        return messageConfig;
+    }
+
+    public void setMessageConfig(MessageConfig messageConfig) {
+        this.messageConfig = messageConfig;
+    }
+
+    public XpBarConfig getXpBarConfig() {
+        return xpBarConfig;
+    }
+
+    public void setXpBarConfig(XpBarConfig xpBarConfig) {
+        this.xpBarConfig = xpBarConfig;
+    }
+
+    public WriteBehindConfig getWriteBehindConfig() {
+        return writeBehindConfig;
+    }
+
+    public void setWriteBehindConfig(WriteBehindConfig writeBehindConfig) {
+        this.writeBehindConfig = writeBehindConfig;
+    }
+
+    public CacheConfig getCacheConfig() {
+        return cacheConfig;
+    }
+
+    public void setCacheConfig(CacheConfig cacheConfig) {
+        this.cacheConfig = cacheConfig;
+    }
+
+    public XpPipelineConfig getXpPipelineConfig() {
+        return xpPipelineConfig;
+    }
+
+    public void setXpPipelineConfig(XpPipelineConfig xpPipelineConfig) {
+        this.xpPipelineConfig = xpPipelineConfig;
+    }
+
+    public PlaceholderConfig getPlaceholderConfig() {
+        return placeholderConfig;
+    }
+
+    public void setPlaceholderConfig(PlaceholderConfig placeholderConfig) {
+        this.placeholderConfig = placeholderConfig;
+    }
+
+    public StorageExecutorConfig getStorageExecutorConfig() {
+        return storageExecutorConfig;
+    }
+
+    public void setStorageExecutorConfig(StorageExecutorConfig storageExecutorConfig) {
+        this.storageExecutorConfig = storageExecutorConfig;
+    }
+
+    public enum StorageType {
+        MYSQL, H2, SQLITE, YAML, JSON, LOG
+    }
+
+    public static class MySQLConfig {
+        private String host;
+        private int port;
+        private String database;
+        private String username;
+        private String password;
+        private int poolSize;
+        private String jdbcUrl;
+        private ChangeFeedConfig changeFeedConfig;
+
+        // Getters and setters
+        public String getHost() { return host; }
+        public void setHost(String host) { this.host = host; }
+        public int getPort() { return port; }
+        public void setPort(int port) { this.port = port; }
+        public String getDatabase() { return database; }
+        public void setDatabase(String database) { this.database = database; }
+        public String getUsername() { return username; }
+        public void setUsername(String username) { this.username = username; }
+        public String getPassword() { return password; }
+        public void setPassword(String password) { this.password = password; }
+        public int getPoolSize() { return poolSize; }
+        public void setPoolSize(int poolSize) { this.poolSize = poolSize; }
+        public String getJdbcUrl() { return jdbcUrl; }
+        public void setJdbcUrl(String jdbcUrl) { this.jdbcUrl = jdbcUrl; }
+        public ChangeFeedConfig getChangeFeedConfig() { return changeFeedConfig; }
+        public void setChangeFeedConfig(ChangeFeedConfig changeFeedConfig) { this.changeFeedConfig = changeFeedConfig; }
+    }
+
+    public static class ChangeFeedConfig {
+        private boolean enabled;
+        private String serverId;
+        private int pollInterval;
+        private int retention;
+
+        public boolean isEnabled() { return enabled; }
+        public void setEnabled(boolean enabled) { this.enabled = enabled; }
+        public String getServerId() { return serverId; }
+        public void setServerId(String serverId) { this.serverId = serverId; }
+        public int getPollInterval() { return pollInterval; }
+        public void setPollInterval(int pollInterval) { this.pollInterval = pollInterval; }
+        public int getRetention() { return retention; }
+        public void setRetention(int retention) { this.retention = retention; }
+    }
+
+    public static class H2Config {
+        private String file;
+
+        public String getFile() { return file; }
+        public void setFile(String file) { this.file = file; }
+    }
+
+    public static class SQLiteConfig {
+        private String file;
+        private int readConnections;
+        private int pageCacheKb;
+
+        public String getFile() { return file; }
+        public void setFile(String file) { this.file = file; }
+        public int getReadConnections() { return readConnections; }
+        public void setReadConnections(int readConnections) { this.readConnections = readConnections; }
+        public int getPageCacheKb() { return pageCacheKb; }
+        public void setPageCacheKb(int pageCacheKb) { this.pageCacheKb = pageCacheKb; }
+    }
+
+    public static class LogConfig {
+        private String directory;
+        private int segmentSize;
+        private double compactionThreshold;
+        private int compactionInterval;
+
+        public String getDirectory() { return directory; }
+        public void setDirectory(String directory) { this.directory = directory; }
+        public int getSegmentSize() { return segmentSize; }
+        public void setSegmentSize(int segmentSize) { this.segmentSize = segmentSize; }
+        public double getCompactionThreshold() { return compactionThreshold; }
+        public void setCompactionThreshold(double compactionThreshold) { this.compactionThreshold = compactionThreshold; }
+        public int getCompactionInterval() { return compactionInterval; }
+        public void setCompactionInterval(int compactionInterval) { this.compactionInterval = compactionInterval; }
+    }
+
+    public static class AutoXpConfig {
+        private boolean enabled;
+        private Map<String, Integer> tasks;
+
+        public boolean isEnabled() { return enabled; }
+        public void setEnabled(boolean enabled) { this.enabled = enabled; }
+        public Map<String, Integer> getTasks() { return tasks; }
+        public void setTasks(Map<String, Integer> tasks) { this.tasks = tasks; }
+        
+        public int getXpForTask(String task) {
+            return tasks != null ? tasks.getOrDefault(task, 0) : 0;
+        }
+    }
+
+    public static class MessageConfig {
+        private String xpGained;
+        private String levelUp;
+        private String xpNeeded;
+
+        public String getXpGained() { return xpGained; }
+        public void setXpGained(String xpGained) { this.xpGained = xpGained; }
+        public String getLevelUp() { return levelUp; }
+        public void setLevelUp(String levelUp) { this.levelUp = levelUp; }
+        public String getXpNeeded() { return xpNeeded; }
+        public void setXpNeeded(String xpNeeded) { this.xpNeeded = xpNeeded; }
+    }
+
+    public static class XpBarConfig {
+        private int updateInterval;
+        private boolean showLevel;
+
+        public int getUpdateInterval() { return updateInterval; }
+        public void setUpdateInterval(int updateInterval) { this.updateInterval = updateInterval; }
+        public boolean isShowLevel() { return showLevel; }
+        public void setShowLevel(boolean showLevel) { this.showLevel = showLevel; }
+    }
+
+    public static class WriteBehindConfig {
+        private int flushInterval;
+        private int maxDirty;
+        private WriteBehindQueue.WriteMode mode;
+
+        public int getFlushInterval() { return flushInterval; }
+        public void setFlushInterval(int flushInterval) { this.flushInterval = flushInterval; }
+        public int getMaxDirty() { return maxDirty; }
+        public void setMaxDirty(int maxDirty) { this.maxDirty = maxDirty; }
+        public WriteBehindQueue.WriteMode getMode() { return mode; }
+        public void setMode(WriteBehindQueue.WriteMode mode) { this.mode = mode; }
+    }
+
+    public static class CacheConfig {
+        private int maxSize;
+        private int expireAfterAccess;
+        private int preloadTimeout;
+        private boolean warmStart;
+
+        public int getMaxSize() { return maxSize; }
+        public void setMaxSize(int maxSize) { this.maxSize = maxSize; }
+        public int getExpireAfterAccess() { return expireAfterAccess; }
+        public void setExpireAfterAccess(int expireAfterAccess) { this.expireAfterAccess = expireAfterAccess; }
+        public int getPreloadTimeout() { return preloadTimeout; }
+        public void setPreloadTimeout(int preloadTimeout) { this.preloadTimeout = preloadTimeout; }
+        public boolean isWarmStart() { return warmStart; }
+        public void setWarmStart(boolean warmStart) { this.warmStart = warmStart; }
+    }
+
+    public static class XpPipelineConfig {
+        private int bufferSize;
+
+        public int getBufferSize() { return bufferSize; }
+        public void setBufferSize(int bufferSize) { this.bufferSize = bufferSize; }
+    }
+
+    public static class PlaceholderConfig {
+        private String fallback;
+
+        public String getFallback() { return fallback; }
+        public void setFallback(String fallback) { this.fallback = fallback; }
+    }
+
+    public static class StorageExecutorConfig {
+        private int threads;
+        private int queueCapacity;
+        private StorageExecutor.OverloadPolicy overloadPolicy;
+
+        public int getThreads() { return threads; }
+        public void setThreads(int threads) { this.threads = threads; }
+        public int getQueueCapacity() { return queueCapacity; }
+        public void setQueueCapacity(int queueCapacity) { this.queueCapacity = queueCapacity; }
+        public StorageExecutor.OverloadPolicy getOverloadPolicy() { return overloadPolicy; }
+        public void setOverloadPolicy(StorageExecutor.OverloadPolicy overloadPolicy) { this.overloadPolicy = overloadPolicy; }
+    }
+}
@@ -0,0 +1,387 @@
+package jsemolik.dev.preppyLevels.curve;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * XP curve defined by a closed-form level formula. The formula describes the XP needed to
+ * advance from each level to the next and is compiled once into an evaluator whose cumulative
+ * sum has an analytic inverse, so the level for an XP total is found without walking levels.
+ *
+ * Supported formulas, where n is the number of levels above the segment start (0 for level 1):
+ * <ul>
+ *   <li>{@code linear(base, increment)} - base + increment * n</li>
+ *   <li>{@code quadratic(a, b, c)} - a * n^2 + b * n + c</li>
+ *   <li>{@code exponential(base, ratio)} - base * ratio^n</li>
+ *   <li>{@code piecewise(1: <formula>, <level>: <formula>, ...)} - switches formula at each listed level</li>
+ * </ul>
+ */
+public final class FormulaXpCurve implements XpCurve {
+    private static final int MAX_LEVEL = Integer.MAX_VALUE - 1;
+
+    private final String formula;
+    private final int[] segmentStarts;
+    private final long[] segmentOffsets;
+    private final Segment[] segments;
+
+    private FormulaXpCurve(String formula, List<Integer> starts, List<Segment> segments) {
+        this.formula = formula;
+        this.segments = segments.toArray(new Segment[0]);
+        this.segmentStarts = new int[starts.size()];
+        this.segmentOffsets = new long[starts.size()];
+
+        long offset = 0L;
+        for (int i = 0; i < this.segments.length; i++) {
+            segmentStarts[i] = starts.get(i);
+            segmentOffsets[i] = offset;
+            if (i + 1 < this.segments.length) {
+                offset = saturatedAdd(offset, this.segments[i].cumulative(starts.get(i + 1) - starts.get(i)));
+            }
+        }
+    }
+
+    /**
+     * Parse and compile a level formula
+     * @throws IllegalArgumentException if the formula is malformed or does not describe an increasing curve
+     */
+    public static FormulaXpCurve compile(String formula) {
+        Parser parser = new Parser(formula);
+        List<Integer> starts = new ArrayList<>();
+        List<Segment> segments = new ArrayList<>();
+
+        String name = parser.peekIdentifier();
+        if (name.equals("piecewise")) {
+            parser.identifier();
+            parser.expect('(');
+            do {
+                int start = parser.level();
+                parser.expect(':');
+                if (starts.isEmpty() ? start != 1 : start <= starts.get(starts.size() - 1)) {
+                    throw new IllegalArgumentException("Piecewise segments must start at level 1 and be in ascending order");
+                }
+                starts.add(start);
+                segments.add(parser.segment());
+            } while (parser.accept(','));
+            parser.expect(')');
+        } else {
+            starts.add(1);
+            segments.add(parser.segment());
+        }
+        parser.end();
+
+        return new FormulaXpCurve(formula, starts, segments);
+    }
+
+    @Override
+    public int getLevel(long totalXp) {
+        if (totalXp < 0) {
+            return 1;
+        }
+
+        int index = segmentFor(totalXp);
+        long xpInSegment = totalXp - segmentOffsets[index];
+        long levelsInSegment = segments[index].levelsFor(xpInSegment);
+        if (index + 1 < segments.length) {
+            levelsInSegment = Math.min(levelsInSegment, segmentStarts[index + 1] - segmentStarts[index]);
+        }
+        return (int) Math.min(MAX_LEVEL, segmentStarts[index] + levelsInSegment);
+    }
+
+    @Override
+    public long getXpToReachLevel(int level) {
+        if (level <= 1) {
+            return 0L;
+        }
+        int index = segments.length - 1;
+        while (segmentStarts[index] > level) {
+            index--;
+        }
+        return saturatedAdd(segmentOffsets[index], segments[index].cumulative(level - segmentStarts[index]));
+    }
+
+    @Override
+    public long getXpRequiredForLevel(int level) {
+        if (level < 1) {
+            return segments[0].cumulative(1);
+        }
+        return getXpToReachLevel(level + 1) - getXpToReachLevel(level);
+    }
+
+    public String getFormula() {
+        return formula;
+    }
+
+    private int segmentFor(long totalXp) {
+        int low = 0;
+        int high = segmentOffsets.length - 1;
+        while (low < high) {
+            int mid = (low + high + 1) >>> 1;
+            if (segmentOffsets[mid] <= totalXp) {
+                low = mid;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return low;
+    }
+
+    private static long saturatedAdd(long a, long b) {
+        return a > Long.MAX_VALUE - b ? Long.MAX_VALUE : a + b;
+    }
+
+    /**
+     * One closed-form piece of the curve. {@link #sum(double)} is the XP needed for the first
+     * n levels of the segment and {@link #inverse(double)} solves sum(n) = xp for n.
+     */
+    private abstract static class Segment {
+        abstract double sum(double n);
+
+        abstract double inverse(double xp);
+
+        long cumulative(long n) {
+            double value = Math.floor(sum(n));
+            return value >= Long.MAX_VALUE ? Long.MAX_VALUE : (long) value;
+        }
+
+        long levelsFor(long xp) {
+            double estimate = inverse(xp);
+            long n = Double.isNaN(estimate) ? 0L : (long) Math.max(0.0, Math.min(MAX_LEVEL, Math.floor(estimate)));
+            // The analytic estimate can be off by one through floating point rounding
+            while (n < MAX_LEVEL && cumulative(n + 1) <= xp && cumulative(n + 1) > cumulative(n)) {
+                n++;
+            }
+            while (n > 0 && cumulative(n) > xp) {
+                n--;
+            }
+            return n;
+        }
+    }
+
+    private static final class Linear extends Segment {
+        private final double base;
+        private final double increment;
+
+        Linear(double base, double increment) {
+            if (base <= 0 || increment < 0) {
+                throw new IllegalArgumentException("linear(base, increment) requires base > 0 and increment >= 0");
+            }
+            this.base = base;
+            this.increment = increment;
+        }
+
+        @Override
+        double sum(double n) {
+            return base * n + increment * n * (n - 1) / 2.0;
+        }
+
+        @Override
+        double inverse(double xp) {
+            if (increment == 0) {
+                return xp / base;
+            }
+            // (increment / 2) n^2 + (base - increment / 2) n - xp = 0
+            double b = base - increment / 2.0;
+            return (-b + Math.sqrt(b * b + 2.0 * increment * xp)) / increment;
+        }
+    }
+
+    private static final class Quadratic extends Segment {
+        private final double cubic;
+        private final double square;
+        private final double linear;
+
+        Quadratic(double a, double b, double c) {
+            if (a < 0 || b < 0 || c <= 0) {
+                throw new IllegalArgumentException("quadratic(a, b, c) requires a >= 0, b >= 0 and c > 0");
+            }
+            // Sum of a*i^2 + b*i + c for i in [0, n) expanded into powers of n
+            this.cubic = a / 3.0;
+            this.square = (b - a) / 2.0;
+            this.linear = a / 6.0 - b / 2.0 + c;
+        }
+
+        @Override
+        double sum(double n) {
+            return ((cubic * n + square) * n + linear) * n;
+        }
+
+        @Override
+        double inverse(double xp) {
+            if (cubic == 0) {
+                if (square == 0) {
+                    return xp / linear;
+                }
+                return (-linear + Math.sqrt(linear * linear + 4.0 * square * xp)) / (2.0 * square);
+            }
+            return largestRealRoot(cubic, square, linear, -xp);
+        }
+
+        // Cardano's method on the depressed cubic t^3 + pt + q = 0 with n = t - b / 3a
+        private static double largestRealRoot(double a, double b, double c, double d) {
+            double shift = b / (3.0 * a);
+            double p = (3.0 * a * c - b * b) / (3.0 * a * a);
+            double q = (2.0 * b * b * b - 9.0 * a * b * c + 27.0 * a * a * d) / (27.0 * a * a * a);
+            double discriminant = q * q / 4.0 + p * p * p / 27.0;
+
+            double t;
+            if (discriminant >= 0) {
+                double root = Math.sqrt(discriminant);
+                t = Math.cbrt(-q / 2.0 + root) + Math.cbrt(-q / 2.0 - root);
+            } else {
+                double radius = 2.0 * Math.sqrt(-p / 3.0);
+                double angle = Math.acos(Math.max(-1.0, Math.min(1.0, 3.0 * q / (p * radius))));
+                t = radius * Math.cos(angle / 3.0);
+            }
+            return t - shift;
+        }
+    }
+
+    private static final class Exponential extends Segment {
+        private final double base;
+        private final double ratio;
+        private final double logRatio;
+
+        Exponential(double base, double ratio) {
+            if (base <= 0 || ratio < 1) {
+                throw new IllegalArgumentException("exponential(base, ratio) requires base > 0 and ratio >= 1");
+            }
+            this.base = base;
+            this.ratio = ratio;
+            this.logRatio = Math.log(ratio);
+        }
+
+        @Override
+        double sum(double n) {
+            if (ratio == 1) {
+                return base * n;
+            }
+            return base * Math.expm1(n * logRatio) / (ratio - 1.0);
+        }
+
+        @Override
+        double inverse(double xp) {
+            if (ratio == 1) {
+                return xp / base;
+            }
+            return Math.log1p(xp * (ratio - 1.0) / base) / logRatio;
+        }
+    }
+
+    private static final class Parser {
+        private final String input;
+        private int position;
+
+        Parser(String input) {
+            if (input == null || input.isBlank()) {
+                throw new IllegalArgumentException("Level formula is empty");
+            }
+            this.input = input.toLowerCase(Locale.ROOT);
+        }
+
+        Segment segment() {
+            String name = identifier();
+            expect('(');
+            List<Double> args = new ArrayList<>();
+            do {
+                args.add(number());
+            } while (accept(','));
+            expect(')');
+
+            switch (name) {
+                case "linear":
+                    requireArgs(name, args, 2);
+                    return new Linear(args.get(0), args.get(1));
+                case "quadratic":
+                    requireArgs(name, args, 3);
+                    return new Quadratic(args.get(0), args.get(1), args.get(2));
+                case "exponential":
+                    requireArgs(name, args, 2);
+                    return new Exponential(args.get(0), args.get(1));
+                default:
+                    throw new IllegalArgumentException("Unknown level formula '" + name + "'");
+            }
+        }
+
+        String peekIdentifier() {
+            int saved = position;
+            String name = identifier();
+            position = saved;
+            return name;
+        }
+
+        String identifier() {
+            skipWhitespace();
+            int start = position;
+            while (position < input.length() && Character.isLetter(input.charAt(position))) {
+                position++;
+            }
+            if (start == position) {
+                throw error("Expected a formula name");
+            }
+            return input.substring(start, position);
+        }
+
+        double number() {
+            skipWhitespace();
+            int start = position;
+            while (position < input.length() && "0123456789.-+e".indexOf(input.charAt(position)) >= 0) {
+                position++;
+            }
+            try {
+                return Double.parseDouble(input.substring(start, position));
+            } catch (NumberFormatException e) {
+                throw error("Expected a number");
+            }
+        }
+
+        /**
+         * A level number, which must be a whole number of at least 1
+         */
+        int level() {
+            double value = number();
+            if (value < 1 || value > MAX_LEVEL || value != Math.rint(value)) {
+                throw error("Expected a whole level number of at least 1");
+            }
+            return (int) value;
+        }
+
+        void expect(char c) {
+            if (!accept(c)) {
+                throw error("Expected '" + c + "'");
+            }
+        }
+
+        boolean accept(char c) {
+            skipWhitespace();
+            if (position < input.length() && input.charAt(position) == c) {
+                position++;
+                return true;
+            }
+            return false;
+        }
+
+        void end() {
+            skipWhitespace();
+            if (position != input.length()) {
+                throw error("Unexpected trailing input");
+            }
+        }
+
+        private void requireArgs(String name, List<Double> args, int count) {
+            if (args.size() != count) {
+                throw new IllegalArgumentException(name + " takes " + count + " arguments but got " + args.size());
+            }
+        }
+
+        private void skipWhitespace() {
+            while (position < input.length() && Character.isWhitespace(input.charAt(position))) {
+                position++;
+            }
+        }
+
+        private IllegalArgumentException error(String message) {
+            return new IllegalArgumentException(message + " at position " + position + " in level formula '" + input + "'");
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package jsemolik.dev.preppyLevels.curve;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Immutable XP curve built once from the configured xp-requirements and default-xp-increment.
+ * Cumulative XP totals are kept in a primitive prefix-sum table that grows on demand, so the
+ * level for a given XP total is a binary search and per-level lookups take constant time.
+ */
+public final class TableXpCurve implements XpCurve {
+    /**
+     * Highest level the prefix-sum table will grow to. Players with more XP than this level
+     * requires are reported at this level.
+     */
+    public static final int MAX_LEVEL = 1 << 20;
+
+    private static final int INITIAL_LEVELS = 128;
+
+    private final Map<Integer, Integer> requirements;
+    private final int highestDefinedLevel;
+    private final int highestDefinedXp;
+    private final int defaultXpIncrement;
+
+    // cumulative[i] is the total XP needed to reach level i + 1, so cumulative[0] is always 0
+    private volatile long[] cumulative;
+
+    public TableXpCurve(Map<Integer, Integer> xpRequirements, int defaultXpIncrement) {
+        this.requirements = xpRequirements != null ? new HashMap<>(xpRequirements) : new HashMap<>();
+        this.defaultXpIncrement = defaultXpIncrement;
+
+        int highestLevel = 0;
+        int highestXp = 0;
+        for (Map.Entry<Integer, Integer> entry : requirements.entrySet()) {
+            if (entry.getKey() > highestLevel) {
+                highestLevel = entry.getKey();
+                highestXp = entry.getValue();
+            }
+        }
+        this.highestDefinedLevel = highestLevel;
+        this.highestDefinedXp = highestXp;
+        this.cumulative = buildTable(new long[] {0L}, INITIAL_LEVELS);
+    }
+
+    @Override
+    public int getLevel(long totalXp) {
+        if (totalXp < 0) {
+            return 1;
+        }
+
+        long[] table = cumulative;
+        while (table[table.length - 1] <= totalXp && table.length < MAX_LEVEL) {
+            table = grow(table.length * 2);
+        }
+
+        // Largest index whose cumulative total does not exceed totalXp; totals are strictly increasing
+        int index = Arrays.binarySearch(table, totalXp);
+        if (index < 0) {
+            index = -index - 2;
+        }
+        return index + 1;
+    }
+
+    @Override
+    public long getXpToReachLevel(int level) {
+        if (level <= 1) {
+            return 0L;
+        }
+        int index = Math.min(level, MAX_LEVEL) - 1;
+        long[] table = cumulative;
+        if (index >= table.length) {
+            table = grow(index + 1);
+        }
+        return table[index];
+    }
+
+    @Override
+    public long getXpRequiredForLevel(int level) {
+        if (level < 1 || level >= MAX_LEVEL) {
+            return requirementFor(level);
+        }
+        return getXpToReachLevel(level + 1) - getXpToReachLevel(level);
+    }
+
+    private synchronized long[] grow(int minLength) {
+        long[] table = cumulative;
+        if (table.length >= minLength) {
+            return table;
+        }
+        int newLength = (int) Math.min(MAX_LEVEL, Math.max(minLength, (long) table.length * 2));
+        table = buildTable(table, newLength);
+        cumulative = table;
+        return table;
+    }
+
+    private long[] buildTable(long[] existing, int length) {
+        long[] table = Arrays.copyOf(existing, length);
+        for (int i = existing.length; i < length; i++) {
+            // Levels that would cost nothing (or less) are clamped so the table stays strictly increasing
+            long required = Math.max(1L, requirementFor(i));
+            long previous = table[i - 1];
+            table[i] = previous > Long.MAX_VALUE - required ? Long.MAX_VALUE : previous + required;
+        }
+        return table;
+    }
+
+    private long requirementFor(int level) {
+        Integer explicit = requirements.get(level);
+        if (explicit != null) {
+            return explicit;
+        }
+        return highestDefinedXp + (long) (level - highestDefinedLevel) * defaultXpIncrement;
+    }
+}
@@ -0,0 +1,21 @@
+package jsemolik.dev.preppyLevels.curve;
+
+/**
+ * Maps total XP to levels. Implementations are immutable and safe to share between threads.
+ */
+public interface XpCurve {
+    /**
+     * Get the level a player with the given total XP is at
+     */
+    int getLevel(long totalXp);
+
+    /**
+     * Get the total XP needed to reach the given level from level 1
+     */
+    long getXpToReachLevel(int level);
+
+    /**
+     * Get the XP needed to advance from the given level to the next one
+     */
+    long getXpRequiredForLevel(int level);
+}
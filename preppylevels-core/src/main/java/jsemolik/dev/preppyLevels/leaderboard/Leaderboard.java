@@ -0,0 +1,280 @@
+package jsemolik.dev.preppyLevels.leaderboard;
+
+import jsemolik.dev.preppyLevels.storage.PlayerData;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory ranking of all players by total XP, kept up to date as XP changes.
+ * Players are held in an order-statistic treap (a balanced search tree where each node
+ * knows the size of its subtree), so updates, rank lookups and page lookups take
+ * O(log n) and never touch storage.
+ *
+ * Players are ordered by XP, highest first. Players with equal XP are ordered by UUID string,
+ * descending, so every player has a distinct, stable rank that matches the storage order.
+ */
+public class Leaderboard {
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    // Guarded by lock
+    private final Map<UUID, Node> nodes = new HashMap<>();
+    private Node root;
+
+    /**
+     * Record a player's current XP, replacing any previous entry
+     */
+    public void update(PlayerData data) {
+        lock.writeLock().lock();
+        try {
+            put(data);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Record a player only if they are not ranked yet. Used while seeding from storage,
+     * where the stored copy may be older than an update that arrived in the meantime.
+     */
+    public void offer(PlayerData data) {
+        lock.writeLock().lock();
+        try {
+            if (!nodes.containsKey(data.getPlayerId())) {
+                put(data);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(UUID playerId) {
+        lock.writeLock().lock();
+        try {
+            Node node = nodes.remove(playerId);
+            if (node != null) {
+                root = delete(root, node);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            nodes.clear();
+            root = null;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Get a player's rank, starting at 1 for the player with the most XP
+     * @return The rank, or 0 if the player is not ranked
+     */
+    public int getRank(UUID playerId) {
+        lock.readLock().lock();
+        try {
+            Node target = nodes.get(playerId);
+            if (target == null) {
+                return 0;
+            }
+            int ahead = 0;
+            Node node = root;
+            while (node != null) {
+                int cmp = compare(target, node);
+                if (cmp < 0) {
+                    node = node.left;
+                } else {
+                    ahead += size(node.left);
+                    if (cmp == 0) {
+                        break;
+                    }
+                    ahead++;
+                    node = node.right;
+                }
+            }
+            return ahead + 1;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Get the entry at the given rank
+     * @return The entry, or null if fewer players are ranked
+     */
+    public LeaderboardEntry getEntry(int rank) {
+        List<LeaderboardEntry> page = getPage(rank - 1, 1);
+        return page.isEmpty() ? null : page.get(0);
+    }
+
+    /**
+     * Get the top players, best first
+     */
+    public List<LeaderboardEntry> getTop(int count) {
+        return getPage(0, count);
+    }
+
+    /**
+     * Get a slice of the leaderboard
+     * @param offset Number of players to skip, 0 for the top
+     * @param count Maximum number of entries to return
+     */
+    public List<LeaderboardEntry> getPage(int offset, int count) {
+        if (offset < 0 || count <= 0) {
+            return Collections.emptyList();
+        }
+        lock.readLock().lock();
+        try {
+            List<LeaderboardEntry> page = new ArrayList<>(Math.min(count, Math.max(0, nodes.size() - offset)));
+            collect(root, offset, offset + count, 0, page);
+            return page;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return nodes.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void put(PlayerData data) {
+        UUID playerId = data.getPlayerId();
+        Node previous = nodes.get(playerId);
+        String name = data.getPlayerName();
+        // One read, so level and XP always come from the same update
+        PlayerData.Progress progress = data.getProgress();
+        if (previous != null) {
+            if (previous.xp == progress.getXp() && previous.level == progress.getLevel()
+                    && (name == null || name.equals(previous.name))) {
+                return;
+            }
+            root = delete(root, previous);
+            if (name == null) {
+                name = previous.name;
+            }
+        }
+        Node node = new Node(playerId, name, progress.getLevel(), progress.getXp());
+        nodes.put(playerId, node);
+        root = insert(root, node);
+    }
+
+    // In-order walk that skips whole subtrees outside [from, to)
+    private static void collect(Node node, int from, int to, int base, List<LeaderboardEntry> out) {
+        while (node != null && base < to) {
+            int leftSize = size(node.left);
+            int position = base + leftSize;
+            if (from < position) {
+                collect(node.left, from, to, base, out);
+            }
+            if (position >= from && position < to) {
+                out.add(new LeaderboardEntry(position + 1, node.playerId, node.name, node.level, node.xp));
+            }
+            base = position + 1;
+            node = node.right;
+        }
+    }
+
+    private static Node insert(Node root, Node node) {
+        Node[] parts = split(root, node);
+        return merge(merge(parts[0], node), parts[1]);
+    }
+
+    private static Node delete(Node root, Node target) {
+        if (root == null) {
+            return null;
+        }
+        if (root == target) {
+            return merge(root.left, root.right);
+        }
+        if (compare(target, root) < 0) {
+            root.left = delete(root.left, target);
+        } else {
+            root.right = delete(root.right, target);
+        }
+        root.update();
+        return root;
+    }
+
+    // Splits into nodes ordered before key and nodes ordered after it
+    private static Node[] split(Node root, Node key) {
+        if (root == null) {
+            return new Node[] {null, null};
+        }
+        if (compare(root, key) < 0) {
+            Node[] parts = split(root.right, key);
+            root.right = parts[0];
+            root.update();
+            parts[0] = root;
+            return parts;
+        }
+        Node[] parts = split(root.left, key);
+        root.left = parts[1];
+        root.update();
+        parts[1] = root;
+        return parts;
+    }
+
+    private static Node merge(Node left, Node right) {
+        if (left == null) {
+            return right;
+        }
+        if (right == null) {
+            return left;
+        }
+        if (left.priority > right.priority) {
+            left.right = merge(left.right, right);
+            left.update();
+            return left;
+        }
+        right.left = merge(left, right.left);
+        right.update();
+        return right;
+    }
+
+    private static int compare(Node a, Node b) {
+        int cmp = Long.compare(b.xp, a.xp);
+        return cmp != 0 ? cmp : b.key.compareTo(a.key);
+    }
+
+    private static int size(Node node) {
+        return node == null ? 0 : node.size;
+    }
+
+    private static final class Node {
+        final UUID playerId;
+        final String key;
+        final String name;
+        final int level;
+        final long xp;
+        final int priority = ThreadLocalRandom.current().nextInt();
+        int size = 1;
+        Node left;
+        Node right;
+
+        Node(UUID playerId, String name, int level, long xp) {
+            this.playerId = playerId;
+            this.key = playerId.toString();
+            this.name = name;
+            this.level = level;
+            this.xp = xp;
+        }
+
+        void update() {
+            size = 1 + Leaderboard.size(left) + Leaderboard.size(right);
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package jsemolik.dev.preppyLevels.leaderboard;
+
+import java.util.UUID;
+
+/**
+ * A player's position on the leaderboard at the time it was read
+ */
+public final class LeaderboardEntry {
+    private final int rank;
+    private final UUID playerId;
+    private final String playerName;
+    private final int level;
+    private final long xp;
+
+    public LeaderboardEntry(int rank, UUID playerId, String playerName, int level, long xp) {
+        this.rank = rank;
+        this.playerId = playerId;
+        this.playerName = playerName;
+        this.level = level;
+        this.xp = xp;
+    }
+
+    public int getRank() {
+        return rank;
+    }
+
+    public UUID getPlayerId() {
+        return playerId;
+    }
+
+    public String getPlayerName() {
+        return playerName;
+    }
+
+    public int getLevel() {
+        return level;
+    }
+
+    public long getXp() {
+        return xp;
+    }
+}
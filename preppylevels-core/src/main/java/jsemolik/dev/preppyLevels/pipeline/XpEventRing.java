@@ -0,0 +1,118 @@
+package jsemolik.dev.preppyLevels.pipeline;
+
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Bounded multi-producer, single-consumer ring buffer of XP events.
+ * Events are stored in preallocated parallel arrays, so offering an event allocates nothing.
+ * Producers claim a sequence number with a CAS, write their slot and then publish it;
+ * the consumer reads published slots in order and stops at the first one still being written.
+ */
+public class XpEventRing {
+    private final int capacity;
+    private final int mask;
+    private final UUID[] playerIds;
+    private final String[] playerNames;
+    private final long[] deltas;
+    private final String[] sources;
+    // published[slot] holds sequence + 1 once the event for that sequence is fully written
+    private final AtomicLongArray published;
+    private final AtomicLong tail = new AtomicLong();
+    private volatile long head;
+
+    /**
+     * @param minCapacity Minimum number of events the ring can hold, rounded up to a power of two
+     */
+    public XpEventRing(int minCapacity) {
+        int size = Integer.highestOneBit(Math.max(2, minCapacity - 1)) << 1;
+        this.capacity = size;
+        this.mask = size - 1;
+        this.playerIds = new UUID[size];
+        this.playerNames = new String[size];
+        this.deltas = new long[size];
+        this.sources = new String[size];
+        this.published = new AtomicLongArray(size);
+    }
+
+    /**
+     * Add an event from any thread
+     * @return false if the ring is full
+     */
+    public boolean offer(UUID playerId, String playerName, long delta, String source) {
+        long sequence;
+        do {
+            sequence = tail.get();
+            if (sequence - head >= capacity) {
+                return false;
+            }
+        } while (!tail.compareAndSet(sequence, sequence + 1));
+
+        int slot = (int) (sequence & mask);
+        playerIds[slot] = playerId;
+        playerNames[slot] = playerName;
+        deltas[slot] = delta;
+        sources[slot] = source;
+        published.set(slot, sequence + 1);
+        return true;
+    }
+
+    /**
+     * Consume every event published so far. Must only be called from one thread at a time.
+     * @return The number of events consumed
+     */
+    public int drain(Consumer consumer) {
+        long current = head;
+        int count = 0;
+        while (true) {
+            int slot = (int) (current & mask);
+            if (published.get(slot) != current + 1) {
+                break;
+            }
+            consumer.accept(playerIds[slot], playerNames[slot], deltas[slot], sources[slot]);
+            playerIds[slot] = null;
+            playerNames[slot] = null;
+            sources[slot] = null;
+            current++;
+            count++;
+            // Hand the slot back to producers only after it has been read
+            head = current;
+        }
+        return count;
+    }
+
+    /**
+     * Whether every event claimed so far has also been consumed
+     */
+    public boolean isDrained() {
+        return head == tail.get();
+    }
+
+    /**
+     * Number of events claimed by producers since the ring was created
+     */
+    public long claimed() {
+        return tail.get();
+    }
+
+    /**
+     * Number of events consumed since the ring was created
+     */
+    public long consumed() {
+        return head;
+    }
+
+    public int size() {
+        return (int) (tail.get() - head);
+    }
+
+    public int capacity() {
+        return capacity;
+    }
+
+    @FunctionalInterface
+    public interface Consumer {
+        void accept(UUID playerId, String playerName, long delta, String source);
+    }
+}
@@ -0,0 +1,195 @@
+package jsemolik.dev.preppyLevels.pipeline;
+
+import jsemolik.dev.preppyLevels.XpEngine;
+import jsemolik.dev.preppyLevels.platform.Scheduler;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Ingestion stage in front of {@link jsemolik.dev.preppyLevels.LevelManager#addXp}.
+ * XP grants from any thread are written into a ring buffer, and once per tick all grants for
+ * the same player are folded into a single XP change and level computation.
+ * Every grant submitted during a tick shares one future that completes once that tick is applied.
+ * Tick futures complete in order, so a completed future also means every earlier grant was applied.
+ */
+public class XpPipeline {
+    private final XpEngine engine;
+    private final XpEventRing ring;
+    private final AtomicReference<Tick> currentTick = new AtomicReference<>(new Tick());
+    private final ConcurrentHashMap<String, LongAdder> xpBySource = new ConcurrentHashMap<>();
+    // Only touched by the draining thread
+    private final Map<UUID, PendingGrant> batch = new HashMap<>();
+    // Only touched by the draining thread: ended ticks whose grants may not all be applied yet, oldest first,
+    // and a future that completes once every grant drained so far has been applied, failed or not
+    private final ArrayDeque<Tick> ended = new ArrayDeque<>();
+    private CompletableFuture<Void> lastApplied = CompletableFuture.completedFuture(null);
+    private Scheduler.Task task;
+
+    public XpPipeline(XpEngine engine, int bufferSize) {
+        this.engine = engine;
+        this.ring = new XpEventRing(bufferSize);
+    }
+
+    public void start() {
+        task = engine.getScheduler().runRepeating(this::drain, 1L, 1L);
+    }
+
+    /**
+     * Stop the tick task and apply everything still buffered
+     */
+    public void shutdown() {
+        if (task != null) {
+            task.cancel();
+        }
+        try {
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            CompletableFuture<Void> applied = drain();
+            // Grants still being written during a drain are applied by the next one
+            while (!applied.isDone() && System.nanoTime() < deadline) {
+                Thread.sleep(1);
+                drain();
+            }
+            applied.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            engine.getLogger().warning("Failed to apply buffered XP on shutdown: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Queue an XP grant to be applied on the next tick
+     * @param source What the XP was given for, e.g. "chat" or the name of the granting plugin
+     * @return Future that completes once the grant has been applied
+     */
+    public CompletableFuture<Void> submit(UUID playerId, String playerName, long xpAmount, String source) {
+        // Join the tick before writing the grant, so the drain that ends it knows to wait for us
+        Tick tick = enterTick();
+        try {
+            if (!ring.offer(playerId, playerName, xpAmount, source)) {
+                // Buffer is full; apply directly rather than dropping the grant
+                recordSource(source, xpAmount);
+                return engine.getLevelManager().addXp(playerId, playerName, xpAmount);
+            }
+            return tick.future;
+        } finally {
+            tick.writers.decrementAndGet();
+        }
+    }
+
+    private Tick enterTick() {
+        while (true) {
+            Tick tick = currentTick.get();
+            tick.writers.incrementAndGet();
+            // A drain that ended the tick before we joined it would not wait for our grant
+            if (currentTick.get() == tick) {
+                return tick;
+            }
+            tick.writers.decrementAndGet();
+        }
+    }
+
+    /**
+     * Total XP granted per source since startup
+     */
+    public Map<String, Long> getXpBySource() {
+        Map<String, Long> totals = new HashMap<>();
+        xpBySource.forEach((source, total) -> totals.put(source, total.sum()));
+        return totals;
+    }
+
+    public int getBufferedCount() {
+        return ring.size();
+    }
+
+    private synchronized CompletableFuture<Void> drain() {
+        // Every tick is ended, even a quiet one, since callers may already hold its future
+        Tick tick = currentTick.getAndSet(new Tick());
+        ended.add(tick);
+        for (Tick waiting : ended) {
+            // Once a tick has no producers left, all its grants sit below the ring's current claim
+            if (waiting.bound < 0 && waiting.writers.get() == 0) {
+                waiting.bound = ring.claimed();
+            }
+        }
+        ring.drain(this::fold);
+
+        List<CompletableFuture<Void>> grants = new ArrayList<>(batch.size());
+        for (Map.Entry<UUID, PendingGrant> entry : batch.entrySet()) {
+            PendingGrant grant = entry.getValue();
+            grants.add(engine.getLevelManager().addXp(entry.getKey(), grant.playerName, grant.xp));
+        }
+        batch.clear();
+
+        // Grants drained by earlier ticks may still be waiting on storage
+        CompletableFuture<Void> previous = lastApplied;
+        CompletableFuture<Void> own = CompletableFuture.allOf(grants.toArray(new CompletableFuture<?>[0]));
+        CompletableFuture<Void> applied = own.thenCombine(previous, (a, b) -> null);
+        lastApplied = own.exceptionally(throwable -> null).thenCombine(previous, (a, b) -> null);
+        tick.endApplied = applied;
+
+        // Complete ticks in order once every grant they were given has been drained. A producer still
+        // writing its grant, or an earlier slot still being written, holds its tick for a later drain.
+        for (Iterator<Tick> it = ended.iterator(); it.hasNext(); ) {
+            Tick waiting = it.next();
+            if (waiting.bound < 0 || ring.consumed() < waiting.bound) {
+                break;
+            }
+            it.remove();
+            waiting.endApplied.thenCombine(applied, (a, b) -> null).whenComplete((ignored, throwable) -> {
+                if (throwable != null) {
+                    waiting.future.completeExceptionally(throwable);
+                } else {
+                    waiting.future.complete(null);
+                }
+            });
+        }
+        return tick.future;
+    }
+
+    private void fold(UUID playerId, String playerName, long delta, String source) {
+        PendingGrant grant = batch.get(playerId);
+        if (grant == null) {
+            batch.put(playerId, new PendingGrant(playerName, delta));
+        } else {
+            grant.xp += delta;
+        }
+        recordSource(source, delta);
+    }
+
+    private void recordSource(String source, long delta) {
+        xpBySource.computeIfAbsent(source != null ? source : "unknown", key -> new LongAdder()).add(delta);
+    }
+
+    private static final class Tick {
+        final CompletableFuture<Void> future = new CompletableFuture<>();
+        // Producers between joining this tick and finishing their write to the ring
+        final AtomicInteger writers = new AtomicInteger();
+        // Set by the draining thread: the ring claim count below which all of this tick's grants lie,
+        // and the grants applied by the drain that ended it
+        long bound = -1;
+        CompletableFuture<Void> endApplied;
+    }
+
+    private static final class PendingGrant {
+        final String playerName;
+        long xp;
+
+        PendingGrant(String playerName, long xp) {
+            this.playerName = playerName;
+            this.xp = xp;
+        }
+    }
+}
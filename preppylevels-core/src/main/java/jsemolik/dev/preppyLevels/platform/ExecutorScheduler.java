@@ -0,0 +1,47 @@
+package jsemolik.dev.preppyLevels.platform;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Scheduler for running the XP engine without a server, e.g. in load tests and benchmarks.
+ * Timers run on a small pool of daemon threads, and no thread counts as the main thread.
+ */
+public class ExecutorScheduler implements Scheduler {
+    private static final long TICK_MILLIS = 50L;
+
+    private final ScheduledExecutorService executor;
+
+    public ExecutorScheduler(int threads) {
+        this.executor = Executors.newScheduledThreadPool(Math.max(1, threads), runnable -> {
+            Thread thread = new Thread(runnable, "PreppyLevels-Scheduler");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @Override
+    public Task runRepeating(Runnable task, long delayTicks, long periodTicks) {
+        ScheduledFuture<?> future = executor.scheduleAtFixedRate(() -> {
+            try {
+                task.run();
+            } catch (RuntimeException e) {
+                // Keep the timer running like a server scheduler would, instead of silently cancelling it
+                e.printStackTrace();
+            }
+        }, delayTicks * TICK_MILLIS,
+            Math.max(1, periodTicks) * TICK_MILLIS, TimeUnit.MILLISECONDS);
+        return () -> future.cancel(false);
+    }
+
+    @Override
+    public boolean isMainThread() {
+        return false;
+    }
+
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+}
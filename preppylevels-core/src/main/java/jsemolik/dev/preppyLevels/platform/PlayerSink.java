@@ -0,0 +1,30 @@
+package jsemolik.dev.preppyLevels.platform;
+
+import jsemolik.dev.preppyLevels.storage.PlayerData;
+
+import java.util.UUID;
+
+/**
+ * Receives the XP engine's player-facing output, such as level-up messages and XP bar updates.
+ * Called from any thread; implementations hand updates over to wherever players are shown them.
+ */
+public interface PlayerSink {
+    /**
+     * Sink for headless runs, where nobody is watching
+     */
+    PlayerSink NONE = (playerId, data, leveledUp) -> { };
+
+    /**
+     * Show a player their changed level and XP
+     * @param leveledUp Whether this change raised the player's level
+     */
+    void update(UUID playerId, PlayerData data, boolean leveledUp);
+
+    /**
+     * Look up the name of a player the engine has no data for yet, e.g. one given XP while offline
+     * @return The name, or null if unknown
+     */
+    default String lookupName(UUID playerId) {
+        return null;
+    }
+}
@@ -0,0 +1,24 @@
+package jsemolik.dev.preppyLevels.platform;
+
+/**
+ * Runs the XP engine's background timers. On a server this is backed by the server scheduler;
+ * headless runs use {@link ExecutorScheduler}.
+ */
+public interface Scheduler {
+    /**
+     * Run a task repeatedly, off the server's main thread
+     * @param delayTicks Ticks before the first run, one tick being 50ms
+     * @param periodTicks Ticks between runs
+     * @return Handle to cancel the task with
+     */
+    Task runRepeating(Runnable task, long delayTicks, long periodTicks);
+
+    /**
+     * Check whether the calling thread is one that must never wait on storage, e.g. the server's main thread
+     */
+    boolean isMainThread();
+
+    interface Task {
+        void cancel();
+    }
+}
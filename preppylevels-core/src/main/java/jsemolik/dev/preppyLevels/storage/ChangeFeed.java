@@ -0,0 +1,101 @@
+package jsemolik.dev.preppyLevels.storage;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Log of player writes kept in a shared database so each server can find out which players the
+ * others changed. Every save records the player's new version along with the writing server's id;
+ * servers poll for rows written by anyone else since their last poll.
+ */
+final class ChangeFeed {
+    private final String serverId;
+    // Only touched by the polling thread
+    private long cursor;
+    private long previousCursor;
+
+    ChangeFeed(String serverId) {
+        this.serverId = serverId;
+    }
+
+    String getServerId() {
+        return serverId;
+    }
+
+    /**
+     * Start polling from the newest change, skipping history written before this server started
+     */
+    void start(Connection conn) throws SQLException {
+        try (PreparedStatement stmt = conn.prepareStatement("SELECT COALESCE(MAX(seq), 0) FROM player_changes")) {
+            ResultSet rs = stmt.executeQuery();
+            rs.next();
+            cursor = rs.getLong(1);
+            previousCursor = cursor;
+        }
+    }
+
+    /**
+     * Record new versions of players inside the transaction that wrote them
+     */
+    void record(Connection conn, Map<UUID, Long> versions) throws SQLException {
+        if (versions.isEmpty()) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        try (PreparedStatement stmt = conn.prepareStatement(
+            "INSERT INTO player_changes (player_id, version, server_id, ts) VALUES (?, ?, ?, ?)"
+        )) {
+            for (Map.Entry<UUID, Long> entry : versions.entrySet()) {
+                stmt.setString(1, entry.getKey().toString());
+                stmt.setLong(2, entry.getValue());
+                stmt.setString(3, serverId);
+                stmt.setLong(4, now);
+                stmt.addBatch();
+            }
+            stmt.executeBatch();
+        }
+    }
+
+    /**
+     * Get players changed by other servers since the last poll
+     * @return The newest version recorded for each changed player
+     */
+    Map<UUID, Long> poll(Connection conn) throws SQLException {
+        // Sequence numbers are handed out at insert time, so a transaction that commits late can
+        // land behind the cursor. Rows since the previous poll are read again to pick those up;
+        // callers skip versions they have already seen.
+        long from = previousCursor;
+        Map<UUID, Long> changes = new HashMap<>();
+        long newest = cursor;
+        try (PreparedStatement stmt = conn.prepareStatement(
+            "SELECT seq, player_id, version FROM player_changes WHERE seq > ? AND server_id <> ? ORDER BY seq"
+        )) {
+            stmt.setLong(1, from);
+            stmt.setString(2, serverId);
+            ResultSet rs = stmt.executeQuery();
+            while (rs.next()) {
+                newest = Math.max(newest, rs.getLong("seq"));
+                changes.merge(UUID.fromString(rs.getString("player_id")), rs.getLong("version"), Math::max);
+            }
+        }
+        previousCursor = cursor;
+        cursor = newest;
+        return changes;
+    }
+
+    /**
+     * Delete changes older than the given age
+     * @return The number of rows deleted
+     */
+    int prune(Connection conn, long maxAgeMillis) throws SQLException {
+        try (PreparedStatement stmt = conn.prepareStatement("DELETE FROM player_changes WHERE ts < ?")) {
+            stmt.setLong(1, System.currentTimeMillis() - maxAgeMillis);
+            return stmt.executeUpdate();
+        }
+    }
+}
@@ -0,0 +1,378 @@
+package jsemolik.dev.preppyLevels.storage;
+
+import org.h2.jdbcx.JdbcConnectionPool;
+
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+import java.util.function.LongToIntFunction;
+import java.util.logging.Logger;
+
+public class H2StorageProvider implements StorageProvider {
+    // Keeps IN lists well below every backend's bound parameter limit
+    private static final int BATCH_CHUNK_SIZE = 500;
+    // Rows fetched per round trip when walking the whole table
+    private static final int FETCH_SIZE = 1000;
+
+    private final Logger logger;
+    private final Path dataDirectory;
+    private final String dbFile;
+    private JdbcConnectionPool connectionPool;
+    private final StorageExecutor executor;
+
+    public H2StorageProvider(jsemolik.dev.preppyLevels.config.PluginConfig.H2Config config, Logger logger, Path dataDirectory, StorageExecutor executor) {
+        this.logger = logger;
+        this.dataDirectory = dataDirectory;
+        this.dbFile = config.getFile();
+        this.executor = executor;
+    }
+
+    @Override
+    public CompletableFuture<Void> initialize() {
+        return executor.run(() -> {
+            try {
+                String jdbcUrl = "jdbc:h2:" + dataDirectory.resolve(dbFile).toAbsolutePath();
+                connectionPool = JdbcConnectionPool.create(jdbcUrl, "", "");
+                
+                try (Connection conn = connectionPool.getConnection()) {
+                    conn.createStatement().execute(
+                        "CREATE TABLE IF NOT EXISTS player_data (" +
+                        "player_id VARCHAR(36) PRIMARY KEY, " +
+                        "player_name VARCHAR(16) NOT NULL, " +
+                        "level INT NOT NULL DEFAULT 1, " +
+                        "xp BIGINT NOT NULL DEFAULT 0" +
+                        ")"
+                    );
+                    conn.createStatement().execute(
+                        "CREATE INDEX IF NOT EXISTS idx_player_data_xp ON player_data (xp, player_id)"
+                    );
+                    // Every insert and update takes the next sequence value, so the highest one marks the latest write
+                    conn.createStatement().execute(
+                        "CREATE SEQUENCE IF NOT EXISTS player_data_change_seq"
+                    );
+                    conn.createStatement().execute(
+                        "ALTER TABLE player_data ADD COLUMN IF NOT EXISTS change_seq BIGINT " +
+                        "DEFAULT NEXT VALUE FOR player_data_change_seq " +
+                        "ON UPDATE NEXT VALUE FOR player_data_change_seq NOT NULL"
+                    );
+                    conn.createStatement().execute(
+                        "CREATE INDEX IF NOT EXISTS idx_player_data_change_seq ON player_data (change_seq)"
+                    );
+                }
+                logger.info("H2 database initialized successfully");
+            } catch (Exception e) {
+                logger.severe("Failed to initialize H2 database: " + e.getMessage());
+                e.printStackTrace();
+                throw new RuntimeException(e);
+            }
+        });
+    }
+
+    @Override
+    public CompletableFuture<Void> shutdown() {
+        return executor.run(() -> {
+            if (connectionPool != null) {
+                connectionPool.dispose();
+            }
+        });
+    }
+
+    @Override
+    public CompletableFuture<PlayerData> loadPlayerData(UUID playerId) {
+        return executor.supply(() -> {
+            try (Connection conn = connectionPool.getConnection();
+                 PreparedStatement stmt = conn.prepareStatement(
+                     "SELECT player_name, level, xp FROM player_data WHERE player_id = ?"
+                 )) {
+                stmt.setString(1, playerId.toString());
+                ResultSet rs = stmt.executeQuery();
+                
+                if (rs.next()) {
+                    return new PlayerData(
+                        playerId,
+                        rs.getString("player_name"),
+                        rs.getInt("level"),
+                        rs.getLong("xp")
+                    );
+                }
+                return null;
+            } catch (Exception e) {
+                logger.severe("Failed to load player data for " + playerId + ": " + e.getMessage());
+                e.printStackTrace();
+                return null;
+            }
+        });
+    }
+
+    @Override
+    public CompletableFuture<Void> savePlayerData(PlayerData playerData) {
+        return executor.run(playerData.getPlayerId(), () -> {
+            try (Connection conn = connectionPool.getConnection();
+                 PreparedStatement stmt = conn.prepareStatement(
+                     "MERGE INTO player_data (player_id, player_name, level, xp) VALUES (?, ?, ?, ?)"
+                 )) {
+                stmt.setString(1, playerData.getPlayerId().toString());
+                stmt.setString(2, playerData.getPlayerName());
+                stmt.setInt(3, playerData.getLevel());
+                stmt.setLong(4, playerData.getXp());
+                stmt.executeUpdate();
+            } catch (Exception e) {
+                logger.severe("Failed to save player data for " + playerData.getPlayerId() + ": " + e.getMessage());
+                e.printStackTrace();
+            }
+        });
+    }
+
+    @Override
+    public CompletableFuture<Boolean> playerExists(UUID playerId) {
+        return executor.supply(() -> {
+            try (Connection conn = connectionPool.getConnection();
+                 PreparedStatement stmt = conn.prepareStatement(
+                     "SELECT 1 FROM player_data WHERE player_id = ?"
+                 )) {
+                stmt.setString(1, playerId.toString());
+                return stmt.executeQuery().next();
+            } catch (Exception e) {
+                logger.severe("Failed to check if player exists: " + playerId + ": " + e.getMessage());
+                e.printStackTrace();
+                return false;
+            }
+        });
+    }
+
+    @Override
+    public CompletableFuture<Void> forEachPlayer(Consumer<PlayerData> action) {
+        return forEachPlayer(null, action);
+    }
+
+    @Override
+    public CompletableFuture<Void> forEachPlayer(UUID after, Consumer<PlayerData> action) {
+        return executor.run(() -> {
+            // Walks the primary key in order, so a walk can continue after the last player it reached
+            String sql = after == null
+                ? "SELECT player_id, player_name, level, xp FROM player_data ORDER BY player_id"
+                : "SELECT player_id, player_name, level, xp FROM player_data WHERE player_id > ? ORDER BY player_id";
+            try (Connection conn = connectionPool.getConnection();
+                 PreparedStatement stmt = conn.prepareStatement(sql)) {
+                stmt.setFetchSize(FETCH_SIZE);
+                if (after != null) {
+                    stmt.setString(1, after.toString());
+                }
+                ResultSet rs = stmt.executeQuery();
+                while (rs.next()) {
+                    action.accept(new PlayerData(
+                        UUID.fromString(rs.getString("player_id")),
+                        rs.getString("player_name"),
+                        rs.getInt("level"),
+                        rs.getLong("xp")
+                    ));
+                }
+            } catch (Exception e) {
+                logger.severe("Failed to read all player data: " + e.getMessage());
+                e.printStackTrace();
+                throw new RuntimeException(e);
+            }
+        });
+    }
+
+    @Override
+    public CompletableFuture<List<PlayerData>> getTopPlayers(PlayerData after, int limit) {
+        return executor.supply(() -> {
+            // Keyset pagination walks idx_player_data_xp backwards from the previous page's last row
+            String sql = after == null
+                ? "SELECT player_id, player_name, level, xp FROM player_data " +
+                  "ORDER BY xp DESC, player_id DESC LIMIT ?"
+                : "SELECT player_id, player_name, level, xp FROM player_data " +
+                  "WHERE xp < ? OR (xp = ? AND player_id < ?) " +
+                  "ORDER BY xp DESC, player_id DESC LIMIT ?";
+            try (Connection conn = connectionPool.getConnection();
+                 PreparedStatement stmt = conn.prepareStatement(sql)) {
+                int index = 1;
+                if (after != null) {
+                    stmt.setLong(index++, after.getXp());
+                    stmt.setLong(index++, after.getXp());
+                    stmt.setString(index++, after.getPlayerId().toString());
+                }
+                stmt.setInt(index, limit);
+                ResultSet rs = stmt.executeQuery();
+                
+                List<PlayerData> players = new ArrayList<>();
+                while (rs.next()) {
+                    players.add(new PlayerData(
+                        UUID.fromString(rs.getString("player_id")),
+                        rs.getString("player_name"),
+                        rs.getInt("level"),
+                        rs.getLong("xp")
+                    ));
+                }
+                return players;
+            } catch (Exception e) {
+                logger.severe("Failed to load top players: " + e.getMessage());
+                e.printStackTrace();
+                throw new RuntimeException(e);
+            }
+        });
+    }
+
+    @Override
+    public CompletableFuture<Integer> getRank(UUID playerId) {
+        return executor.supply(() -> {
+            try (Connection conn = connectionPool.getConnection();
+                 PreparedStatement xpStmt = conn.prepareStatement(
+                     "SELECT xp FROM player_data WHERE player_id = ?"
+                 );
+                 PreparedStatement countStmt = conn.prepareStatement(
+                     "SELECT COUNT(*) FROM player_data WHERE xp > ? OR (xp = ? AND player_id > ?)"
+                 )) {
+                xpStmt.setString(1, playerId.toString());
+                ResultSet xpRs = xpStmt.executeQuery();
+                if (!xpRs.next()) {
+                    return 0;
+                }
+                long xp = xpRs.getLong(1);
+                
+                // Counts an index range of idx_player_data_xp rather than scanning the table
+                countStmt.setLong(1, xp);
+                countStmt.setLong(2, xp);
+                countStmt.setString(3, playerId.toString());
+                ResultSet countRs = countStmt.executeQuery();
+                countRs.next();
+                return countRs.getInt(1) + 1;
+            } catch (Exception e) {
+                logger.severe("Failed to get rank for " + playerId + ": " + e.getMessage());
+                e.printStackTrace();
+                throw new RuntimeException(e);
+            }
+        });
+    }
+
+    @Override
+    public CompletableFuture<Map<UUID, PlayerData>> loadPlayerDataBatch(Collection<UUID> playerIds) {
+        return executor.supply(() -> {
+            Map<UUID, PlayerData> players = new HashMap<>();
+            List<UUID> ids = new ArrayList<>(playerIds);
+            try (Connection conn = connectionPool.getConnection()) {
+                for (int from = 0; from < ids.size(); from += BATCH_CHUNK_SIZE) {
+                    List<UUID> chunk = ids.subList(from, Math.min(from + BATCH_CHUNK_SIZE, ids.size()));
+                    String placeholders = String.join(", ", Collections.nCopies(chunk.size(), "?"));
+                    try (PreparedStatement stmt = conn.prepareStatement(
+                        "SELECT player_id, player_name, level, xp FROM player_data WHERE player_id IN (" + placeholders + ")"
+                    )) {
+                        for (int i = 0; i < chunk.size(); i++) {
+                            stmt.setString(i + 1, chunk.get(i).toString());
+                        }
+                        ResultSet rs = stmt.executeQuery();
+                        while (rs.next()) {
+                            UUID playerId = UUID.fromString(rs.getString("player_id"));
+                            players.put(playerId, new PlayerData(
+                                playerId,
+                                rs.getString("player_name"),
+                                rs.getInt("level"),
+                                rs.getLong("xp")
+                            ));
+                        }
+                    }
+                }
+                return players;
+            } catch (Exception e) {
+                logger.severe("Failed to load data for " + ids.size() + " players: " + e.getMessage());
+                e.printStackTrace();
+                throw new RuntimeException(e);
+            }
+        });
+    }
+
+    @Override
+    public CompletableFuture<Void> savePlayerDataBatch(Collection<PlayerData> players) {
+        return executor.runBatch(players, PlayerData::getPlayerId, batch -> {
+            try (Connection conn = connectionPool.getConnection()) {
+                boolean autoCommit = conn.getAutoCommit();
+                conn.setAutoCommit(false);
+                try (PreparedStatement stmt = conn.prepareStatement(
+                    "MERGE INTO player_data (player_id, player_name, level, xp) VALUES (?, ?, ?, ?)"
+                )) {
+                    for (PlayerData playerData : batch) {
+                        stmt.setString(1, playerData.getPlayerId().toString());
+                        stmt.setString(2, playerData.getPlayerName());
+                        stmt.setInt(3, playerData.getLevel());
+                        stmt.setLong(4, playerData.getXp());
+                        stmt.addBatch();
+                    }
+                    stmt.executeBatch();
+                    conn.commit();
+                } catch (Exception e) {
+                    conn.rollback();
+                    throw e;
+                } finally {
+                    conn.setAutoCommit(autoCommit);
+                }
+            } catch (Exception e) {
+                logger.severe("Failed to save data for " + batch.size() + " players: " + e.getMessage());
+                e.printStackTrace();
+                throw new RuntimeException(e);
+            }
+        });
+    }
+
+    @Override
+    public CompletableFuture<Map<UUID, Long>> savePlayerDeltaBatch(Collection<XpDelta> deltas, LongToIntFunction levelForXp) {
+        return executor.supply(() -> {
+            if (deltas.isEmpty()) {
+                return new HashMap<>();
+            }
+            try (Connection conn = connectionPool.getConnection()) {
+                boolean autoCommit = conn.getAutoCommit();
+                conn.setAutoCommit(false);
+                try {
+                    Map<UUID, Long> totals = SqlDeltaWriter.apply(conn, SqlDeltaWriter.Dialect.H2, deltas, levelForXp);
+                    conn.commit();
+                    return totals;
+                } catch (Exception e) {
+                    conn.rollback();
+                    throw e;
+                } finally {
+                    conn.setAutoCommit(autoCommit);
+                }
+            } catch (Exception e) {
+                logger.severe("Failed to save XP for " + deltas.size() + " players: " + e.getMessage());
+                e.printStackTrace();
+                throw new RuntimeException(e);
+            }
+        });
+    }
+
+    @Override
+    public CompletableFuture<Map<UUID, Long>> pollChanges() {
+        // The embedded database belongs to this server alone
+        return CompletableFuture.completedFuture(Map.of());
+    }
+
+    @Override
+    public CompletableFuture<Long> getHighWaterMark() {
+        return executor.supply(() -> {
+            try (Connection conn = connectionPool.getConnection();
+                 PreparedStatement stmt = conn.prepareStatement(
+                     "SELECT COALESCE(MAX(change_seq), 0) FROM player_data"
+                 )) {
+                // Read from the end of idx_player_data_change_seq rather than scanning the table
+                ResultSet rs = stmt.executeQuery();
+                rs.next();
+                return rs.getLong(1);
+            } catch (Exception e) {
+                logger.severe("Failed to read storage high-water mark: " + e.getMessage());
+                e.printStackTrace();
+                throw new RuntimeException(e);
+            }
+        });
+    }
+}
@@ -0,0 +1,203 @@
+package jsemolik.dev.preppyLevels.storage;
+
+import java.util.Arrays;
+import java.util.UUID;
+
+/**
+ * Maps player UUIDs to record locations in the log. Each key is kept as its two halves in a flat
+ * open-addressing table of primitive longs, so hundreds of thousands of players cost a few dozen
+ * bytes each instead of a boxed map entry. Not thread-safe; the log storage guards it with a lock.
+ */
+final class LogIndex {
+    static final long ABSENT = -1L;
+    private static final int SLOT = 3;
+    private static final double MAX_LOAD = 0.6;
+
+    // Slots of (most significant bits, least significant bits, location); a free slot has location ABSENT
+    private long[] table;
+    private int capacity;
+    private int size;
+
+    LogIndex(int expectedSize) {
+        capacity = Integer.highestOneBit(Math.max(16, (int) (expectedSize / MAX_LOAD)) - 1) << 1;
+        table = newTable(capacity);
+    }
+
+    long get(UUID playerId) {
+        int slot = find(playerId.getMostSignificantBits(), playerId.getLeastSignificantBits());
+        return table[slot * SLOT + 2];
+    }
+
+    /**
+     * @return The previous location, or {@link #ABSENT}
+     */
+    long put(UUID playerId, long location) {
+        long msb = playerId.getMostSignificantBits();
+        long lsb = playerId.getLeastSignificantBits();
+        int slot = find(msb, lsb);
+        int base = slot * SLOT;
+        long previous = table[base + 2];
+        if (previous == ABSENT) {
+            if (size + 1 > capacity * MAX_LOAD) {
+                grow();
+                return put(playerId, location);
+            }
+            table[base] = msb;
+            table[base + 1] = lsb;
+            size++;
+        }
+        table[base + 2] = location;
+        return previous;
+    }
+
+    /**
+     * Replace a location only if the key still points at the expected one, e.g. when compaction
+     * moves a record that may have been rewritten in the meantime
+     */
+    boolean replace(UUID playerId, long expected, long location) {
+        int slot = find(playerId.getMostSignificantBits(), playerId.getLeastSignificantBits());
+        int base = slot * SLOT;
+        if (table[base + 2] != expected || expected == ABSENT) {
+            return false;
+        }
+        table[base + 2] = location;
+        return true;
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * Copy every location, sorted so records are visited in file order
+     */
+    long[] locations() {
+        long[] locations = new long[size];
+        int count = 0;
+        for (int base = 0; base < table.length; base += SLOT) {
+            if (table[base + 2] != ABSENT) {
+                locations[count++] = table[base + 2];
+            }
+        }
+        Arrays.sort(locations);
+        return locations;
+    }
+
+    /**
+     * Copy the locations of up to limit players whose ID comes after the given one, or from the first
+     * player if it is null, in {@link StorageProvider#PLAYER_ID_ORDER}. A walk calls this again after
+     * the last ID it read, so it never holds more than limit locations however many players there are.
+     */
+    long[] locationsAfter(UUID after, int limit) {
+        // Max-heap of the smallest IDs after the cursor seen so far, by table offset
+        int[] heap = new int[limit];
+        int count = 0;
+        for (int base = 0; base < table.length; base += SLOT) {
+            if (table[base + 2] == ABSENT || (after != null && compare(base, after) <= 0)) {
+                continue;
+            }
+            if (count < limit) {
+                heap[count] = base;
+                siftUp(heap, count++);
+            } else if (count > 0 && compareKeys(base, heap[0]) < 0) {
+                heap[0] = base;
+                siftDown(heap, count);
+            }
+        }
+        // Taking the largest off the heap fills the result from the back
+        long[] locations = new long[count];
+        for (int remaining = count; remaining > 0; remaining--) {
+            locations[remaining - 1] = table[heap[0] + 2];
+            heap[0] = heap[remaining - 1];
+            siftDown(heap, remaining - 1);
+        }
+        return locations;
+    }
+
+    private void siftUp(int[] heap, int index) {
+        while (index > 0) {
+            int parent = (index - 1) / 2;
+            if (compareKeys(heap[index], heap[parent]) <= 0) {
+                return;
+            }
+            swap(heap, index, parent);
+            index = parent;
+        }
+    }
+
+    private void siftDown(int[] heap, int size) {
+        int index = 0;
+        while (true) {
+            int largest = index;
+            for (int child = 2 * index + 1; child <= 2 * index + 2 && child < size; child++) {
+                if (compareKeys(heap[child], heap[largest]) > 0) {
+                    largest = child;
+                }
+            }
+            if (largest == index) {
+                return;
+            }
+            swap(heap, index, largest);
+            index = largest;
+        }
+    }
+
+    private static void swap(int[] heap, int a, int b) {
+        int swapped = heap[a];
+        heap[a] = heap[b];
+        heap[b] = swapped;
+    }
+
+    // Same order as UUID strings: both halves compared as unsigned numbers
+    private int compareKeys(int a, int b) {
+        int msb = Long.compareUnsigned(table[a], table[b]);
+        return msb != 0 ? msb : Long.compareUnsigned(table[a + 1], table[b + 1]);
+    }
+
+    private int compare(int base, UUID playerId) {
+        int msb = Long.compareUnsigned(table[base], playerId.getMostSignificantBits());
+        return msb != 0 ? msb : Long.compareUnsigned(table[base + 1], playerId.getLeastSignificantBits());
+    }
+
+    private int find(long msb, long lsb) {
+        int mask = capacity - 1;
+        int slot = (int) mix(msb ^ lsb) & mask;
+        while (true) {
+            int base = slot * SLOT;
+            if (table[base + 2] == ABSENT || (table[base] == msb && table[base + 1] == lsb)) {
+                return slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+    }
+
+    private void grow() {
+        long[] old = table;
+        capacity <<= 1;
+        table = newTable(capacity);
+        size = 0;
+        for (int base = 0; base < old.length; base += SLOT) {
+            if (old[base + 2] != ABSENT) {
+                int slot = find(old[base], old[base + 1]);
+                System.arraycopy(old, base, table, slot * SLOT, SLOT);
+                size++;
+            }
+        }
+    }
+
+    private static long[] newTable(int capacity) {
+        long[] table = new long[capacity * SLOT];
+        for (int base = 2; base < table.length; base += SLOT) {
+            table[base] = ABSENT;
+        }
+        return table;
+    }
+
+    // Spread random-looking UUID bits anyway, so sequential test IDs do not cluster
+    private static long mix(long value) {
+        value ^= value >>> 33;
+        value *= 0xff51afd7ed558ccdL;
+        value ^= value >>> 33;
+        return value;
+    }
+}
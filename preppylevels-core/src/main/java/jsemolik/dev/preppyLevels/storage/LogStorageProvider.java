@@ -0,0 +1,642 @@
+package jsemolik.dev.preppyLevels.storage;
+
+import jsemolik.dev.preppyLevels.config.PluginConfig;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.LongToIntFunction;
+import java.util.zip.CRC32;
+import java.util.logging.Logger;
+
+/**
+ * Log-structured storage. Every save appends a fixed-size binary record to the newest segment file
+ * and an in-memory index maps each player to their latest record, so there is no file per player
+ * and a save never rewrites anything in place.
+ *
+ * A single writer thread appends everything queued since its last write and syncs it with one
+ * fsync (group commit). Older segments whose records have mostly been superseded are compacted in
+ * the background by copying their live records forward and deleting them. On startup the index is
+ * rebuilt by scanning the memory-mapped segments, and a torn write at the end of the log is cut off.
+ */
+public class LogStorageProvider implements StorageProvider {
+    /*
+     * Record layout, big-endian:
+     *   0  int   magic
+     *   4  long  UUID most significant bits
+     *  12  long  UUID least significant bits
+     *  20  int   level
+     *  24  long  xp
+     *  32  byte  name length in bytes
+     *  33  16    name, UTF-8, zero padded
+     *  49  11    reserved
+     *  60  int   CRC32 of bytes 0-59
+     */
+    static final int RECORD_SIZE = 64;
+    private static final int MAGIC = 0x50524C31;
+    private static final int NAME_OFFSET = 33;
+    private static final int MAX_NAME_BYTES = 16;
+    private static final int CRC_OFFSET = 60;
+    private static final String SEGMENT_PREFIX = "segment-";
+    private static final String SEGMENT_SUFFIX = ".log";
+    private static final int WALK_CHUNK_SIZE = 1000;
+
+    private final Logger logger;
+    private final Path directory;
+    private final long maxRecordsPerSegment;
+    private final double compactionThreshold;
+    private final long compactionIntervalNanos;
+    private final StorageExecutor executor;
+
+    private final LogIndex index = new LogIndex(1024);
+    private final ReentrantReadWriteLock indexLock = new ReentrantReadWriteLock();
+    private final ConcurrentHashMap<Integer, Segment> segments = new ConcurrentHashMap<>();
+    // Compacted segments wait here until no reader can still be using one of their old locations
+    private final List<Segment> retired = new ArrayList<>();
+    private final AtomicInteger activeReaders = new AtomicInteger();
+    private final BlockingQueue<WriteRequest> writes = new LinkedBlockingQueue<>();
+    // Only touched by the writer thread once started
+    private Segment active;
+    private Thread writerThread;
+    private volatile boolean running;
+
+    public LogStorageProvider(PluginConfig.LogConfig config, Logger logger, Path dataDirectory, StorageExecutor executor) {
+        this.logger = logger;
+        this.directory = dataDirectory.resolve(config.getDirectory());
+        this.maxRecordsPerSegment = Math.max(1L, config.getSegmentSize() * 1024L * 1024L / RECORD_SIZE);
+        this.compactionThreshold = config.getCompactionThreshold();
+        this.compactionIntervalNanos = TimeUnit.SECONDS.toNanos(Math.max(1, config.getCompactionInterval()));
+        this.executor = executor;
+    }
+
+    @Override
+    public CompletableFuture<Void> initialize() {
+        return executor.run(() -> {
+            try {
+                Files.createDirectories(directory);
+                TreeMap<Integer, Path> files = new TreeMap<>();
+                try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, SEGMENT_PREFIX + "*" + SEGMENT_SUFFIX)) {
+                    for (Path file : stream) {
+                        String name = file.getFileName().toString();
+                        files.put(Integer.parseInt(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length())), file);
+                    }
+                }
+
+                long start = System.nanoTime();
+                for (Map.Entry<Integer, Path> entry : files.entrySet()) {
+                    Segment segment = Segment.open(entry.getKey(), entry.getValue());
+                    segments.put(segment.id, segment);
+                    rebuild(segment, entry.getKey().equals(files.lastKey()));
+                    active = segment;
+                }
+                if (active == null) {
+                    active = createSegment(1);
+                }
+
+                running = true;
+                writerThread = new Thread(this::runWriter, "PreppyLevels-Log-Writer");
+                writerThread.setDaemon(true);
+                writerThread.start();
+                logger.info("Log storage initialized with " + index.size() + " players in " + segments.size()
+                    + " segments (" + TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) + "ms)");
+            } catch (Exception e) {
+                logger.severe("Failed to initialize log storage: " + e.getMessage());
+                e.printStackTrace();
+                throw new RuntimeException(e);
+            }
+        });
+    }
+
+    /**
+     * Add a segment's records to the index, reading it through a memory mapping rather than a
+     * read call per record. Later records supersede earlier ones, as segments are read in order.
+     */
+    private void rebuild(Segment segment, boolean last) throws IOException {
+        long size = segment.channel.size();
+        long records = size / RECORD_SIZE;
+        if (records > 0) {
+            MappedByteBuffer map = segment.channel.map(FileChannel.MapMode.READ_ONLY, 0, records * RECORD_SIZE);
+            for (int i = 0; i < records; i++) {
+                int offset = i * RECORD_SIZE;
+                if (!isValid(map, offset)) {
+                    if (last) {
+                        // Only the final group commit can have been cut short by a crash
+                        logger.warning("Discarding " + (records - i) + " incomplete records at the end of " + segment.path.getFileName());
+                        records = i;
+                        break;
+                    }
+                    logger.warning("Skipping corrupt record " + i + " in " + segment.path.getFileName());
+                    continue;
+                }
+                UUID playerId = new UUID(map.getLong(offset + 4), map.getLong(offset + 12));
+                track(playerId, location(segment.id, i));
+            }
+        }
+        segment.records = (int) records;
+        if (size != records * RECORD_SIZE) {
+            segment.channel.truncate(records * RECORD_SIZE);
+        }
+    }
+
+    @Override
+    public CompletableFuture<Void> shutdown() {
+        return CompletableFuture.runAsync(() -> {
+            // Let the writer drain what is already queued before closing the segments
+            running = false;
+            if (writerThread != null) {
+                try {
+                    writerThread.join(TimeUnit.SECONDS.toMillis(30));
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            // Fail writes that raced with shutdown instead of leaving their callers waiting
+            WriteRequest late;
+            while ((late = writes.poll()) != null) {
+                late.future.completeExceptionally(new IllegalStateException("Log storage is shut down"));
+            }
+            for (Segment segment : segments.values()) {
+                segment.close();
+            }
+        });
+    }
+
+    @Override
+    public CompletableFuture<PlayerData> loadPlayerData(UUID playerId) {
+        return executor.supply(() -> {
+            try {
+                return readPlayer(playerId);
+            } catch (Exception e) {
+                logger.severe("Failed to load player data for " + playerId + ": " + e.getMessage());
+                e.printStackTrace();
+                return null;
+            }
+        });
+    }
+
+    @Override
+    public CompletableFuture<Void> savePlayerData(PlayerData playerData) {
+        // Failures are logged by the writer; single saves have never reported them
+        return enqueueWrite(List.of(playerData.snapshot())).exceptionally(throwable -> null);
+    }
+
+    @Override
+    public CompletableFuture<Boolean> playerExists(UUID playerId) {
+        indexLock.readLock().lock();
+        try {
+            return CompletableFuture.completedFuture(index.get(playerId) != LogIndex.ABSENT);
+        } finally {
+            indexLock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public CompletableFuture<Void> forEachPlayer(Consumer<PlayerData> action) {
+        return executor.run(() -> forEachPlayerOnCaller(action));
+    }
+
+    @Override
+    public void forEachPlayerOnCaller(Consumer<PlayerData> action) {
+        // Locations are sorted, so each segment is read front to back
+        forEachLocation(LogIndex::locations, action);
+    }
+
+    /**
+     * The index is read in chunks of {@value #WALK_CHUNK_SIZE} players, each picked by a pass over the
+     * index, so the walk holds a bounded number of locations however many players there are
+     */
+    @Override
+    public CompletableFuture<Void> forEachPlayer(UUID after, Consumer<PlayerData> action) {
+        return executor.run(() -> {
+            UUID[] cursor = {after};
+            int[] read = new int[1];
+            do {
+                UUID from = cursor[0];
+                read[0] = 0;
+                forEachLocation(index -> index.locationsAfter(from, WALK_CHUNK_SIZE), data -> {
+                    read[0]++;
+                    cursor[0] = data.getPlayerId();
+                    action.accept(data);
+                });
+            } while (read[0] == WALK_CHUNK_SIZE);
+        });
+    }
+
+    /**
+     * Copy the selected locations under the index lock, then read their records on the calling thread
+     */
+    private void forEachLocation(Function<LogIndex, long[]> select, Consumer<PlayerData> action) {
+        long[] locations;
+        indexLock.readLock().lock();
+        activeReaders.incrementAndGet();
+        try {
+            locations = select.apply(index);
+        } finally {
+            indexLock.readLock().unlock();
+        }
+        try {
+            // Each segment is mapped once, and again only if the read reaches records appended since
+            Map<Integer, MappedByteBuffer> maps = new HashMap<>();
+            for (long location : locations) {
+                Segment segment = segments.get(segmentOf(location));
+                int offset = recordOf(location) * RECORD_SIZE;
+                MappedByteBuffer map = maps.get(segment.id);
+                if (map == null || offset + RECORD_SIZE > map.capacity()) {
+                    map = segment.channel.map(FileChannel.MapMode.READ_ONLY, 0, (long) segment.records * RECORD_SIZE);
+                    maps.put(segment.id, map);
+                }
+                action.accept(decode(map, offset));
+            }
+        } catch (IOException e) {
+            logger.severe("Failed to read all player data: " + e.getMessage());
+            e.printStackTrace();
+            throw new RuntimeException(e);
+        } finally {
+            activeReaders.decrementAndGet();
+        }
+    }
+
+    @Override
+    public CompletableFuture<List<PlayerData>> getTopPlayers(PlayerData after, int limit) {
+        return TopPlayersScan.top(this, after, limit);
+    }
+
+    @Override
+    public CompletableFuture<Integer> getRank(UUID playerId) {
+        return TopPlayersScan.rank(this, playerId);
+    }
+
+    @Override
+    public CompletableFuture<Map<UUID, PlayerData>> loadPlayerDataBatch(Collection<UUID> playerIds) {
+        return executor.supply(() -> {
+            Map<UUID, PlayerData> players = new HashMap<>();
+            try {
+                for (UUID playerId : playerIds) {
+                    PlayerData data = readPlayer(playerId);
+                    if (data != null) {
+                        players.put(playerId, data);
+                    }
+                }
+                return players;
+            } catch (Exception e) {
+                logger.severe("Failed to load data for " + playerIds.size() + " players: " + e.getMessage());
+                e.printStackTrace();
+                throw new RuntimeException(e);
+            }
+        });
+    }
+
+    @Override
+    public CompletableFuture<Void> savePlayerDataBatch(Collection<PlayerData> players) {
+        if (players.isEmpty()) {
+            return CompletableFuture.completedFuture(null);
+        }
+        return enqueueWrite(new ArrayList<>(players));
+    }
+
+    @Override
+    public CompletableFuture<Map<UUID, Long>> savePlayerDeltaBatch(Collection<XpDelta> deltas, LongToIntFunction levelForXp) {
+        return CompletableFuture.failedFuture(new UnsupportedOperationException("Delta writes need a SQL storage backend"));
+    }
+
+    @Override
+    public CompletableFuture<Map<UUID, Long>> pollChanges() {
+        // The log belongs to this server alone
+        return CompletableFuture.completedFuture(Map.of());
+    }
+
+    @Override
+    public CompletableFuture<Long> getHighWaterMark() {
+        // The end of the log only ever moves forward
+        long end = 0;
+        for (Segment segment : segments.values()) {
+            end = Math.max(end, location(segment.id, segment.records));
+        }
+        return CompletableFuture.completedFuture(end);
+    }
+
+    private PlayerData readPlayer(UUID playerId) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(RECORD_SIZE);
+        activeReaders.incrementAndGet();
+        try {
+            long location;
+            indexLock.readLock().lock();
+            try {
+                location = index.get(playerId);
+            } finally {
+                indexLock.readLock().unlock();
+            }
+            if (location == LogIndex.ABSENT) {
+                return null;
+            }
+            Segment segment = segments.get(segmentOf(location));
+            segment.channel.read(buffer, (long) recordOf(location) * RECORD_SIZE);
+            if (buffer.position() < RECORD_SIZE || !isValid(buffer, 0)) {
+                throw new IOException("Corrupt record for " + playerId + " in " + segment.path.getFileName());
+            }
+            return decode(buffer, 0);
+        } finally {
+            activeReaders.decrementAndGet();
+        }
+    }
+
+    private CompletableFuture<Void> enqueueWrite(List<PlayerData> players) {
+        WriteRequest request = new WriteRequest(players);
+        if (!running) {
+            request.future.completeExceptionally(new IllegalStateException("Log storage is not running"));
+            return request.future;
+        }
+        writes.add(request);
+        return request.future;
+    }
+
+    private void runWriter() {
+        List<WriteRequest> batch = new ArrayList<>();
+        long nextCompaction = System.nanoTime() + compactionIntervalNanos;
+        while (running || !writes.isEmpty()) {
+            try {
+                WriteRequest first = writes.poll(100, TimeUnit.MILLISECONDS);
+                if (first != null) {
+                    // Everything queued while the last write was syncing goes out with one fsync
+                    batch.add(first);
+                    writes.drainTo(batch);
+                    commit(batch);
+                }
+                if (System.nanoTime() >= nextCompaction) {
+                    compact();
+                    nextCompaction = System.nanoTime() + compactionIntervalNanos;
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void commit(List<WriteRequest> batch) {
+        List<PlayerData> players = new ArrayList<>();
+        for (WriteRequest request : batch) {
+            players.addAll(request.players);
+        }
+        try {
+            ByteBuffer buffer = ByteBuffer.allocate(players.size() * RECORD_SIZE);
+            for (PlayerData playerData : players) {
+                encode(buffer, playerData);
+            }
+            buffer.flip();
+            long firstLocation = append(buffer, players.size());
+
+            indexLock.writeLock().lock();
+            try {
+                for (int i = 0; i < players.size(); i++) {
+                    track(players.get(i).getPlayerId(), firstLocation + i);
+                }
+            } finally {
+                indexLock.writeLock().unlock();
+            }
+        } catch (Exception e) {
+            logger.severe("Failed to save data for " + players.size() + " players: " + e.getMessage());
+            e.printStackTrace();
+            for (WriteRequest request : batch) {
+                request.future.completeExceptionally(e);
+            }
+            return;
+        }
+        for (WriteRequest request : batch) {
+            request.future.complete(null);
+        }
+    }
+
+    /**
+     * Write and sync encoded records at the end of the log, starting a new segment when the current one is full
+     * @return The location of the first record
+     */
+    private long append(ByteBuffer buffer, int count) throws IOException {
+        if (active.records > 0 && active.records + count > maxRecordsPerSegment) {
+            active = createSegment(active.id + 1);
+        }
+        long position = (long) active.records * RECORD_SIZE;
+        while (buffer.hasRemaining()) {
+            position += active.channel.write(buffer, position);
+        }
+        active.channel.force(false);
+        long first = location(active.id, active.records);
+        // Readers only see the new records once the index points at them
+        active.records += count;
+        return first;
+    }
+
+    /**
+     * Point the index at a record and keep the per-segment live counts that drive compaction. Callers hold the index write lock.
+     */
+    private void track(UUID playerId, long location) {
+        long previous = index.put(playerId, location);
+        if (previous != LogIndex.ABSENT) {
+            segments.get(segmentOf(previous)).live.decrementAndGet();
+        }
+        segments.get(segmentOf(location)).live.incrementAndGet();
+    }
+
+    /**
+     * Copy the live records of mostly superseded segments to the end of the log and retire the old files.
+     * Runs on the writer thread, so nothing else appends meanwhile.
+     */
+    private void compact() {
+        deleteRetired();
+        List<Segment> candidates = new ArrayList<>();
+        for (Segment segment : segments.values()) {
+            if (segment != active && !retired.contains(segment) && segment.records > 0
+                && 1.0 - (double) segment.live.get() / segment.records >= compactionThreshold) {
+                candidates.add(segment);
+            }
+        }
+        candidates.sort((a, b) -> Integer.compare(a.id, b.id));
+        for (Segment segment : candidates) {
+            try {
+                compact(segment);
+            } catch (Exception e) {
+                logger.warning("Failed to compact " + segment.path.getFileName() + ": " + e.getMessage());
+            }
+        }
+        deleteRetired();
+    }
+
+    private void compact(Segment segment) throws IOException {
+        MappedByteBuffer map = segment.channel.map(FileChannel.MapMode.READ_ONLY, 0, (long) segment.records * RECORD_SIZE);
+        List<UUID> ids = new ArrayList<>();
+        List<Long> oldLocations = new ArrayList<>();
+        ByteBuffer buffer = ByteBuffer.allocate(segment.live.get() * RECORD_SIZE);
+        indexLock.readLock().lock();
+        try {
+            for (int i = 0; i < segment.records && buffer.hasRemaining(); i++) {
+                int offset = i * RECORD_SIZE;
+                if (!isValid(map, offset)) {
+                    continue;
+                }
+                UUID playerId = new UUID(map.getLong(offset + 4), map.getLong(offset + 12));
+                long location = location(segment.id, i);
+                if (index.get(playerId) == location) {
+                    ids.add(playerId);
+                    oldLocations.add(location);
+                    buffer.put(map.slice(offset, RECORD_SIZE));
+                }
+            }
+        } finally {
+            indexLock.readLock().unlock();
+        }
+
+        if (!ids.isEmpty()) {
+            buffer.flip();
+            long firstLocation = append(buffer, ids.size());
+            indexLock.writeLock().lock();
+            try {
+                for (int i = 0; i < ids.size(); i++) {
+                    if (index.replace(ids.get(i), oldLocations.get(i), firstLocation + i)) {
+                        segment.live.decrementAndGet();
+                        active.live.incrementAndGet();
+                    }
+                }
+            } finally {
+                indexLock.writeLock().unlock();
+            }
+        }
+        retired.add(segment);
+    }
+
+    private void deleteRetired() {
+        // A reader that started before compaction may still hold an old location
+        if (retired.isEmpty() || activeReaders.get() > 0) {
+            return;
+        }
+        for (Iterator<Segment> iterator = retired.iterator(); iterator.hasNext(); ) {
+            Segment segment = iterator.next();
+            segments.remove(segment.id);
+            segment.close();
+            try {
+                Files.deleteIfExists(segment.path);
+            } catch (IOException e) {
+                logger.warning("Failed to delete compacted segment " + segment.path.getFileName() + ": " + e.getMessage());
+            }
+            iterator.remove();
+        }
+    }
+
+    private Segment createSegment(int id) throws IOException {
+        Segment segment = Segment.open(id, directory.resolve(String.format("%s%08d%s", SEGMENT_PREFIX, id, SEGMENT_SUFFIX)));
+        segments.put(id, segment);
+        return segment;
+    }
+
+    private static long location(int segmentId, int record) {
+        return ((long) segmentId << 32) | (record & 0xFFFFFFFFL);
+    }
+
+    private static int segmentOf(long location) {
+        return (int) (location >>> 32);
+    }
+
+    private static int recordOf(long location) {
+        return (int) location;
+    }
+
+    private static void encode(ByteBuffer buffer, PlayerData playerData) {
+        int start = buffer.position();
+        byte[] name = playerData.getPlayerName() != null
+            ? playerData.getPlayerName().getBytes(StandardCharsets.UTF_8)
+            : new byte[0];
+        int nameLength = Math.min(name.length, MAX_NAME_BYTES);
+        buffer.putInt(MAGIC);
+        buffer.putLong(playerData.getPlayerId().getMostSignificantBits());
+        buffer.putLong(playerData.getPlayerId().getLeastSignificantBits());
+        buffer.putInt(playerData.getLevel());
+        buffer.putLong(playerData.getXp());
+        buffer.put((byte) nameLength);
+        buffer.put(name, 0, nameLength);
+        buffer.position(start + CRC_OFFSET);
+        buffer.putInt(crc(buffer, start));
+    }
+
+    private static PlayerData decode(ByteBuffer buffer, int offset) {
+        int nameLength = Math.min(buffer.get(offset + 32), MAX_NAME_BYTES);
+        byte[] name = new byte[Math.max(0, nameLength)];
+        buffer.get(offset + NAME_OFFSET, name);
+        return new PlayerData(
+            new UUID(buffer.getLong(offset + 4), buffer.getLong(offset + 12)),
+            new String(name, StandardCharsets.UTF_8),
+            buffer.getInt(offset + 20),
+            buffer.getLong(offset + 24)
+        );
+    }
+
+    private static boolean isValid(ByteBuffer buffer, int offset) {
+        return buffer.getInt(offset) == MAGIC && buffer.getInt(offset + CRC_OFFSET) == crc(buffer, offset);
+    }
+
+    private static int crc(ByteBuffer buffer, int offset) {
+        CRC32 crc = new CRC32();
+        crc.update(buffer.slice(offset, CRC_OFFSET));
+        return (int) crc.getValue();
+    }
+
+    private static final class Segment {
+        final int id;
+        final Path path;
+        final FileChannel channel;
+        final AtomicInteger live = new AtomicInteger();
+        // Written by the writer thread; readers only follow index entries published after an update
+        volatile int records;
+
+        private Segment(int id, Path path, FileChannel channel) {
+            this.id = id;
+            this.path = path;
+            this.channel = channel;
+        }
+
+        static Segment open(int id, Path path) throws IOException {
+            return new Segment(id, path, FileChannel.open(path,
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE));
+        }
+
+        void close() {
+            try {
+                channel.close();
+            } catch (IOException e) {
+                // Nothing left to do with a segment that will not close
+            }
+        }
+    }
+
+    private static final class WriteRequest {
+        final List<PlayerData> players;
+        final CompletableFuture<Void> future = new CompletableFuture<>();
+
+        WriteRequest(List<PlayerData> players) {
+            this.players = players;
+        }
+    }
+}
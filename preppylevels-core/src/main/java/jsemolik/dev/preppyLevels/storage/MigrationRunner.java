@@ -0,0 +1,85 @@
+package jsemolik.dev.preppyLevels.storage;
+
+import jsemolik.dev.preppyLevels.config.ConfigLoader;
+import jsemolik.dev.preppyLevels.config.PluginConfig;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Locale;
+import java.util.logging.Logger;
+
+/**
+ * Migrates player data between storage backends while the server is stopped, using the connection
+ * settings from the plugin's config.yml:
+ *
+ * <pre>java -cp PreppyLevels.jar jsemolik.dev.preppyLevels.storage.MigrationRunner plugins/PreppyLevels YAML MYSQL</pre>
+ *
+ * Running it again after an interruption resumes where it stopped.
+ */
+public final class MigrationRunner {
+    private MigrationRunner() {
+    }
+
+    public static void main(String[] args) {
+        if (args.length < 3) {
+            System.err.println("Usage: MigrationRunner <plugin folder> <from> <to> [page size]");
+            System.err.println("Storage types: MYSQL, H2, SQLITE, YAML, JSON, LOG");
+            System.exit(2);
+        }
+        Logger logger = Logger.getLogger("PreppyLevels");
+        Path dataFolder = Paths.get(args[0]);
+        if (!Files.exists(dataFolder.resolve("config.yml"))) {
+            System.err.println("No config.yml found in " + dataFolder.toAbsolutePath());
+            System.exit(2);
+        }
+        PluginConfig.StorageType from;
+        PluginConfig.StorageType to;
+        int pageSize;
+        try {
+            from = PluginConfig.StorageType.valueOf(args[1].toUpperCase(Locale.ROOT));
+            to = PluginConfig.StorageType.valueOf(args[2].toUpperCase(Locale.ROOT));
+            pageSize = args.length > 3 ? Integer.parseInt(args[3]) : StorageMigration.DEFAULT_PAGE_SIZE;
+        } catch (IllegalArgumentException e) {
+            System.err.println("Invalid argument: " + e.getMessage());
+            System.exit(2);
+            return;
+        }
+        if (from == to) {
+            System.err.println("Source and target storage must differ");
+            System.exit(2);
+        }
+
+        PluginConfig config = new ConfigLoader(logger, dataFolder.resolve("config.yml")).loadConfig();
+        StorageExecutor executor = StorageMigration.createExecutor(config.getStorageExecutorConfig());
+        StorageProvider source = null;
+        StorageProvider target = null;
+        int exitCode = 0;
+        try {
+            source = StorageFactory.createStorageProvider(from, config, logger, dataFolder, executor);
+            target = StorageFactory.createStorageProvider(to, config, logger, dataFolder, executor);
+            source.initialize().join();
+            target.initialize().join();
+
+            long start = System.nanoTime();
+            StorageMigration migration = new StorageMigration(source, target, from + " to " + to,
+                StorageMigration.checkpointFile(dataFolder, from, to), pageSize, logger);
+            long copied = migration.run(count -> logger.info("Copied " + count + " players"));
+            logger.info("Migrated " + copied + " players from " + from + " to " + to + " in "
+                + (System.nanoTime() - start) / 1_000_000_000L + "s");
+        } catch (Exception e) {
+            logger.severe("Migration failed: " + e.getMessage());
+            e.printStackTrace();
+            exitCode = 1;
+        } finally {
+            if (source != null) {
+                source.shutdown().join();
+            }
+            if (target != null) {
+                target.shutdown().join();
+            }
+            executor.shutdown();
+        }
+        System.exit(exitCode);
+    }
+}
@@ -0,0 +1,634 @@
+package jsemolik.dev.preppyLevels.storage;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Savepoint;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+import java.util.function.LongToIntFunction;
+import java.util.logging.Logger;
+
+public class MySQLStorageProvider implements StorageProvider {
+    // Keeps IN lists well below every backend's bound parameter limit
+    private static final int BATCH_CHUNK_SIZE = 500;
+    // Rows fetched per round trip when walking the whole table
+    private static final int FETCH_SIZE = 1000;
+    private static final long PRUNE_INTERVAL_MILLIS = 60_000L;
+
+    private final Logger logger;
+    private final jsemolik.dev.preppyLevels.config.PluginConfig.MySQLConfig config;
+    private HikariDataSource dataSource;
+    private final StorageExecutor executor;
+    private boolean mysqlDriver;
+    private ChangeFeed changeFeed;
+    private volatile long lastPruneMillis;
+
+    public MySQLStorageProvider(jsemolik.dev.preppyLevels.config.PluginConfig.MySQLConfig config, Logger logger, StorageExecutor executor) {
+        this.config = config;
+        this.logger = logger;
+        this.executor = executor;
+    }
+
+    @Override
+    public CompletableFuture<Void> initialize() {
+        return executor.run(() -> {
+            try {
+                HikariConfig hikariConfig = new HikariConfig();
+                String jdbcUrl = config.getJdbcUrl();
+                if (jdbcUrl == null || jdbcUrl.isBlank()) {
+                    jdbcUrl = "jdbc:mysql://" + config.getHost() + ":" + config.getPort() + "/" + config.getDatabase();
+                }
+                // Another database in MySQL mode (e.g. H2 for local testing) lacks the MySQL driver's options
+                mysqlDriver = jdbcUrl.startsWith("jdbc:mysql:");
+                hikariConfig.setJdbcUrl(jdbcUrl);
+                hikariConfig.setUsername(config.getUsername());
+                hikariConfig.setPassword(config.getPassword());
+                hikariConfig.setMaximumPoolSize(config.getPoolSize());
+                hikariConfig.setMinimumIdle(2);
+                if (mysqlDriver) {
+                    // Let the driver send batched upserts as multi-row statements
+                    hikariConfig.addDataSourceProperty("rewriteBatchedStatements", "true");
+                }
+                
+                dataSource = new HikariDataSource(hikariConfig);
+                
+                try (Connection conn = dataSource.getConnection()) {
+                    conn.createStatement().execute(
+                        "CREATE TABLE IF NOT EXISTS player_data (" +
+                        "player_id VARCHAR(36) PRIMARY KEY, " +
+                        "player_name VARCHAR(16) NOT NULL, " +
+                        "level INT NOT NULL DEFAULT 1, " +
+                        "xp BIGINT NOT NULL DEFAULT 0, " +
+                        "version BIGINT NOT NULL DEFAULT 1" +
+                        ")"
+                    );
+                    
+                    // Tables created before rows were versioned lack the column
+                    if (!hasColumn(conn, "player_data", "version")) {
+                        conn.createStatement().execute(
+                            "ALTER TABLE player_data ADD COLUMN version BIGINT NOT NULL DEFAULT 1"
+                        );
+                    }
+                    
+                    // A single counter row that every write transaction bumps just before committing
+                    conn.createStatement().execute(
+                        "CREATE TABLE IF NOT EXISTS player_data_changes (" +
+                        "id INT PRIMARY KEY, " +
+                        "write_sequence BIGINT NOT NULL" +
+                        ")"
+                    );
+                    conn.createStatement().execute(
+                        "INSERT IGNORE INTO player_data_changes (id, write_sequence) VALUES (1, 0)"
+                    );
+                    
+                    // MySQL has no CREATE INDEX IF NOT EXISTS
+                    if (!hasIndex(conn, "player_data", "idx_player_data_xp")) {
+                        conn.createStatement().execute(
+                            "CREATE INDEX idx_player_data_xp ON player_data (xp, player_id)"
+                        );
+                    }
+                    
+                    jsemolik.dev.preppyLevels.config.PluginConfig.ChangeFeedConfig changeFeedConfig = config.getChangeFeedConfig();
+                    if (changeFeedConfig != null && changeFeedConfig.isEnabled()) {
+                        conn.createStatement().execute(
+                            "CREATE TABLE IF NOT EXISTS player_changes (" +
+                            "seq BIGINT AUTO_INCREMENT PRIMARY KEY, " +
+                            "player_id VARCHAR(36) NOT NULL, " +
+                            "version BIGINT NOT NULL, " +
+                            "server_id VARCHAR(64) NOT NULL, " +
+                            "ts BIGINT NOT NULL" +
+                            ")"
+                        );
+                        if (!hasIndex(conn, "player_changes", "idx_player_changes_ts")) {
+                            conn.createStatement().execute(
+                                "CREATE INDEX idx_player_changes_ts ON player_changes (ts)"
+                            );
+                        }
+                        
+                        String serverId = changeFeedConfig.getServerId();
+                        if (serverId == null || serverId.isBlank()) {
+                            serverId = UUID.randomUUID().toString().substring(0, 8);
+                        }
+                        changeFeed = new ChangeFeed(serverId);
+                        changeFeed.start(conn);
+                        logger.info("Change feed enabled for server '" + serverId + "'");
+                    }
+                }
+                logger.info("MySQL database initialized successfully");
+            } catch (Exception e) {
+                logger.severe("Failed to initialize MySQL database: " + e.getMessage());
+                e.printStackTrace();
+                throw new RuntimeException(e);
+            }
+        });
+    }
+
+    @Override
+    public CompletableFuture<Void> shutdown() {
+        return executor.run(() -> {
+            if (dataSource != null) {
+                dataSource.close();
+            }
+        });
+    }
+
+    @Override
+    public CompletableFuture<PlayerData> loadPlayerData(UUID playerId) {
+        return executor.supply(() -> {
+            try (Connection conn = dataSource.getConnection();
+                 PreparedStatement stmt = conn.prepareStatement(
+                     "SELECT player_name, level, xp, version FROM player_data WHERE player_id = ?"
+                 )) {
+                stmt.setString(1, playerId.toString());
+                ResultSet rs = stmt.executeQuery();
+                
+                if (rs.next()) {
+                    PlayerData data = new PlayerData(
+                        playerId,
+                        rs.getString("player_name"),
+                        rs.getInt("level"),
+                        rs.getLong("xp")
+                    );
+                    data.setVersion(rs.getLong("version"));
+                    return data;
+                }
+                return null;
+            } catch (Exception e) {
+                logger.severe("Failed to load player data for " + playerId + ": " + e.getMessage());
+                e.printStackTrace();
+                return null;
+            }
+        });
+    }
+
+    /**
+     * Saves are conditional on the player's version like {@link #savePlayerDataBatch}, and a rejected save
+     * completes with a {@link VersionConflictException}
+     */
+    @Override
+    public CompletableFuture<Void> savePlayerData(PlayerData playerData) {
+        return executor.run(playerData.getPlayerId(), () -> {
+            Set<UUID> conflicts;
+            try (Connection conn = dataSource.getConnection()) {
+                boolean autoCommit = conn.getAutoCommit();
+                conn.setAutoCommit(false);
+                try {
+                    conflicts = writeVersioned(conn, List.of(playerData));
+                    conn.commit();
+                } catch (Exception e) {
+                    conn.rollback();
+                    throw e;
+                } finally {
+                    conn.setAutoCommit(autoCommit);
+                }
+            } catch (Exception e) {
+                logger.severe("Failed to save player data for " + playerData.getPlayerId() + ": " + e.getMessage());
+                e.printStackTrace();
+                throw new RuntimeException(e);
+            }
+            if (!conflicts.isEmpty()) {
+                throw new VersionConflictException(conflicts);
+            }
+        });
+    }
+
+    @Override
+    public CompletableFuture<Boolean> playerExists(UUID playerId) {
+        return executor.supply(() -> {
+            try (Connection conn = dataSource.getConnection();
+                 PreparedStatement stmt = conn.prepareStatement(
+                     "SELECT 1 FROM player_data WHERE player_id = ?"
+                 )) {
+                stmt.setString(1, playerId.toString());
+                return stmt.executeQuery().next();
+            } catch (Exception e) {
+                logger.severe("Failed to check if player exists: " + playerId + ": " + e.getMessage());
+                e.printStackTrace();
+                return false;
+            }
+        });
+    }
+
+    @Override
+    public CompletableFuture<Void> forEachPlayer(Consumer<PlayerData> action) {
+        return forEachPlayer(null, action);
+    }
+
+    @Override
+    public CompletableFuture<Void> forEachPlayer(UUID after, Consumer<PlayerData> action) {
+        return executor.run(() -> {
+            // Walks the primary key in order, so a walk can continue after the last player it reached
+            String sql = after == null
+                ? "SELECT player_id, player_name, level, xp FROM player_data ORDER BY player_id"
+                : "SELECT player_id, player_name, level, xp FROM player_data WHERE player_id > ? ORDER BY player_id";
+            try (Connection conn = dataSource.getConnection();
+                 PreparedStatement stmt = conn.prepareStatement(sql)) {
+                if (mysqlDriver) {
+                    // Stream rows instead of buffering the whole table
+                    stmt.setFetchSize(Integer.MIN_VALUE);
+                } else {
+                    stmt.setFetchSize(FETCH_SIZE);
+                }
+                if (after != null) {
+                    stmt.setString(1, after.toString());
+                }
+                ResultSet rs = stmt.executeQuery();
+                while (rs.next()) {
+                    action.accept(new PlayerData(
+                        UUID.fromString(rs.getString("player_id")),
+                        rs.getString("player_name"),
+                        rs.getInt("level"),
+                        rs.getLong("xp")
+                    ));
+                }
+            } catch (Exception e) {
+                logger.severe("Failed to read all player data: " + e.getMessage());
+                e.printStackTrace();
+                throw new RuntimeException(e);
+            }
+        });
+    }
+
+    @Override
+    public CompletableFuture<List<PlayerData>> getTopPlayers(PlayerData after, int limit) {
+        return executor.supply(() -> {
+            // Keyset pagination walks idx_player_data_xp backwards from the previous page's last row
+            String sql = after == null
+                ? "SELECT player_id, player_name, level, xp FROM player_data " +
+                  "ORDER BY xp DESC, player_id DESC LIMIT ?"
+                : "SELECT player_id, player_name, level, xp FROM player_data " +
+                  "WHERE xp < ? OR (xp = ? AND player_id < ?) " +
+                  "ORDER BY xp DESC, player_id DESC LIMIT ?";
+            try (Connection conn = dataSource.getConnection();
+                 PreparedStatement stmt = conn.prepareStatement(sql)) {
+                int index = 1;
+                if (after != null) {
+                    stmt.setLong(index++, after.getXp());
+                    stmt.setLong(index++, after.getXp());
+                    stmt.setString(index++, after.getPlayerId().toString());
+                }
+                stmt.setInt(index, limit);
+                ResultSet rs = stmt.executeQuery();
+                
+                List<PlayerData> players = new ArrayList<>();
+                while (rs.next()) {
+                    players.add(new PlayerData(
+                        UUID.fromString(rs.getString("player_id")),
+                        rs.getString("player_name"),
+                        rs.getInt("level"),
+                        rs.getLong("xp")
+                    ));
+                }
+                return players;
+            } catch (Exception e) {
+                logger.severe("Failed to load top players: " + e.getMessage());
+                e.printStackTrace();
+                throw new RuntimeException(e);
+            }
+        });
+    }
+
+    @Override
+    public CompletableFuture<Integer> getRank(UUID playerId) {
+        return executor.supply(() -> {
+            try (Connection conn = dataSource.getConnection();
+                 PreparedStatement xpStmt = conn.prepareStatement(
+                     "SELECT xp FROM player_data WHERE player_id = ?"
+                 );
+                 PreparedStatement countStmt = conn.prepareStatement(
+                     "SELECT COUNT(*) FROM player_data WHERE xp > ? OR (xp = ? AND player_id > ?)"
+                 )) {
+                xpStmt.setString(1, playerId.toString());
+                ResultSet xpRs = xpStmt.executeQuery();
+                if (!xpRs.next()) {
+                    return 0;
+                }
+                long xp = xpRs.getLong(1);
+                
+                // Counts an index range of idx_player_data_xp rather than scanning the table
+                countStmt.setLong(1, xp);
+                countStmt.setLong(2, xp);
+                countStmt.setString(3, playerId.toString());
+                ResultSet countRs = countStmt.executeQuery();
+                countRs.next();
+                return countRs.getInt(1) + 1;
+            } catch (Exception e) {
+                logger.severe("Failed to get rank for " + playerId + ": " + e.getMessage());
+                e.printStackTrace();
+                throw new RuntimeException(e);
+            }
+        });
+    }
+
+    @Override
+    public CompletableFuture<Map<UUID, PlayerData>> loadPlayerDataBatch(Collection<UUID> playerIds) {
+        return executor.supply(() -> {
+            Map<UUID, PlayerData> players = new HashMap<>();
+            List<UUID> ids = new ArrayList<>(playerIds);
+            try (Connection conn = dataSource.getConnection()) {
+                for (int from = 0; from < ids.size(); from += BATCH_CHUNK_SIZE) {
+                    List<UUID> chunk = ids.subList(from, Math.min(from + BATCH_CHUNK_SIZE, ids.size()));
+                    String placeholders = String.join(", ", Collections.nCopies(chunk.size(), "?"));
+                    try (PreparedStatement stmt = conn.prepareStatement(
+                        "SELECT player_id, player_name, level, xp, version FROM player_data WHERE player_id IN (" + placeholders + ")"
+                    )) {
+                        for (int i = 0; i < chunk.size(); i++) {
+                            stmt.setString(i + 1, chunk.get(i).toString());
+                        }
+                        ResultSet rs = stmt.executeQuery();
+                        while (rs.next()) {
+                            UUID playerId = UUID.fromString(rs.getString("player_id"));
+                            PlayerData data = new PlayerData(
+                                playerId,
+                                rs.getString("player_name"),
+                                rs.getInt("level"),
+                                rs.getLong("xp")
+                            );
+                            data.setVersion(rs.getLong("version"));
+                            players.put(playerId, data);
+                        }
+                    }
+                }
+                return players;
+            } catch (Exception e) {
+                logger.severe("Failed to load data for " + ids.size() + " players: " + e.getMessage());
+                e.printStackTrace();
+                throw new RuntimeException(e);
+            }
+        });
+    }
+
+    /**
+     * Saves are conditional on each player's version, so a server never overwrites a row that another
+     * server wrote after it was read. Rejected players are reported with a {@link VersionConflictException}
+     * once the rest of the batch is committed.
+     */
+    @Override
+    public CompletableFuture<Void> savePlayerDataBatch(Collection<PlayerData> players) {
+        return executor.runBatch(players, PlayerData::getPlayerId, batch -> {
+            Set<UUID> conflicts;
+            try (Connection conn = dataSource.getConnection()) {
+                boolean autoCommit = conn.getAutoCommit();
+                conn.setAutoCommit(false);
+                try {
+                    conflicts = writeVersioned(conn, batch);
+                    conn.commit();
+                } catch (Exception e) {
+                    conn.rollback();
+                    throw e;
+                } finally {
+                    conn.setAutoCommit(autoCommit);
+                }
+            } catch (Exception e) {
+                logger.severe("Failed to save data for " + batch.size() + " players: " + e.getMessage());
+                e.printStackTrace();
+                throw new RuntimeException(e);
+            }
+            if (!conflicts.isEmpty()) {
+                throw new VersionConflictException(conflicts);
+            }
+        });
+    }
+
+    private Set<UUID> writeVersioned(Connection conn, Collection<PlayerData> players) throws SQLException {
+        List<PlayerData> stored = new ArrayList<>();
+        List<PlayerData> created = new ArrayList<>();
+        for (PlayerData playerData : players) {
+            // Version 0 means the player was created on this server and has never been stored
+            (playerData.getVersion() > 0 ? stored : created).add(playerData);
+        }
+
+        Set<UUID> conflicts = new HashSet<>();
+        List<UUID> written = new ArrayList<>();
+        if (!stored.isEmpty()) {
+            try (PreparedStatement stmt = conn.prepareStatement(
+                "UPDATE player_data SET player_name = ?, level = ?, xp = ?, version = version + 1 " +
+                "WHERE player_id = ? AND version = ?"
+            )) {
+                for (PlayerData playerData : stored) {
+                    stmt.setString(1, playerData.getPlayerName());
+                    stmt.setInt(2, playerData.getLevel());
+                    stmt.setLong(3, playerData.getXp());
+                    stmt.setString(4, playerData.getPlayerId().toString());
+                    stmt.setLong(5, playerData.getVersion());
+                    stmt.addBatch();
+                }
+                int[] counts = stmt.executeBatch();
+                for (int i = 0; i < counts.length; i++) {
+                    UUID playerId = stored.get(i).getPlayerId();
+                    if (counts[i] == 0) {
+                        conflicts.add(playerId);
+                    } else {
+                        written.add(playerId);
+                    }
+                }
+            }
+        }
+
+        if (!created.isEmpty()) {
+            // Another server may have stored the player first
+            Set<UUID> existing = readVersions(conn, created.stream().map(PlayerData::getPlayerId).toList()).keySet();
+            List<UUID> inserted = new ArrayList<>();
+            Savepoint beforeInsert = conn.setSavepoint();
+            try (PreparedStatement stmt = conn.prepareStatement(
+                "INSERT INTO player_data (player_id, player_name, level, xp, version) VALUES (?, ?, ?, ?, 1)"
+            )) {
+                for (PlayerData playerData : created) {
+                    if (existing.contains(playerData.getPlayerId())) {
+                        conflicts.add(playerData.getPlayerId());
+                        continue;
+                    }
+                    stmt.setString(1, playerData.getPlayerId().toString());
+                    stmt.setString(2, playerData.getPlayerName());
+                    stmt.setInt(3, playerData.getLevel());
+                    stmt.setLong(4, playerData.getXp());
+                    stmt.addBatch();
+                    inserted.add(playerData.getPlayerId());
+                }
+                stmt.executeBatch();
+                written.addAll(inserted);
+            } catch (SQLException e) {
+                if (e.getSQLState() == null || !e.getSQLState().startsWith("23")) {
+                    throw e;
+                }
+                // Another server stored one of them since we checked; the caller reloads and retries them all
+                conn.rollback(beforeInsert);
+                conflicts.addAll(inserted);
+            }
+        }
+
+        recordChanges(conn, written);
+        countWrite(conn, written);
+        return conflicts;
+    }
+
+    @Override
+    public CompletableFuture<Map<UUID, Long>> savePlayerDeltaBatch(Collection<XpDelta> deltas, LongToIntFunction levelForXp) {
+        return executor.supply(() -> {
+            if (deltas.isEmpty()) {
+                return new HashMap<>();
+            }
+            try (Connection conn = dataSource.getConnection()) {
+                boolean autoCommit = conn.getAutoCommit();
+                conn.setAutoCommit(false);
+                try {
+                    Map<UUID, Long> totals = SqlDeltaWriter.apply(conn, SqlDeltaWriter.Dialect.MYSQL, deltas, levelForXp);
+                    bumpVersions(conn, totals.keySet());
+                    recordChanges(conn, totals.keySet());
+                    countWrite(conn, totals.keySet());
+                    conn.commit();
+                    return totals;
+                } catch (Exception e) {
+                    conn.rollback();
+                    throw e;
+                } finally {
+                    conn.setAutoCommit(autoCommit);
+                }
+            } catch (Exception e) {
+                logger.severe("Failed to save XP for " + deltas.size() + " players: " + e.getMessage());
+                e.printStackTrace();
+                throw new RuntimeException(e);
+            }
+        });
+    }
+
+    @Override
+    public CompletableFuture<Map<UUID, Long>> pollChanges() {
+        if (changeFeed == null) {
+            return CompletableFuture.completedFuture(Map.of());
+        }
+        return executor.supply(() -> {
+            try (Connection conn = dataSource.getConnection()) {
+                Map<UUID, Long> changes = changeFeed.poll(conn);
+                long now = System.currentTimeMillis();
+                if (now - lastPruneMillis >= PRUNE_INTERVAL_MILLIS) {
+                    lastPruneMillis = now;
+                    changeFeed.prune(conn, config.getChangeFeedConfig().getRetention() * 1000L);
+                }
+                return changes;
+            } catch (Exception e) {
+                logger.severe("Failed to poll for changes from other servers: " + e.getMessage());
+                e.printStackTrace();
+                throw new RuntimeException(e);
+            }
+        });
+    }
+
+    @Override
+    public CompletableFuture<Long> getHighWaterMark() {
+        return executor.supply(() -> {
+            try (Connection conn = dataSource.getConnection();
+                 PreparedStatement stmt = conn.prepareStatement(
+                     "SELECT write_sequence FROM player_data_changes WHERE id = 1"
+                 )) {
+                ResultSet rs = stmt.executeQuery();
+                rs.next();
+                return rs.getLong(1);
+            } catch (Exception e) {
+                logger.severe("Failed to read storage high-water mark: " + e.getMessage());
+                e.printStackTrace();
+                throw new RuntimeException(e);
+            }
+        });
+    }
+
+    private void bumpVersions(Connection conn, Collection<UUID> playerIds) throws SQLException {
+        List<UUID> ordered = new ArrayList<>(playerIds);
+        // Same lock order as the delta writer
+        ordered.sort(Comparator.comparing(UUID::toString));
+        try (PreparedStatement stmt = conn.prepareStatement(
+            "UPDATE player_data SET version = version + 1 WHERE player_id = ?"
+        )) {
+            for (UUID playerId : ordered) {
+                stmt.setString(1, playerId.toString());
+                stmt.addBatch();
+            }
+            stmt.executeBatch();
+        }
+    }
+
+    /**
+     * Log the versions just written for other servers to pick up, in the writing transaction
+     */
+    private void recordChanges(Connection conn, Collection<UUID> playerIds) throws SQLException {
+        if (changeFeed != null && !playerIds.isEmpty()) {
+            changeFeed.record(conn, readVersions(conn, playerIds));
+        }
+    }
+
+    /**
+     * Raise the high-water mark in the writing transaction. Called last, as the counter row stays
+     * locked against other servers' writes until the transaction commits.
+     */
+    private void countWrite(Connection conn, Collection<UUID> playerIds) throws SQLException {
+        if (playerIds.isEmpty()) {
+            return;
+        }
+        try (PreparedStatement stmt = conn.prepareStatement(
+            "UPDATE player_data_changes SET write_sequence = write_sequence + 1 WHERE id = 1"
+        )) {
+            stmt.executeUpdate();
+        }
+    }
+
+    private Map<UUID, Long> readVersions(Connection conn, Collection<UUID> playerIds) throws SQLException {
+        Map<UUID, Long> versions = new HashMap<>();
+        List<UUID> ids = new ArrayList<>(playerIds);
+        for (int from = 0; from < ids.size(); from += BATCH_CHUNK_SIZE) {
+            List<UUID> chunk = ids.subList(from, Math.min(from + BATCH_CHUNK_SIZE, ids.size()));
+            String placeholders = String.join(", ", Collections.nCopies(chunk.size(), "?"));
+            try (PreparedStatement stmt = conn.prepareStatement(
+                "SELECT player_id, version FROM player_data WHERE player_id IN (" + placeholders + ")"
+            )) {
+                for (int i = 0; i < chunk.size(); i++) {
+                    stmt.setString(i + 1, chunk.get(i).toString());
+                }
+                ResultSet rs = stmt.executeQuery();
+                while (rs.next()) {
+                    versions.put(UUID.fromString(rs.getString("player_id")), rs.getLong("version"));
+                }
+            }
+        }
+        return versions;
+    }
+
+    private static boolean hasColumn(Connection conn, String table, String column) throws SQLException {
+        DatabaseMetaData meta = conn.getMetaData();
+        try (ResultSet rs = meta.getColumns(conn.getCatalog(), null, identifier(meta, table), identifier(meta, column))) {
+            return rs.next();
+        }
+    }
+
+    private static boolean hasIndex(Connection conn, String table, String index) throws SQLException {
+        DatabaseMetaData meta = conn.getMetaData();
+        try (ResultSet rs = meta.getIndexInfo(conn.getCatalog(), null, identifier(meta, table), false, false)) {
+            while (rs.next()) {
+                if (index.equalsIgnoreCase(rs.getString("INDEX_NAME"))) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private static String identifier(DatabaseMetaData meta, String name) throws SQLException {
+        return meta.storesUpperCaseIdentifiers() ? name.toUpperCase(Locale.ROOT) : name;
+    }
+}
@@ -0,0 +1,138 @@
+package jsemolik.dev.preppyLevels.storage;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.UUID;
+
+/**
+ * Player level state. XP and level are kept together in one immutable {@link Progress} that is
+ * replaced atomically, so concurrent grants from the chat, command and scheduler threads never
+ * lose updates and never see a level that does not belong to the XP.
+ */
+public class PlayerData {
+    private static final VarHandle PROGRESS;
+
+    static {
+        try {
+            PROGRESS = MethodHandles.lookup().findVarHandle(PlayerData.class, "progress", Progress.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    /**
+     * A player's total XP and the level that goes with it, read and replaced as one value
+     */
+    public static final class Progress {
+        private final long xp;
+        private final int level;
+
+        public Progress(long xp, int level) {
+            this.xp = xp;
+            this.level = level;
+        }
+
+        public long getXp() {
+            return xp;
+        }
+
+        public int getLevel() {
+            return level;
+        }
+    }
+
+    private UUID playerId;
+    private volatile String playerName;
+    private volatile Progress progress;
+    // Total XP as last read from or written to storage, used to work out deltas in delta-write mode
+    private volatile long syncedXp;
+    // Version of the stored row this state is based on; MySQL rejects saves based on an older version
+    private volatile long version;
+
+    public PlayerData(UUID playerId, String playerName, int level, long xp) {
+        this.playerId = playerId;
+        this.playerName = playerName;
+        this.progress = new Progress(xp, level);
+        this.syncedXp = xp;
+    }
+
+    public UUID getPlayerId() {
+        return playerId;
+    }
+
+    public void setPlayerId(UUID playerId) {
+        this.playerId = playerId;
+    }
+
+    public String getPlayerName() {
+        return playerName;
+    }
+
+    public void setPlayerName(String playerName) {
+        this.playerName = playerName;
+    }
+
+    public int getLevel() {
+        return progress.getLevel();
+    }
+
+    public void setLevel(int level) {
+        Progress current;
+        do {
+            current = progress;
+        } while (!PROGRESS.compareAndSet(this, current, new Progress(current.getXp(), level)));
+    }
+
+    public long getXp() {
+        return progress.getXp();
+    }
+
+    public void setXp(long xp) {
+        Progress current;
+        do {
+            current = progress;
+        } while (!PROGRESS.compareAndSet(this, current, new Progress(xp, current.getLevel())));
+    }
+
+    /**
+     * Get XP and level as of the same moment
+     */
+    public Progress getProgress() {
+        return progress;
+    }
+
+    /**
+     * Atomically replace XP and level together if no other thread changed them since {@code expected} was read
+     * @return true if the update was applied, false if the caller should read the progress again and retry
+     */
+    public boolean compareAndSetProgress(Progress expected, Progress update) {
+        return PROGRESS.compareAndSet(this, expected, update);
+    }
+
+    public long getSyncedXp() {
+        return syncedXp;
+    }
+
+    public void setSyncedXp(long syncedXp) {
+        this.syncedXp = syncedXp;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public void setVersion(long version) {
+        this.version = version;
+    }
+
+    /**
+     * Copy the current state, e.g. to hand a stable value to storage while grants continue
+     */
+    public PlayerData snapshot() {
+        Progress current = progress;
+        PlayerData copy = new PlayerData(playerId, playerName, current.getLevel(), current.getXp());
+        copy.syncedXp = syncedXp;
+        copy.version = version;
+        return copy;
+    }
+}
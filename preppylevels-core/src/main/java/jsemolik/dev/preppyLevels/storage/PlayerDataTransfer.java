@@ -0,0 +1,372 @@
+package jsemolik.dev.preppyLevels.storage;
+
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.UUID;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongConsumer;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Exports all stored players to a file and imports them back, as newline-delimited JSON or CSV,
+ * optionally gzip-compressed. Both directions stream one player at a time, so a dump of millions of
+ * players needs no more memory than a single page.
+ *
+ * NDJSON files have one object per line with the fields uuid, name, level and xp. CSV files start
+ * with the header line uuid,name,level,xp and quote fields as described in RFC 4180.
+ */
+public final class PlayerDataTransfer {
+    private static final long PROGRESS_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(5);
+    private static final int BUFFER_SIZE = 65536;
+    private static final String CSV_HEADER = "uuid,name,level,xp";
+
+    public enum Format {
+        NDJSON("ndjson"),
+        CSV("csv");
+
+        private final String extension;
+
+        Format(String extension) {
+            this.extension = extension;
+        }
+
+        public String getExtension() {
+            return extension;
+        }
+    }
+
+    private PlayerDataTransfer() {
+    }
+
+    /**
+     * Pick the format from a file name ending in .ndjson, .jsonl or .csv, optionally followed by .gz
+     * @throws IllegalArgumentException If the file name has none of these extensions
+     */
+    public static Format formatOf(Path file) {
+        String name = stripGzip(file.getFileName().toString().toLowerCase(Locale.ROOT));
+        if (name.endsWith(".ndjson") || name.endsWith(".jsonl")) {
+            return Format.NDJSON;
+        }
+        if (name.endsWith(".csv")) {
+            return Format.CSV;
+        }
+        throw new IllegalArgumentException("Unknown export format for " + file.getFileName() + ", use .ndjson, .jsonl or .csv");
+    }
+
+    /**
+     * Check whether a file is gzip-compressed, judged by a .gz extension
+     */
+    public static boolean isGzip(Path file) {
+        return file.getFileName().toString().toLowerCase(Locale.ROOT).endsWith(".gz");
+    }
+
+    /**
+     * Write every player in the source to a file, in the format given by its extension. The file
+     * only appears once it is complete, so a job picking up dumps never sees a partial one.
+     * @param progress Called with the number of players written so far, every few seconds and once at the end
+     * @return The number of players written
+     */
+    public static long export(StorageProvider source, Path file, LongConsumer progress) throws IOException {
+        Format format = formatOf(file);
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        long[] written = {0};
+        long[] lastReport = {System.nanoTime()};
+        try (Writer writer = openWriter(temp, isGzip(file))) {
+            JsonWriter json = null;
+            if (format == Format.NDJSON) {
+                json = new JsonWriter(writer);
+                // Lenient mode allows one top-level object per line
+                json.setLenient(true);
+            } else {
+                writer.write(CSV_HEADER);
+                writer.write('\n');
+            }
+            JsonWriter lines = json;
+            try {
+                source.forEachPlayerOnCaller(data -> {
+                    try {
+                        if (lines != null) {
+                            writeJson(lines, data);
+                        } else {
+                            writeCsv(writer, data);
+                        }
+                        writer.write('\n');
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                    written[0]++;
+                    if (System.nanoTime() - lastReport[0] >= PROGRESS_INTERVAL_NANOS) {
+                        lastReport[0] = System.nanoTime();
+                        progress.accept(written[0]);
+                    }
+                });
+            } catch (CompletionException e) {
+                throw unwrap(e.getCause());
+            } catch (RuntimeException e) {
+                throw unwrap(e);
+            }
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(temp);
+            throw e;
+        }
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        progress.accept(written[0]);
+        return written[0];
+    }
+
+    /**
+     * Read players from a file in the format given by its extension and save them to the target
+     * in pages. Imported players replace stored players with the same ID.
+     * @param progress Called with the number of players imported so far, every few seconds and once at the end
+     * @return The number of players imported
+     * @throws IOException If the file cannot be read or a line is malformed; pages before it stay imported
+     */
+    public static long importFrom(StorageProvider target, Path file, int pageSize, LongConsumer progress) throws IOException {
+        Format format = formatOf(file);
+        List<PlayerData> page = new ArrayList<>(Math.max(1, pageSize));
+        long imported = 0;
+        long lastReport = System.nanoTime();
+        try (BufferedReader reader = openReader(file, isGzip(file))) {
+            PlayerSource players = format == Format.NDJSON ? new JsonSource(reader) : new CsvSource(reader);
+            PlayerData data;
+            while ((data = players.next()) != null) {
+                page.add(data);
+                if (page.size() < pageSize) {
+                    continue;
+                }
+                StorageMigration.writePage(target, page);
+                imported += page.size();
+                page.clear();
+                if (System.nanoTime() - lastReport >= PROGRESS_INTERVAL_NANOS) {
+                    lastReport = System.nanoTime();
+                    progress.accept(imported);
+                }
+            }
+        }
+        if (!page.isEmpty()) {
+            StorageMigration.writePage(target, page);
+            imported += page.size();
+        }
+        progress.accept(imported);
+        return imported;
+    }
+
+    private static Writer openWriter(Path file, boolean gzip) throws IOException {
+        OutputStream out = Files.newOutputStream(file);
+        if (gzip) {
+            out = new GZIPOutputStream(out, BUFFER_SIZE);
+        }
+        return new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), BUFFER_SIZE);
+    }
+
+    private static BufferedReader openReader(Path file, boolean gzip) throws IOException {
+        InputStream in = Files.newInputStream(file);
+        if (gzip) {
+            in = new GZIPInputStream(in, BUFFER_SIZE);
+        }
+        return new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8), BUFFER_SIZE);
+    }
+
+    private static IOException unwrap(Throwable cause) {
+        if (cause instanceof UncheckedIOException) {
+            return ((UncheckedIOException) cause).getCause();
+        }
+        if (cause instanceof RuntimeException && cause.getCause() instanceof IOException) {
+            return (IOException) cause.getCause();
+        }
+        return new IOException("Failed to read players from storage: " + cause, cause);
+    }
+
+    private static void writeJson(JsonWriter json, PlayerData data) throws IOException {
+        json.beginObject();
+        json.name("uuid").value(data.getPlayerId().toString());
+        json.name("name").value(data.getPlayerName() != null ? data.getPlayerName() : "");
+        json.name("level").value(data.getLevel());
+        json.name("xp").value(data.getXp());
+        json.endObject();
+    }
+
+    private static void writeCsv(Writer writer, PlayerData data) throws IOException {
+        writer.write(data.getPlayerId().toString());
+        writer.write(',');
+        String name = data.getPlayerName() != null ? data.getPlayerName() : "";
+        if (name.indexOf(',') >= 0 || name.indexOf('"') >= 0 || name.indexOf('\n') >= 0 || name.indexOf('\r') >= 0) {
+            writer.write('"');
+            writer.write(name.replace("\"", "\"\""));
+            writer.write('"');
+        } else {
+            writer.write(name);
+        }
+        writer.write(',');
+        writer.write(Integer.toString(data.getLevel()));
+        writer.write(',');
+        writer.write(Long.toString(data.getXp()));
+    }
+
+    private interface PlayerSource {
+        /**
+         * @return The next player, or null at the end of the file
+         */
+        PlayerData next() throws IOException;
+    }
+
+    private static final class JsonSource implements PlayerSource {
+        private final JsonReader json;
+        private long record;
+
+        JsonSource(Reader reader) {
+            json = new JsonReader(reader);
+            // Lenient mode reads one top-level object after another
+            json.setLenient(true);
+        }
+
+        @Override
+        public PlayerData next() throws IOException {
+            if (json.peek() == JsonToken.END_DOCUMENT) {
+                return null;
+            }
+            record++;
+            String uuid = null;
+            String name = null;
+            int level = 1;
+            long xp = 0;
+            try {
+                json.beginObject();
+                while (json.hasNext()) {
+                    switch (json.nextName()) {
+                        case "uuid":
+                            uuid = json.nextString();
+                            break;
+                        case "name":
+                            name = json.nextString();
+                            break;
+                        case "level":
+                            level = json.nextInt();
+                            break;
+                        case "xp":
+                            xp = json.nextLong();
+                            break;
+                        default:
+                            json.skipValue();
+                    }
+                }
+                json.endObject();
+                if (uuid == null) {
+                    throw new IOException("missing uuid");
+                }
+                return new PlayerData(UUID.fromString(uuid), name, level, xp);
+            } catch (IOException | IllegalStateException | IllegalArgumentException e) {
+                throw new IOException("Invalid player in record " + record + ": " + e.getMessage(), e);
+            }
+        }
+    }
+
+    private static final class CsvSource implements PlayerSource {
+        private final BufferedReader reader;
+        private final List<String> fields = new ArrayList<>(4);
+        private final StringBuilder field = new StringBuilder();
+        private long line;
+
+        CsvSource(BufferedReader reader) throws IOException {
+            this.reader = reader;
+            if (!readRecord() || !String.join(",", fields).equalsIgnoreCase(CSV_HEADER)) {
+                throw new IOException("CSV file must start with the header " + CSV_HEADER);
+            }
+        }
+
+        @Override
+        public PlayerData next() throws IOException {
+            if (!readRecord()) {
+                return null;
+            }
+            if (fields.size() == 1 && fields.get(0).isEmpty()) {
+                // Blank line, e.g. at the end of a hand-edited file
+                return next();
+            }
+            try {
+                if (fields.size() != 4) {
+                    throw new IOException("expected 4 fields but found " + fields.size());
+                }
+                return new PlayerData(UUID.fromString(fields.get(0)), fields.get(1),
+                    Integer.parseInt(fields.get(2)), Long.parseLong(fields.get(3)));
+            } catch (IOException | IllegalArgumentException e) {
+                throw new IOException("Invalid player on line " + line + ": " + e.getMessage(), e);
+            }
+        }
+
+        /**
+         * Read the fields of the next record, which spans several lines if a quoted field contains line breaks
+         * @return False at the end of the file
+         */
+        private boolean readRecord() throws IOException {
+            String text = reader.readLine();
+            if (text == null) {
+                return false;
+            }
+            line++;
+            fields.clear();
+            field.setLength(0);
+            boolean quoted = false;
+            for (int i = 0; ; i++) {
+                if (i == text.length()) {
+                    if (!quoted) {
+                        break;
+                    }
+                    text = reader.readLine();
+                    if (text == null) {
+                        throw new IOException("Unterminated quoted field on line " + line);
+                    }
+                    line++;
+                    field.append('\n');
+                    i = -1;
+                    continue;
+                }
+                char c = text.charAt(i);
+                if (quoted) {
+                    if (c != '"') {
+                        field.append(c);
+                    } else if (i + 1 < text.length() && text.charAt(i + 1) == '"') {
+                        field.append('"');
+                        i++;
+                    } else {
+                        quoted = false;
+                    }
+                } else if (c == '"') {
+                    quoted = true;
+                } else if (c == ',') {
+                    fields.add(field.toString());
+                    field.setLength(0);
+                } else {
+                    field.append(c);
+                }
+            }
+            fields.add(field.toString());
+            return true;
+        }
+    }
+
+    private static String stripGzip(String name) {
+        return name.endsWith(".gz") ? name.substring(0, name.length() - 3) : name;
+    }
+}
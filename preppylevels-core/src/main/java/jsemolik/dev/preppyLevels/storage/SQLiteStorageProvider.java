@@ -0,0 +1,542 @@
+package jsemolik.dev.preppyLevels.storage;
+
+import org.sqlite.SQLiteConfig;
+
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.LongToIntFunction;
+import java.util.function.Supplier;
+import java.util.logging.Logger;
+
+/**
+ * SQLite storage tuned for concurrent use. The database runs in WAL mode so reads never wait for
+ * writes. All writes go through one long-lived connection owned by a single writer thread, which
+ * commits everything queued since its last commit in one transaction, so writers never contend
+ * for the file lock. Reads use a small pool of read-only connections, one per reader thread.
+ * The writer's and the readers' queues are bounded like the shared storage executor's queue and
+ * follow its overload policy.
+ */
+public class SQLiteStorageProvider implements StorageProvider {
+    // Keeps IN lists well below every backend's bound parameter limit
+    private static final int BATCH_CHUNK_SIZE = 500;
+    // Rows fetched per round trip when walking the whole table
+    private static final int FETCH_SIZE = 1000;
+    private static final String UPSERT =
+        "INSERT OR REPLACE INTO player_data (player_id, player_name, level, xp) VALUES (?, ?, ?, ?)";
+
+    private final Logger logger;
+    private final Path dataDirectory;
+    private final String dbFile;
+    private final int pageCacheKb;
+    private final StorageExecutor executor;
+    private final ThreadPoolExecutor readExecutor;
+    private final ThreadLocal<Connection> readConnection = new ThreadLocal<>();
+    private final List<Connection> readConnections = Collections.synchronizedList(new ArrayList<>());
+    private final BlockingQueue<WriteRequest> writes;
+    private Connection writeConnection;
+    private Thread writerThread;
+    private volatile boolean running;
+
+    /**
+     * @param executor Provides the bounded queues of the writer and the readers, its overload policy
+     *                 and the gauges they are reported in; its threads are not used
+     */
+    public SQLiteStorageProvider(jsemolik.dev.preppyLevels.config.PluginConfig.SQLiteConfig config, Logger logger,
+                                 Path dataDirectory, StorageExecutor executor) {
+        this.logger = logger;
+        this.dataDirectory = dataDirectory;
+        this.dbFile = config.getFile();
+        this.pageCacheKb = Math.max(0, config.getPageCacheKb());
+        this.executor = executor;
+        this.writes = executor.attachQueue();
+        int readers = Math.max(1, config.getReadConnections());
+        AtomicInteger readerCount = new AtomicInteger();
+        // Reads only reach the queue once every reader thread is busy, and a full queue applies the overload policy
+        this.readExecutor = new ThreadPoolExecutor(readers, readers, 0L, TimeUnit.MILLISECONDS, executor.attachQueue(), runnable -> {
+            Thread thread = new Thread(runnable, "PreppyLevels-SQLite-Reader-" + readerCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }, (task, pool) -> {
+            if (pool.isShutdown()) {
+                throw new RejectedExecutionException("SQLite storage is shut down");
+            }
+            executor.enqueue(pool.getQueue(), task);
+        });
+    }
+
+    private String getJdbcUrl() {
+        return "jdbc:sqlite:" + dataDirectory.resolve(dbFile).toAbsolutePath();
+    }
+
+    private <T> CompletableFuture<T> supplyRead(Supplier<T> operation) {
+        try {
+            return CompletableFuture.supplyAsync(operation, readExecutor);
+        } catch (RejectedExecutionException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    private CompletableFuture<Void> runRead(Runnable operation) {
+        try {
+            return CompletableFuture.runAsync(operation, readExecutor);
+        } catch (RejectedExecutionException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    // Each reader thread keeps its own read-only connection for the lifetime of the provider
+    private Connection readConnection() throws SQLException {
+        Connection conn = readConnection.get();
+        if (conn == null) {
+            SQLiteConfig sqliteConfig = new SQLiteConfig();
+            sqliteConfig.setReadOnly(true);
+            sqliteConfig.setBusyTimeout(5000);
+            conn = DriverManager.getConnection(getJdbcUrl(), sqliteConfig.toProperties());
+            try (Statement stmt = conn.createStatement()) {
+                // Negative cache_size is in KiB rather than pages
+                stmt.execute("PRAGMA cache_size = -" + pageCacheKb);
+            }
+            readConnection.set(conn);
+            readConnections.add(conn);
+        }
+        return conn;
+    }
+
+    @Override
+    public CompletableFuture<Void> initialize() {
+        return runRead(() -> {
+            try {
+                writeConnection = DriverManager.getConnection(getJdbcUrl());
+                try (Statement stmt = writeConnection.createStatement()) {
+                    // WAL lets readers run alongside the writer; NORMAL sync is safe in WAL mode
+                    stmt.execute("PRAGMA journal_mode = WAL");
+                    stmt.execute("PRAGMA synchronous = NORMAL");
+                    stmt.execute("PRAGMA cache_size = -" + pageCacheKb);
+                    stmt.execute("PRAGMA temp_store = MEMORY");
+                    stmt.execute("PRAGMA busy_timeout = 5000");
+                    stmt.execute(
+                        "CREATE TABLE IF NOT EXISTS player_data (" +
+                        "player_id TEXT PRIMARY KEY, " +
+                        "player_name TEXT NOT NULL, " +
+                        "level INTEGER NOT NULL DEFAULT 1, " +
+                        "xp INTEGER NOT NULL DEFAULT 0" +
+                        ")"
+                    );
+                    stmt.execute(
+                        "CREATE INDEX IF NOT EXISTS idx_player_data_xp ON player_data (xp, player_id)"
+                    );
+                    // A single counter row that triggers bump on every write, including writes made by hand
+                    stmt.execute(
+                        "CREATE TABLE IF NOT EXISTS player_data_changes (" +
+                        "id INTEGER PRIMARY KEY CHECK (id = 1), " +
+                        "write_sequence INTEGER NOT NULL" +
+                        ")"
+                    );
+                    stmt.execute("INSERT OR IGNORE INTO player_data_changes (id, write_sequence) VALUES (1, 0)");
+                    for (String event : new String[] {"INSERT", "UPDATE", "DELETE"}) {
+                        stmt.execute(
+                            "CREATE TRIGGER IF NOT EXISTS count_player_data_" + event + " " +
+                            "AFTER " + event + " ON player_data " +
+                            "BEGIN UPDATE player_data_changes SET write_sequence = write_sequence + 1 WHERE id = 1; END"
+                        );
+                    }
+                }
+                writeConnection.setAutoCommit(false);
+
+                running = true;
+                writerThread = new Thread(this::runWriter, "PreppyLevels-SQLite-Writer");
+                writerThread.setDaemon(true);
+                writerThread.start();
+                logger.info("SQLite database initialized successfully");
+            } catch (Exception e) {
+                logger.severe("Failed to initialize SQLite database: " + e.getMessage());
+                e.printStackTrace();
+                throw new RuntimeException(e);
+            }
+        });
+    }
+
+    @Override
+    public CompletableFuture<Void> shutdown() {
+        return CompletableFuture.runAsync(() -> {
+            // Let the writer drain what is already queued before closing its connection
+            running = false;
+            if (writerThread != null) {
+                try {
+                    writerThread.join(TimeUnit.SECONDS.toMillis(30));
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            // Fail writes that raced with shutdown instead of leaving their callers waiting
+            WriteRequest late;
+            while ((late = writes.poll()) != null) {
+                late.future.completeExceptionally(new IllegalStateException("SQLite storage is shut down"));
+            }
+            readExecutor.shutdown();
+            try {
+                readExecutor.awaitTermination(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            executor.detachQueue(writes);
+            executor.detachQueue(readExecutor.getQueue());
+            synchronized (readConnections) {
+                for (Connection conn : readConnections) {
+                    closeQuietly(conn);
+                }
+                readConnections.clear();
+            }
+            if (writeConnection != null) {
+                closeQuietly(writeConnection);
+            }
+        });
+    }
+
+    @Override
+    public CompletableFuture<PlayerData> loadPlayerData(UUID playerId) {
+        return supplyRead(() -> {
+            try (PreparedStatement stmt = readConnection().prepareStatement(
+                     "SELECT player_name, level, xp FROM player_data WHERE player_id = ?"
+                 )) {
+                stmt.setString(1, playerId.toString());
+                ResultSet rs = stmt.executeQuery();
+                
+                if (rs.next()) {
+                    return new PlayerData(
+                        playerId,
+                        rs.getString("player_name"),
+                        rs.getInt("level"),
+                        rs.getLong("xp")
+                    );
+                }
+                return null;
+            } catch (Exception e) {
+                logger.severe("Failed to load player data for " + playerId + ": " + e.getMessage());
+                e.printStackTrace();
+                return null;
+            }
+        });
+    }
+
+    @Override
+    public CompletableFuture<Void> savePlayerData(PlayerData playerData) {
+        // Failures are logged by the writer; single saves have never reported them
+        return enqueueWrite(List.of(playerData)).exceptionally(throwable -> null);
+    }
+
+    @Override
+    public CompletableFuture<Boolean> playerExists(UUID playerId) {
+        return supplyRead(() -> {
+            try (PreparedStatement stmt = readConnection().prepareStatement(
+                     "SELECT 1 FROM player_data WHERE player_id = ?"
+                 )) {
+                stmt.setString(1, playerId.toString());
+                return stmt.executeQuery().next();
+            } catch (Exception e) {
+                logger.severe("Failed to check if player exists: " + playerId + ": " + e.getMessage());
+                e.printStackTrace();
+                return false;
+            }
+        });
+    }
+
+    @Override
+    public CompletableFuture<Void> forEachPlayer(Consumer<PlayerData> action) {
+        return forEachPlayer(null, action);
+    }
+
+    @Override
+    public CompletableFuture<Void> forEachPlayer(UUID after, Consumer<PlayerData> action) {
+        return runRead(() -> {
+            // Walks the primary key in order, so a walk can continue after the last player it reached
+            String sql = after == null
+                ? "SELECT player_id, player_name, level, xp FROM player_data ORDER BY player_id"
+                : "SELECT player_id, player_name, level, xp FROM player_data WHERE player_id > ? ORDER BY player_id";
+            try (PreparedStatement stmt = readConnection().prepareStatement(sql)) {
+                stmt.setFetchSize(FETCH_SIZE);
+                if (after != null) {
+                    stmt.setString(1, after.toString());
+                }
+                ResultSet rs = stmt.executeQuery();
+                while (rs.next()) {
+                    action.accept(new PlayerData(
+                        UUID.fromString(rs.getString("player_id")),
+                        rs.getString("player_name"),
+                        rs.getInt("level"),
+                        rs.getLong("xp")
+                    ));
+                }
+            } catch (Exception e) {
+                logger.severe("Failed to read all player data: " + e.getMessage());
+                e.printStackTrace();
+                throw new RuntimeException(e);
+            }
+        });
+    }
+
+    @Override
+    public CompletableFuture<List<PlayerData>> getTopPlayers(PlayerData after, int limit) {
+        return supplyRead(() -> {
+            // Keyset pagination walks idx_player_data_xp backwards from the previous page's last row
+            String sql = after == null
+                ? "SELECT player_id, player_name, level, xp FROM player_data " +
+                  "ORDER BY xp DESC, player_id DESC LIMIT ?"
+                : "SELECT player_id, player_name, level, xp FROM player_data " +
+                  "WHERE xp < ? OR (xp = ? AND player_id < ?) " +
+                  "ORDER BY xp DESC, player_id DESC LIMIT ?";
+            try (PreparedStatement stmt = readConnection().prepareStatement(sql)) {
+                int index = 1;
+                if (after != null) {
+                    stmt.setLong(index++, after.getXp());
+                    stmt.setLong(index++, after.getXp());
+                    stmt.setString(index++, after.getPlayerId().toString());
+                }
+                stmt.setInt(index, limit);
+                ResultSet rs = stmt.executeQuery();
+                
+                List<PlayerData> players = new ArrayList<>();
+                while (rs.next()) {
+                    players.add(new PlayerData(
+                        UUID.fromString(rs.getString("player_id")),
+                        rs.getString("player_name"),
+                        rs.getInt("level"),
+                        rs.getLong("xp")
+                    ));
+                }
+                return players;
+            } catch (Exception e) {
+                logger.severe("Failed to load top players: " + e.getMessage());
+                e.printStackTrace();
+                throw new RuntimeException(e);
+            }
+        });
+    }
+
+    @Override
+    public CompletableFuture<Integer> getRank(UUID playerId) {
+        return supplyRead(() -> {
+            try (PreparedStatement xpStmt = readConnection().prepareStatement(
+                     "SELECT xp FROM player_data WHERE player_id = ?"
+                 );
+                 PreparedStatement countStmt = readConnection().prepareStatement(
+                     "SELECT COUNT(*) FROM player_data WHERE xp > ? OR (xp = ? AND player_id > ?)"
+                 )) {
+                xpStmt.setString(1, playerId.toString());
+                ResultSet xpRs = xpStmt.executeQuery();
+                if (!xpRs.next()) {
+                    return 0;
+                }
+                long xp = xpRs.getLong(1);
+                
+                // Counts an index range of idx_player_data_xp rather than scanning the table
+                countStmt.setLong(1, xp);
+                countStmt.setLong(2, xp);
+                countStmt.setString(3, playerId.toString());
+                ResultSet countRs = countStmt.executeQuery();
+                countRs.next();
+                return countRs.getInt(1) + 1;
+            } catch (Exception e) {
+                logger.severe("Failed to get rank for " + playerId + ": " + e.getMessage());
+                e.printStackTrace();
+                throw new RuntimeException(e);
+            }
+        });
+    }
+
+    @Override
+    public CompletableFuture<Map<UUID, PlayerData>> loadPlayerDataBatch(Collection<UUID> playerIds) {
+        return supplyRead(() -> {
+            Map<UUID, PlayerData> players = new HashMap<>();
+            List<UUID> ids = new ArrayList<>(playerIds);
+            try {
+                Connection conn = readConnection();
+                for (int from = 0; from < ids.size(); from += BATCH_CHUNK_SIZE) {
+                    List<UUID> chunk = ids.subList(from, Math.min(from + BATCH_CHUNK_SIZE, ids.size()));
+                    String placeholders = String.join(", ", Collections.nCopies(chunk.size(), "?"));
+                    try (PreparedStatement stmt = conn.prepareStatement(
+                        "SELECT player_id, player_name, level, xp FROM player_data WHERE player_id IN (" + placeholders + ")"
+                    )) {
+                        for (int i = 0; i < chunk.size(); i++) {
+                            stmt.setString(i + 1, chunk.get(i).toString());
+                        }
+                        ResultSet rs = stmt.executeQuery();
+                        while (rs.next()) {
+                            UUID playerId = UUID.fromString(rs.getString("player_id"));
+                            players.put(playerId, new PlayerData(
+                                playerId,
+                                rs.getString("player_name"),
+                                rs.getInt("level"),
+                                rs.getLong("xp")
+                            ));
+                        }
+                    }
+                }
+                return players;
+            } catch (Exception e) {
+                logger.severe("Failed to load data for " + ids.size() + " players: " + e.getMessage());
+                e.printStackTrace();
+                throw new RuntimeException(e);
+            }
+        });
+    }
+
+    @Override
+    public CompletableFuture<Void> savePlayerDataBatch(Collection<PlayerData> players) {
+        if (players.isEmpty()) {
+            return CompletableFuture.completedFuture(null);
+        }
+        return enqueueWrite(new ArrayList<>(players));
+    }
+
+    @Override
+    public CompletableFuture<Map<UUID, Long>> savePlayerDeltaBatch(Collection<XpDelta> deltas, LongToIntFunction levelForXp) {
+        if (deltas.isEmpty()) {
+            return CompletableFuture.completedFuture(new HashMap<>());
+        }
+        return enqueue(new WriteRequest(List.of(), new ArrayList<>(deltas), levelForXp));
+    }
+
+    private CompletableFuture<Void> enqueueWrite(List<PlayerData> players) {
+        return enqueue(new WriteRequest(players, List.of(), null)).thenApply(totals -> null);
+    }
+
+    private CompletableFuture<Map<UUID, Long>> enqueue(WriteRequest request) {
+        if (!running) {
+            request.future.completeExceptionally(new IllegalStateException("SQLite storage is not running"));
+            return request.future;
+        }
+        try {
+            executor.enqueue(writes, request);
+        } catch (RejectedExecutionException e) {
+            request.future.completeExceptionally(e);
+        }
+        return request.future;
+    }
+
+    private void runWriter() {
+        List<WriteRequest> batch = new ArrayList<>();
+        while (running || !writes.isEmpty()) {
+            try {
+                WriteRequest first = writes.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                // Everything queued while the last commit ran goes into the next transaction
+                batch.add(first);
+                writes.drainTo(batch);
+                commit(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void commit(List<WriteRequest> batch) {
+        int rows = 0;
+        try (PreparedStatement stmt = writeConnection.prepareStatement(UPSERT)) {
+            for (WriteRequest request : batch) {
+                for (PlayerData playerData : request.players) {
+                    stmt.setString(1, playerData.getPlayerId().toString());
+                    stmt.setString(2, playerData.getPlayerName());
+                    stmt.setInt(3, playerData.getLevel());
+                    stmt.setLong(4, playerData.getXp());
+                    stmt.addBatch();
+                    rows++;
+                }
+            }
+            stmt.executeBatch();
+            // Deltas share the transaction; the writer thread is the only one adding to totals
+            for (WriteRequest request : batch) {
+                if (!request.deltas.isEmpty()) {
+                    request.totals = SqlDeltaWriter.apply(writeConnection, SqlDeltaWriter.Dialect.SQLITE, request.deltas, request.levelForXp);
+                    rows += request.deltas.size();
+                }
+            }
+            writeConnection.commit();
+        } catch (Exception e) {
+            try {
+                writeConnection.rollback();
+            } catch (SQLException rollbackError) {
+                e.addSuppressed(rollbackError);
+            }
+            logger.severe("Failed to save data for " + rows + " players: " + e.getMessage());
+            e.printStackTrace();
+            for (WriteRequest request : batch) {
+                request.future.completeExceptionally(e);
+            }
+            return;
+        }
+        for (WriteRequest request : batch) {
+            request.future.complete(request.totals);
+        }
+    }
+
+    private static void closeQuietly(Connection conn) {
+        try {
+            conn.close();
+        } catch (SQLException e) {
+            // Nothing left to do with a connection that will not close
+        }
+    }
+
+    private static final class WriteRequest {
+        final List<PlayerData> players;
+        final List<XpDelta> deltas;
+        final LongToIntFunction levelForXp;
+        final CompletableFuture<Map<UUID, Long>> future = new CompletableFuture<>();
+        // Only touched by the writer thread
+        Map<UUID, Long> totals;
+
+        WriteRequest(List<PlayerData> players, List<XpDelta> deltas, LongToIntFunction levelForXp) {
+            this.players = players;
+            this.deltas = deltas;
+            this.levelForXp = levelForXp;
+        }
+    }
+
+    @Override
+    public CompletableFuture<Map<UUID, Long>> pollChanges() {
+        // The database file belongs to this server alone
+        return CompletableFuture.completedFuture(Map.of());
+    }
+
+    @Override
+    public CompletableFuture<Long> getHighWaterMark() {
+        return supplyRead(() -> {
+            try (PreparedStatement stmt = readConnection().prepareStatement(
+                     "SELECT write_sequence FROM player_data_changes WHERE id = 1"
+                 )) {
+                ResultSet rs = stmt.executeQuery();
+                rs.next();
+                return rs.getLong(1);
+            } catch (Exception e) {
+                logger.severe("Failed to read storage high-water mark: " + e.getMessage());
+                e.printStackTrace();
+                throw new RuntimeException(e);
+            }
+        });
+    }
+}
@@ -0,0 +1,132 @@
+package jsemolik.dev.preppyLevels.storage;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.LongToIntFunction;
+
+/**
+ * Applies XP deltas with {@code xp = xp + ?} so several servers sharing one database can grant
+ * XP to the same player without overwriting each other. Missing rows are created with an insert
+ * that skips existing ones, and everything runs in the caller's transaction, where the row locks
+ * taken by the writes keep the returned totals consistent. Nothing is committed here, so callers
+ * can share one transaction between several writes.
+ */
+final class SqlDeltaWriter {
+    private static final int CHUNK_SIZE = 500;
+    private static final int MAX_INSERT_ATTEMPTS = 3;
+
+    /**
+     * How each database creates a row only if it does not exist yet
+     */
+    enum Dialect {
+        H2("MERGE INTO player_data USING (VALUES (CAST(? AS VARCHAR), CAST(? AS VARCHAR))) AS missing (player_id, player_name) " +
+            "ON player_data.player_id = missing.player_id " +
+            "WHEN NOT MATCHED THEN INSERT (player_id, player_name, level, xp) VALUES (missing.player_id, missing.player_name, 1, 0)"),
+        MYSQL("INSERT INTO player_data (player_id, player_name, level, xp) VALUES (?, ?, 1, 0) " +
+            "ON DUPLICATE KEY UPDATE player_id = player_id"),
+        SQLITE("INSERT INTO player_data (player_id, player_name, level, xp) VALUES (?, ?, 1, 0) " +
+            "ON CONFLICT (player_id) DO NOTHING");
+
+        private final String insertMissing;
+
+        Dialect(String insertMissing) {
+            this.insertMissing = insertMissing;
+        }
+    }
+
+    private SqlDeltaWriter() {
+    }
+
+    /**
+     * @return The stored total XP of each player after their delta was applied
+     */
+    static Map<UUID, Long> apply(Connection conn, Dialect dialect, Collection<XpDelta> deltas,
+                                 LongToIntFunction levelForXp) throws SQLException {
+        // Servers lock rows in the same order, so overlapping batches wait for each other instead of deadlocking
+        List<XpDelta> ordered = new ArrayList<>(deltas);
+        ordered.sort(Comparator.comparing(delta -> delta.getPlayerId().toString()));
+
+        insertMissing(conn, dialect, ordered);
+
+        try (PreparedStatement stmt = conn.prepareStatement(
+            "UPDATE player_data SET xp = xp + ?, player_name = ? WHERE player_id = ?"
+        )) {
+            for (XpDelta delta : ordered) {
+                stmt.setLong(1, delta.getDelta());
+                stmt.setString(2, delta.getPlayerName());
+                stmt.setString(3, delta.getPlayerId().toString());
+                stmt.addBatch();
+            }
+            stmt.executeBatch();
+        }
+
+        Map<UUID, Long> totals = readTotals(conn, ordered);
+
+        // The level is derived from the combined total, which only the database knows
+        try (PreparedStatement stmt = conn.prepareStatement(
+            "UPDATE player_data SET level = ? WHERE player_id = ?"
+        )) {
+            for (XpDelta delta : ordered) {
+                Long total = totals.get(delta.getPlayerId());
+                if (total == null) {
+                    continue;
+                }
+                stmt.setInt(1, levelForXp.applyAsInt(total));
+                stmt.setString(2, delta.getPlayerId().toString());
+                stmt.addBatch();
+            }
+            stmt.executeBatch();
+        }
+        return totals;
+    }
+
+    private static void insertMissing(Connection conn, Dialect dialect, List<XpDelta> deltas) throws SQLException {
+        // First writes create the row so the update always has something to add to
+        for (int attempt = 1; ; attempt++) {
+            try (PreparedStatement stmt = conn.prepareStatement(dialect.insertMissing)) {
+                for (XpDelta delta : deltas) {
+                    stmt.setString(1, delta.getPlayerId().toString());
+                    stmt.setString(2, delta.getPlayerName());
+                    stmt.addBatch();
+                }
+                stmt.executeBatch();
+                return;
+            } catch (SQLException e) {
+                // Another transaction created one of the rows while the merge ran; the next attempt skips it
+                if (attempt >= MAX_INSERT_ATTEMPTS || e.getSQLState() == null || !e.getSQLState().startsWith("23")) {
+                    throw e;
+                }
+            }
+        }
+    }
+
+    private static Map<UUID, Long> readTotals(Connection conn, List<XpDelta> all) throws SQLException {
+        Map<UUID, Long> totals = new HashMap<>();
+        for (int from = 0; from < all.size(); from += CHUNK_SIZE) {
+            List<XpDelta> chunk = all.subList(from, Math.min(from + CHUNK_SIZE, all.size()));
+            String placeholders = String.join(", ", Collections.nCopies(chunk.size(), "?"));
+            try (PreparedStatement stmt = conn.prepareStatement(
+                "SELECT player_id, xp FROM player_data WHERE player_id IN (" + placeholders + ")"
+            )) {
+                for (int i = 0; i < chunk.size(); i++) {
+                    stmt.setString(i + 1, chunk.get(i).getPlayerId().toString());
+                }
+                ResultSet rs = stmt.executeQuery();
+                while (rs.next()) {
+                    totals.put(UUID.fromString(rs.getString("player_id")), rs.getLong("xp"));
+                }
+            }
+        }
+        return totals;
+    }
+}
@@ -0,0 +1,487 @@
+package jsemolik.dev.preppyLevels.storage;
+
+import jsemolik.dev.preppyLevels.config.PluginConfig;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Bounded thread pool shared by all storage providers. A fixed number of named threads work
+ * through a bounded queue, so a database stall builds up a backlog instead of spawning a thread
+ * per pending operation. What happens once the queue is full is decided by the configured
+ * {@link OverloadPolicy}. Queue depth and latency are tracked for monitoring.
+ */
+public class StorageExecutor {
+    public enum OverloadPolicy {
+        /**
+         * Saves for a player replace that player's queued save instead of queueing another one, and a
+         * batch save takes over the players of queued batches that have not started yet.
+         * Anything that cannot be merged runs on the caller, as with {@link #CALLER_RUNS}.
+         */
+        COALESCE,
+        /**
+         * Run the operation on the submitting thread, slowing producers down to the speed of storage
+         */
+        CALLER_RUNS,
+        /**
+         * Fail the operation and count it as dropped. Write-behind saves are retried on the next flush.
+         */
+        DROP
+    }
+
+    private final ThreadPoolExecutor pool;
+    private final OverloadPolicy policy;
+    private final BooleanSupplier callerMustNotBlock;
+    private final int threads;
+    private final int queueCapacity;
+    private final ConcurrentHashMap<Object, KeyedTask> queuedByKey = new ConcurrentHashMap<>();
+    // Queued batch writes by the keys they still cover; guarded by itself
+    private final Map<Object, BatchTask<?>> queuedBatchByKey = new HashMap<>();
+    // Queues of providers that run work on their own threads, counted in the queue gauges
+    private final List<BlockingQueue<?>> attachedQueues = new CopyOnWriteArrayList<>();
+    // Set on threads that wait for room in a full queue instead of applying the overload policy
+    private final ThreadLocal<Boolean> waitWhenFull = ThreadLocal.withInitial(() -> false);
+
+    private final LongAdder completed = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder callerRuns = new LongAdder();
+    private final LongAdder coalesced = new LongAdder();
+    private final LongAdder totalWaitNanos = new LongAdder();
+    private final LongAdder totalRunNanos = new LongAdder();
+    private final AtomicLong maxWaitNanos = new AtomicLong();
+
+    /**
+     * @param config Pool size, queue capacity and overload policy
+     * @param callerMustNotBlock Returns true on threads that must never run storage work themselves,
+     *                           such as the server thread; their overflow is dropped instead
+     */
+    public StorageExecutor(PluginConfig.StorageExecutorConfig config, BooleanSupplier callerMustNotBlock) {
+        this.threads = Math.max(1, config.getThreads());
+        this.queueCapacity = Math.max(1, config.getQueueCapacity());
+        this.policy = config.getOverloadPolicy();
+        this.callerMustNotBlock = callerMustNotBlock;
+        AtomicInteger threadCount = new AtomicInteger();
+        this.pool = new ThreadPoolExecutor(threads, threads, 60L, TimeUnit.SECONDS,
+            new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+                Thread thread = new Thread(runnable, "PreppyLevels-Storage-" + threadCount.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            }, new ThreadPoolExecutor.AbortPolicy());
+        this.pool.allowCoreThreadTimeOut(true);
+    }
+
+    /**
+     * Run a storage operation that produces a result
+     */
+    public <T> CompletableFuture<T> supply(Supplier<T> operation) {
+        Task<T> task = new Task<>(operation);
+        submit(task);
+        return task.future;
+    }
+
+    /**
+     * Run a storage operation without a result
+     */
+    public CompletableFuture<Void> run(Runnable operation) {
+        return supply(() -> {
+            operation.run();
+            return null;
+        });
+    }
+
+    /**
+     * Run a write that supersedes any earlier write with the same key, e.g. a save for one player.
+     * Under {@link OverloadPolicy#COALESCE}, a write whose predecessor has not started yet replaces
+     * it and shares its future, so a backlog holds at most one write per key.
+     */
+    public CompletableFuture<Void> run(Object key, Runnable operation) {
+        if (policy != OverloadPolicy.COALESCE) {
+            return run(operation);
+        }
+
+        KeyedTask[] created = new KeyedTask[1];
+        KeyedTask task = queuedByKey.compute(key, (k, queued) -> {
+            if (queued != null && !queued.started) {
+                queued.operation = operation;
+                coalesced.increment();
+                return queued;
+            }
+            return created[0] = new KeyedTask(key, operation);
+        });
+        if (task == created[0]) {
+            submit(task);
+        }
+        return task.future;
+    }
+
+    /**
+     * Run a write of several keyed items as one task, e.g. a batch save of players. Under
+     * {@link OverloadPolicy#COALESCE}, items whose key is still waiting in an earlier batch that has
+     * not started are taken out of it and written by this batch instead, so a backlog holds at most
+     * one queued write per key. The earlier batch's future then also waits for this one.
+     * @param write Writes the items left in the batch once it runs; not called if none are left
+     */
+    public <T> CompletableFuture<Void> runBatch(Collection<T> items, Function<T, Object> keyOf, Consumer<List<T>> write) {
+        if (policy != OverloadPolicy.COALESCE) {
+            List<T> all = new ArrayList<>(items);
+            return run(() -> write.accept(all));
+        }
+
+        BatchTask<T> task = new BatchTask<>(write);
+        synchronized (queuedBatchByKey) {
+            for (T item : items) {
+                Object key = keyOf.apply(item);
+                task.items.put(key, item);
+                BatchTask<?> queued = queuedBatchByKey.put(key, task);
+                if (queued != null && queued != task && queued.items.remove(key) != null) {
+                    queued.takers.add(task.result);
+                    coalesced.increment();
+                }
+            }
+        }
+        submit(task);
+        return task.result;
+    }
+
+    /**
+     * Like {@link #forEachParallel(Collection, Consumer)}, but each slice is a keyed batch that
+     * coalesces with queued batches as described for {@link #runBatch}
+     */
+    public <T> CompletableFuture<Void> forEachParallel(Collection<T> items, Function<T, Object> keyOf, Consumer<T> action) {
+        List<T> all = new ArrayList<>(items);
+        int sliceSize = Math.max(1, (all.size() + threads - 1) / threads);
+        List<CompletableFuture<Void>> slices = new ArrayList<>();
+        for (int from = 0; from < all.size(); from += sliceSize) {
+            List<T> slice = all.subList(from, Math.min(from + sliceSize, all.size()));
+            slices.add(runBatch(slice, keyOf, batch -> batch.forEach(action)));
+        }
+        return CompletableFuture.allOf(slices.toArray(new CompletableFuture<?>[0]));
+    }
+
+    /**
+     * Apply an action to every item, spreading the items over at most one task per thread
+     * rather than queueing a task per item
+     */
+    public <T> CompletableFuture<Void> forEachParallel(Collection<T> items, Consumer<T> action) {
+        List<T> all = new ArrayList<>(items);
+        int sliceSize = Math.max(1, (all.size() + threads - 1) / threads);
+        List<CompletableFuture<Void>> slices = new ArrayList<>();
+        for (int from = 0; from < all.size(); from += sliceSize) {
+            List<T> slice = all.subList(from, Math.min(from + sliceSize, all.size()));
+            slices.add(run(() -> slice.forEach(action)));
+        }
+        return CompletableFuture.allOf(slices.toArray(new CompletableFuture<?>[0]));
+    }
+
+    /**
+     * Run work on the calling thread, with every storage operation it submits waiting for room in
+     * the queue when it is full rather than being dropped or run on the caller. Used for writes
+     * that must not be lost, such as the final flush on shutdown.
+     */
+    public void runWaitingWhenFull(Runnable work) {
+        waitWhenFull.set(true);
+        try {
+            work.run();
+        } finally {
+            waitWhenFull.remove();
+        }
+    }
+
+    /**
+     * Create a queue for a provider that runs its work on its own threads, such as SQLite's single
+     * writer. It holds as many operations as the pool's queue, counts towards the queue gauges, and
+     * {@link #enqueue} applies the overload policy to it once it is full.
+     */
+    public <T> BlockingQueue<T> attachQueue() {
+        BlockingQueue<T> queue = new ArrayBlockingQueue<>(queueCapacity);
+        attachedQueues.add(queue);
+        return queue;
+    }
+
+    public void detachQueue(BlockingQueue<?> queue) {
+        attachedQueues.remove(queue);
+    }
+
+    /**
+     * Add an operation to a queue from {@link #attachQueue}. When the queue is full, it is dropped under
+     * {@link OverloadPolicy#DROP} or on a thread that must not block. Otherwise the caller waits for room,
+     * since only the provider's own threads can run it; that slows producers down just as running it
+     * on the caller would, and is counted as a caller run.
+     * @throws RejectedExecutionException If the operation was dropped
+     */
+    public <T> void enqueue(BlockingQueue<T> queue, T operation) {
+        if (queue.offer(operation)) {
+            return;
+        }
+        if (!waitWhenFull.get() && (policy == OverloadPolicy.DROP || callerMustNotBlock.getAsBoolean())) {
+            dropped.increment();
+            throw new RejectedExecutionException("Storage queue is full (" + queueCapacity + " operations)");
+        }
+        if (!waitWhenFull.get()) {
+            callerRuns.increment();
+        }
+        try {
+            queue.put(operation);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RejectedExecutionException("Interrupted while waiting for room in the storage queue");
+        }
+    }
+
+    /**
+     * Stop accepting work and wait for queued operations to finish
+     */
+    public void shutdown() {
+        pool.shutdown();
+        try {
+            pool.awaitTermination(30, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    public int getThreads() {
+        return threads;
+    }
+
+    /**
+     * Capacity of the pool's queue and every attached queue together
+     */
+    public int getQueueCapacity() {
+        return queueCapacity * (1 + attachedQueues.size());
+    }
+
+    /**
+     * Operations waiting in the pool's queue and every attached queue
+     */
+    public int getQueueDepth() {
+        int depth = pool.getQueue().size();
+        for (BlockingQueue<?> queue : attachedQueues) {
+            depth += queue.size();
+        }
+        return depth;
+    }
+
+    public int getActiveCount() {
+        return pool.getActiveCount();
+    }
+
+    public long getCompletedCount() {
+        return completed.sum();
+    }
+
+    public long getDroppedCount() {
+        return dropped.sum();
+    }
+
+    public long getCallerRunsCount() {
+        return callerRuns.sum();
+    }
+
+    public long getCoalescedCount() {
+        return coalesced.sum();
+    }
+
+    /**
+     * Average time operations spent queued before a thread picked them up
+     */
+    public double getAverageWaitMillis() {
+        long count = completed.sum();
+        return count == 0 ? 0.0 : totalWaitNanos.sum() / (double) count / 1_000_000.0;
+    }
+
+    public double getMaxWaitMillis() {
+        return maxWaitNanos.get() / 1_000_000.0;
+    }
+
+    /**
+     * Average time operations took to run once started
+     */
+    public double getAverageRunMillis() {
+        long count = completed.sum();
+        return count == 0 ? 0.0 : totalRunNanos.sum() / (double) count / 1_000_000.0;
+    }
+
+    private void submit(Task<?> task) {
+        try {
+            pool.execute(task);
+            return;
+        } catch (RejectedExecutionException e) {
+            if (pool.isShutdown()) {
+                task.reject(new RejectedExecutionException("Storage executor is shut down"));
+                return;
+            }
+        }
+
+        // Queue is full
+        if (waitWhenFull.get()) {
+            waitForRoom(task);
+        } else if (policy == OverloadPolicy.DROP || callerMustNotBlock.getAsBoolean()) {
+            dropped.increment();
+            task.reject(new RejectedExecutionException("Storage queue is full (" + queueCapacity + " operations)"));
+        } else {
+            callerRuns.increment();
+            task.run();
+        }
+    }
+
+    private void waitForRoom(Task<?> task) {
+        try {
+            // Workers are busy with the full queue, so one of them picks the task up once there is room
+            pool.getQueue().put(task);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            task.reject(new RejectedExecutionException("Interrupted while waiting for room in the storage queue"));
+            return;
+        }
+        if (pool.isShutdown() && pool.getQueue().remove(task)) {
+            task.reject(new RejectedExecutionException("Storage executor is shut down"));
+        }
+    }
+
+    private void record(long queuedAt, long startedAt) {
+        long waited = startedAt - queuedAt;
+        totalWaitNanos.add(waited);
+        totalRunNanos.add(System.nanoTime() - startedAt);
+        maxWaitNanos.accumulateAndGet(waited, Math::max);
+        completed.increment();
+    }
+
+    private class Task<T> implements Runnable {
+        final CompletableFuture<T> future = new CompletableFuture<>();
+        final long queuedAt = System.nanoTime();
+        private final Supplier<T> operation;
+
+        Task(Supplier<T> operation) {
+            this.operation = operation;
+        }
+
+        @Override
+        public void run() {
+            long startedAt = System.nanoTime();
+            try {
+                future.complete(execute());
+            } catch (Throwable throwable) {
+                future.completeExceptionally(throwable);
+            } finally {
+                record(queuedAt, startedAt);
+            }
+        }
+
+        T execute() {
+            return operation.get();
+        }
+
+        void reject(RejectedExecutionException e) {
+            future.completeExceptionally(e);
+        }
+    }
+
+    private final class KeyedTask extends Task<Void> {
+        private final Object key;
+        // Guarded by the queuedByKey entry for key until started
+        Runnable operation;
+        boolean started;
+
+        KeyedTask(Object key, Runnable operation) {
+            super(null);
+            this.key = key;
+            this.operation = operation;
+        }
+
+        @Override
+        Void execute() {
+            Runnable[] latest = new Runnable[1];
+            // From here on, later writes for the key queue a new task
+            queuedByKey.compute(key, (k, queued) -> {
+                started = true;
+                latest[0] = operation;
+                return queued == this ? null : queued;
+            });
+            latest[0].run();
+            return null;
+        }
+
+        @Override
+        void reject(RejectedExecutionException e) {
+            queuedByKey.remove(key, this);
+            super.reject(e);
+        }
+    }
+
+    private final class BatchTask<T> extends Task<Void> {
+        // Both guarded by queuedBatchByKey until started
+        final Map<Object, T> items = new LinkedHashMap<>();
+        final List<CompletableFuture<Void>> takers = new ArrayList<>();
+        // Completes once this batch and every batch that took items over from it are written
+        final CompletableFuture<Void> result = new CompletableFuture<>();
+        private final Consumer<List<T>> write;
+
+        BatchTask(Consumer<List<T>> write) {
+            super(null);
+            this.write = write;
+            future.whenComplete((ignored, throwable) -> {
+                List<CompletableFuture<Void>> waitFor;
+                synchronized (queuedBatchByKey) {
+                    waitFor = new ArrayList<>(takers);
+                }
+                CompletableFuture.allOf(waitFor.toArray(new CompletableFuture<?>[0])).whenComplete((none, takerFailure) -> {
+                    Throwable failure = throwable != null ? throwable : takerFailure;
+                    if (failure != null) {
+                        result.completeExceptionally(failure);
+                    } else {
+                        result.complete(null);
+                    }
+                });
+            });
+        }
+
+        @Override
+        Void execute() {
+            List<T> batch;
+            // From here on, later batches leave this one's items alone and no more takers are added
+            synchronized (queuedBatchByKey) {
+                release();
+                batch = new ArrayList<>(items.values());
+            }
+            if (!batch.isEmpty()) {
+                write.accept(batch);
+            }
+            return null;
+        }
+
+        @Override
+        void reject(RejectedExecutionException e) {
+            synchronized (queuedBatchByKey) {
+                release();
+            }
+            super.reject(e);
+        }
+
+        // Called with queuedBatchByKey held
+        private void release() {
+            for (Object key : items.keySet()) {
+                queuedBatchByKey.remove(key, this);
+            }
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package jsemolik.dev.preppyLevels.storage;
+
+import jsemolik.dev.preppyLevels.config.PluginConfig;
+
+import java.nio.file.Path;
+import java.util.logging.Logger;
+
+public class StorageFactory {
+    public static StorageProvider createStorageProvider(PluginConfig config, Logger logger, Path dataDirectory, StorageExecutor executor) {
+        return createStorageProvider(config.getStorageType(), config, logger, dataDirectory, executor);
+    }
+
+    /**
+     * Create a provider for the given storage type instead of the configured one, e.g. to migrate between backends
+     */
+    public static StorageProvider createStorageProvider(PluginConfig.StorageType storageType, PluginConfig config, Logger logger, Path dataDirectory, StorageExecutor executor) {
+        if (storageType == PluginConfig.StorageType.MYSQL && config.getMysqlConfig() == null) {
+            throw new IllegalArgumentException("MySQL storage needs a mysql section in config.yml");
+        }
+        switch (storageType) {
+            case MYSQL:
+                return new MySQLStorageProvider(config.getMysqlConfig(), logger, executor);
+            case H2:
+                return new H2StorageProvider(config.getH2Config(), logger, dataDirectory, executor);
+            case SQLITE:
+                return new SQLiteStorageProvider(config.getSqliteConfig(), logger, dataDirectory, executor);
+            case YAML:
+                return new YAMLStorageProvider(logger, dataDirectory, executor);
+            case JSON:
+                return new JSONStorageProvider(logger, dataDirectory, executor);
+            case LOG:
+                return new LogStorageProvider(config.getLogConfig(), logger, dataDirectory, executor);
+            default:
+                logger.warning("Unknown storage type, defaulting to H2");
+                return new H2StorageProvider(config.getH2Config(), logger, dataDirectory, executor);
+        }
+    }
+}
+
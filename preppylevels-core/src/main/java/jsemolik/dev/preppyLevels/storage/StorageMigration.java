@@ -0,0 +1,216 @@
+package jsemolik.dev.preppyLevels.storage;
+
+import jsemolik.dev.preppyLevels.config.PluginConfig;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongConsumer;
+import java.util.logging.Logger;
+
+/**
+ * Copies every player from one storage backend to another. Players are streamed from the source and
+ * written to the target in pages of a fixed size, and streaming waits while a page is written, so
+ * memory use stays the same however many players there are.
+ *
+ * Players are read in player ID order, and the last player of every written page is saved to a
+ * checkpoint file. An interrupted migration resumes after that player if the source has not changed
+ * since, which is checked with its high-water mark. Otherwise it starts over; copying a player again
+ * only replaces the earlier copy.
+ */
+public class StorageMigration {
+    public static final int DEFAULT_PAGE_SIZE = 500;
+    private static final long PROGRESS_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(5);
+    private static final int MAX_WRITE_ATTEMPTS = 3;
+
+    private final StorageProvider source;
+    private final StorageProvider target;
+    private final String migrationName;
+    private final Path checkpointFile;
+    private final int pageSize;
+    private final Logger logger;
+
+    /**
+     * @param migrationName Identifies the source and target in the checkpoint, e.g. "YAML to MYSQL"
+     * @param checkpointFile Where progress is kept between runs
+     */
+    public StorageMigration(StorageProvider source, StorageProvider target, String migrationName,
+                            Path checkpointFile, int pageSize, Logger logger) {
+        this.source = source;
+        this.target = target;
+        this.migrationName = migrationName;
+        this.checkpointFile = checkpointFile;
+        this.pageSize = Math.max(1, pageSize);
+        this.logger = logger;
+    }
+
+    /**
+     * Create an executor for providers opened only for a migration. One thread streams the source
+     * while pages are written on the others, so it always has at least two.
+     */
+    public static StorageExecutor createExecutor(PluginConfig.StorageExecutorConfig config) {
+        PluginConfig.StorageExecutorConfig migrationConfig = new PluginConfig.StorageExecutorConfig();
+        migrationConfig.setThreads(Math.max(2, config.getThreads()));
+        migrationConfig.setQueueCapacity(config.getQueueCapacity());
+        migrationConfig.setOverloadPolicy(StorageExecutor.OverloadPolicy.CALLER_RUNS);
+        return new StorageExecutor(migrationConfig, () -> false);
+    }
+
+    /**
+     * Where progress of a migration between two storage types is kept, shared by the command and the offline runner
+     */
+    public static Path checkpointFile(Path dataDirectory, PluginConfig.StorageType from, PluginConfig.StorageType to) {
+        return dataDirectory.resolve("migration-" + from.name().toLowerCase(Locale.ROOT)
+            + "-to-" + to.name().toLowerCase(Locale.ROOT) + ".checkpoint");
+    }
+
+    /**
+     * Copy all players, blocking until done. Both providers must be initialized.
+     * @param progress Called with the number of players copied so far, every few seconds and once at the end
+     * @return The number of players copied, including those copied by an earlier, interrupted run
+     */
+    public long run(LongConsumer progress) throws IOException {
+        long sourceMark = source.getHighWaterMark().join();
+        Checkpoint resumeFrom = readCheckpoint(sourceMark);
+        if (resumeFrom != null) {
+            logger.info("Resuming migration " + migrationName + " after " + resumeFrom.copied + " players");
+        }
+
+        List<PlayerData> page = new ArrayList<>(pageSize);
+        long[] copied = {resumeFrom != null ? resumeFrom.copied : 0};
+        long[] lastReport = {System.nanoTime()};
+        RuntimeException[] failure = {null};
+        try {
+            // Players come in ID order, so the walk continues right after the last copied player
+            source.forEachPlayer(resumeFrom != null ? resumeFrom.lastPlayer : null, data -> {
+                page.add(data);
+                if (page.size() < pageSize) {
+                    return;
+                }
+                try {
+                    writePage(target, page);
+                    copied[0] += page.size();
+                    UUID lastPlayer = page.get(page.size() - 1).getPlayerId();
+                    page.clear();
+                    writeCheckpoint(sourceMark, lastPlayer, copied[0]);
+                } catch (RuntimeException e) {
+                    failure[0] = e;
+                    throw e;
+                }
+                if (System.nanoTime() - lastReport[0] >= PROGRESS_INTERVAL_NANOS) {
+                    lastReport[0] = System.nanoTime();
+                    progress.accept(copied[0]);
+                }
+            }).join();
+        } catch (CompletionException e) {
+            // Report why a page could not be copied rather than how the source passed the error on
+            if (failure[0] instanceof UncheckedIOException) {
+                throw ((UncheckedIOException) failure[0]).getCause();
+            }
+            throw failure[0] != null ? failure[0] : e;
+        }
+        if (!page.isEmpty()) {
+            writePage(target, page);
+            copied[0] += page.size();
+        }
+        Files.deleteIfExists(checkpointFile);
+        progress.accept(copied[0]);
+        return copied[0];
+    }
+
+    /**
+     * Save a page of players, replacing any the target already holds, also at a newer version
+     */
+    static void writePage(StorageProvider target, List<PlayerData> page) {
+        List<PlayerData> pending = page;
+        for (int attempt = 1; ; attempt++) {
+            try {
+                target.savePlayerDataBatch(pending).join();
+                return;
+            } catch (CompletionException e) {
+                if (!(e.getCause() instanceof VersionConflictException) || attempt >= MAX_WRITE_ATTEMPTS) {
+                    throw e;
+                }
+                // A versioned target already holds some of these players; replace them at their stored version
+                Set<UUID> conflicted = ((VersionConflictException) e.getCause()).getPlayerIds();
+                Map<UUID, PlayerData> stored = target.loadPlayerDataBatch(conflicted).join();
+                List<PlayerData> retry = new ArrayList<>(conflicted.size());
+                for (PlayerData data : pending) {
+                    if (conflicted.contains(data.getPlayerId())) {
+                        PlayerData existing = stored.get(data.getPlayerId());
+                        data.setVersion(existing != null ? existing.getVersion() : 0);
+                        retry.add(data);
+                    }
+                }
+                pending = retry;
+            }
+        }
+    }
+
+    /**
+     * @return Where to resume, or null to start from the first player
+     */
+    private Checkpoint readCheckpoint(long sourceMark) throws IOException {
+        if (!Files.exists(checkpointFile)) {
+            return null;
+        }
+        Properties checkpoint = new Properties();
+        try (InputStream in = Files.newInputStream(checkpointFile)) {
+            checkpoint.load(in);
+        }
+        try {
+            if (migrationName.equals(checkpoint.getProperty("migration"))
+                && Long.parseLong(checkpoint.getProperty("source-mark", "")) == sourceMark) {
+                return new Checkpoint(
+                    UUID.fromString(checkpoint.getProperty("last-player", "")),
+                    Long.parseLong(checkpoint.getProperty("copied", "0"))
+                );
+            }
+        } catch (IllegalArgumentException e) {
+            // Treated like a checkpoint for a different source, as are checkpoints written by older versions
+        }
+        logger.info("Source storage changed since the last migration attempt, starting over");
+        return null;
+    }
+
+    private void writeCheckpoint(long sourceMark, UUID lastPlayer, long copied) {
+        Properties checkpoint = new Properties();
+        checkpoint.setProperty("migration", migrationName);
+        checkpoint.setProperty("source-mark", Long.toString(sourceMark));
+        checkpoint.setProperty("last-player", lastPlayer.toString());
+        checkpoint.setProperty("copied", Long.toString(copied));
+        Path temp = checkpointFile.resolveSibling(checkpointFile.getFileName() + ".tmp");
+        try {
+            try (OutputStream out = Files.newOutputStream(temp)) {
+                checkpoint.store(out, "PreppyLevels migration progress");
+            }
+            Files.move(temp, checkpointFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static final class Checkpoint {
+        final UUID lastPlayer;
+        // Only for reporting progress
+        final long copied;
+
+        Checkpoint(UUID lastPlayer, long copied) {
+            this.lastPlayer = lastPlayer;
+            this.copied = copied;
+        }
+    }
+}
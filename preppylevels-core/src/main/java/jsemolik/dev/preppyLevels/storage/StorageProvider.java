@@ -0,0 +1,113 @@
+package jsemolik.dev.preppyLevels.storage;
+
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+import java.util.function.LongToIntFunction;
+
+public interface StorageProvider {
+    /**
+     * Initialize the storage provider
+     */
+    CompletableFuture<Void> initialize();
+
+    /**
+     * Shutdown the storage provider
+     */
+    CompletableFuture<Void> shutdown();
+
+    /**
+     * Load player data
+     */
+    CompletableFuture<PlayerData> loadPlayerData(UUID playerId);
+
+    /**
+     * Save player data
+     */
+    CompletableFuture<Void> savePlayerData(PlayerData playerData);
+
+    /**
+     * Load several players at once
+     * @return The loaded players by ID; players without stored data are left out
+     */
+    CompletableFuture<Map<UUID, PlayerData>> loadPlayerDataBatch(Collection<UUID> playerIds);
+
+    /**
+     * Save several players at once. Completes exceptionally if the batch could not be written.
+     */
+    CompletableFuture<Void> savePlayerDataBatch(Collection<PlayerData> players);
+
+    /**
+     * Add XP deltas to the stored totals instead of overwriting them, so several servers can
+     * share one database. Players without stored data are created first. Each player's level is
+     * recalculated from their new total. Only supported by SQL backends.
+     * @param levelForXp Maps a total XP amount to its level
+     * @return Each player's stored total XP after their delta was applied
+     */
+    CompletableFuture<Map<UUID, Long>> savePlayerDeltaBatch(Collection<XpDelta> deltas, LongToIntFunction levelForXp);
+
+    /**
+     * Get the players that other servers sharing this storage have changed since the last poll
+     * @return The newest stored version of each changed player, empty for storage that is not shared
+     */
+    CompletableFuture<Map<UUID, Long>> pollChanges();
+
+    /**
+     * Get a marker of the stored data that changes whenever players are added or saved, including
+     * by other servers. Saved with the warm-start snapshot, which is only trusted if the marker is unchanged.
+     */
+    CompletableFuture<Long> getHighWaterMark();
+
+    /**
+     * Check if player data exists
+     */
+    CompletableFuture<Boolean> playerExists(UUID playerId);
+
+    /**
+     * Order of player IDs in {@link #forEachPlayer(UUID, Consumer)}. Matches the order of
+     * {@link UUID#toString()}, which is how SQL backends sort their player_id column.
+     */
+    Comparator<UUID> PLAYER_ID_ORDER = Comparator
+        .comparing(UUID::getMostSignificantBits, Long::compareUnsigned)
+        .thenComparing(UUID::getLeastSignificantBits, Long::compareUnsigned);
+
+    /**
+     * Pass every stored player to the given action, one at a time, without loading them all into memory.
+     * Players come in no particular order.
+     */
+    CompletableFuture<Void> forEachPlayer(Consumer<PlayerData> action);
+
+    /**
+     * Pass the stored players whose ID comes after the given one to the given action, one at a time, in
+     * {@link #PLAYER_ID_ORDER}, so a walk can be resumed from the last player it reached
+     * @param after The last player already passed, or null to start with the first
+     */
+    CompletableFuture<Void> forEachPlayer(UUID after, Consumer<PlayerData> action);
+
+    /**
+     * Pass every stored player to the given action on the calling thread, like {@link #forEachPlayer(Consumer)},
+     * for long reads such as exports that should not hold one of the provider's storage threads. Providers
+     * that read through their storage threads wait for {@link #forEachPlayer(Consumer)} instead.
+     */
+    default void forEachPlayerOnCaller(Consumer<PlayerData> action) {
+        forEachPlayer(action).join();
+    }
+
+    /**
+     * Get the players with the most XP, ordered by XP descending and then player ID descending.
+     * Pages are keyset-paginated: pass the last player of the previous page to get the next one.
+     * @param after The last player of the previous page, or null for the first page
+     * @param limit The maximum number of players to return
+     */
+    CompletableFuture<List<PlayerData>> getTopPlayers(PlayerData after, int limit);
+
+    /**
+     * Get a player's rank in the order used by {@link #getTopPlayers(PlayerData, int)}
+     * @return The rank, starting at 1, or 0 if the player has no stored data
+     */
+    CompletableFuture<Integer> getRank(UUID playerId);
+}
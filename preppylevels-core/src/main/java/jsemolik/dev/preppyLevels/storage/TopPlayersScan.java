@@ -0,0 +1,66 @@
+package jsemolik.dev.preppyLevels.storage;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Top-N and rank queries for storage backends without indexes. Players are streamed one at a
+ * time and only the best {@code limit} are kept in a bounded heap, so memory stays constant
+ * however many players are stored.
+ */
+final class TopPlayersScan {
+    // Same order as the SQL backends: XP descending, then player ID descending
+    static final Comparator<PlayerData> ORDER = Comparator
+        .comparingLong(PlayerData::getXp).reversed()
+        .thenComparing(data -> data.getPlayerId().toString(), Comparator.reverseOrder());
+
+    private TopPlayersScan() {
+    }
+
+    static CompletableFuture<List<PlayerData>> top(StorageProvider provider, PlayerData after, int limit) {
+        if (limit <= 0) {
+            return CompletableFuture.completedFuture(new ArrayList<>());
+        }
+        // The heap's head is the worst of the players kept so far
+        PriorityQueue<PlayerData> best = new PriorityQueue<>(limit + 1, ORDER.reversed());
+        return provider.forEachPlayer(data -> {
+            if (after != null && ORDER.compare(data, after) <= 0) {
+                return;
+            }
+            synchronized (best) {
+                if (best.size() < limit) {
+                    best.add(data);
+                } else if (ORDER.compare(data, best.peek()) < 0) {
+                    best.poll();
+                    best.add(data);
+                }
+            }
+        }).thenApply(ignored -> {
+            List<PlayerData> players;
+            synchronized (best) {
+                players = new ArrayList<>(best);
+            }
+            players.sort(ORDER);
+            return players;
+        });
+    }
+
+    static CompletableFuture<Integer> rank(StorageProvider provider, UUID playerId) {
+        return provider.loadPlayerData(playerId).thenCompose(target -> {
+            if (target == null) {
+                return CompletableFuture.completedFuture(0);
+            }
+            AtomicInteger ahead = new AtomicInteger();
+            return provider.forEachPlayer(data -> {
+                if (ORDER.compare(data, target) < 0) {
+                    ahead.incrementAndGet();
+                }
+            }).thenApply(ignored -> ahead.get() + 1);
+        });
+    }
+}
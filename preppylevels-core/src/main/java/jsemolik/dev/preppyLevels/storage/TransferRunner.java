@@ -0,0 +1,83 @@
+package jsemolik.dev.preppyLevels.storage;
+
+import jsemolik.dev.preppyLevels.config.ConfigLoader;
+import jsemolik.dev.preppyLevels.config.PluginConfig;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Locale;
+import java.util.logging.Logger;
+
+/**
+ * Exports player data to NDJSON or CSV, or imports it back, using the connection settings from the
+ * plugin's config.yml. The format follows the file extension, and a .gz extension adds gzip:
+ *
+ * <pre>java -cp PreppyLevels.jar jsemolik.dev.preppyLevels.storage.TransferRunner plugins/PreppyLevels export players.ndjson.gz</pre>
+ *
+ * Exporting SQL storage is safe while the server runs. Import only while it is stopped, or into
+ * storage it does not use, since the server's cache would overwrite imported players.
+ */
+public final class TransferRunner {
+    private TransferRunner() {
+    }
+
+    public static void main(String[] args) {
+        if (args.length < 3 || !(args[1].equalsIgnoreCase("export") || args[1].equalsIgnoreCase("import"))) {
+            System.err.println("Usage: TransferRunner <plugin folder> <export|import> <file> [storage type]");
+            System.err.println("Formats: .ndjson, .jsonl or .csv, optionally followed by .gz");
+            System.exit(2);
+        }
+        Logger logger = Logger.getLogger("PreppyLevels");
+        Path dataFolder = Paths.get(args[0]);
+        if (!Files.exists(dataFolder.resolve("config.yml"))) {
+            System.err.println("No config.yml found in " + dataFolder.toAbsolutePath());
+            System.exit(2);
+        }
+        boolean export = args[1].equalsIgnoreCase("export");
+        Path file = Paths.get(args[2]);
+        PluginConfig config = new ConfigLoader(logger, dataFolder.resolve("config.yml")).loadConfig();
+        PluginConfig.StorageType type;
+        try {
+            PlayerDataTransfer.formatOf(file);
+            type = args.length > 3 ? PluginConfig.StorageType.valueOf(args[3].toUpperCase(Locale.ROOT)) : config.getStorageType();
+        } catch (IllegalArgumentException e) {
+            System.err.println("Invalid argument: " + e.getMessage());
+            System.exit(2);
+            return;
+        }
+        if (!export && !Files.exists(file)) {
+            System.err.println("No file found at " + file.toAbsolutePath());
+            System.exit(2);
+        }
+
+        StorageExecutor executor = StorageMigration.createExecutor(config.getStorageExecutorConfig());
+        StorageProvider provider = null;
+        int exitCode = 0;
+        try {
+            provider = StorageFactory.createStorageProvider(type, config, logger, dataFolder, executor);
+            provider.initialize().join();
+
+            long start = System.nanoTime();
+            long count;
+            if (export) {
+                count = PlayerDataTransfer.export(provider, file, written -> logger.info("Exported " + written + " players"));
+            } else {
+                count = PlayerDataTransfer.importFrom(provider, file, StorageMigration.DEFAULT_PAGE_SIZE,
+                    imported -> logger.info("Imported " + imported + " players"));
+            }
+            logger.info((export ? "Exported " : "Imported ") + count + " players " + (export ? "from " : "into ") + type
+                + " in " + (System.nanoTime() - start) / 1_000_000_000L + "s");
+        } catch (Exception e) {
+            logger.severe((export ? "Export" : "Import") + " failed: " + e.getMessage());
+            e.printStackTrace();
+            exitCode = 1;
+        } finally {
+            if (provider != null) {
+                provider.shutdown().join();
+            }
+            executor.shutdown();
+        }
+        System.exit(exitCode);
+    }
+}
@@ -0,0 +1,26 @@
+package jsemolik.dev.preppyLevels.storage;
+
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Thrown when a save is rejected because another server wrote the same players since their data
+ * was read. All other players in the batch were saved.
+ */
+public class VersionConflictException extends RuntimeException {
+    private static final long serialVersionUID = 1L;
+
+    private final Set<UUID> playerIds;
+
+    public VersionConflictException(Set<UUID> playerIds) {
+        super("Stored data for " + playerIds.size() + " players was changed by another server");
+        this.playerIds = playerIds;
+    }
+
+    /**
+     * Get the players whose save was rejected
+     */
+    public Set<UUID> getPlayerIds() {
+        return playerIds;
+    }
+}
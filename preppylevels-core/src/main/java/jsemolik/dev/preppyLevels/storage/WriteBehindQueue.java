@@ -0,0 +1,356 @@
+package jsemolik.dev.preppyLevels.storage;
+
+import jsemolik.dev.preppyLevels.config.PluginConfig;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+import java.util.function.LongToIntFunction;
+import java.util.logging.Logger;
+
+/**
+ * Write-behind layer between the level manager and the storage provider.
+ * Changed players are marked dirty and written in batches on a fixed interval, or early once
+ * enough players are dirty. Repeated changes to the same player between flushes are coalesced
+ * into a single write. All flushes run on one thread so writes for a player never reorder.
+ */
+public class WriteBehindQueue {
+    public enum WriteMode {
+        /**
+         * Write each player's full state, replacing the stored copy
+         */
+        ABSOLUTE,
+        /**
+         * Add the XP gained since the last write to the stored total, so several servers can share
+         * one database without overwriting each other's grants. Needs a SQL backend.
+         */
+        DELTA
+    }
+
+    // Attempts at writing what is still pending on shutdown before giving up on it
+    private static final int FINAL_FLUSH_ATTEMPTS = 5;
+    private static final long FINAL_FLUSH_RETRY_MILLIS = 1000L;
+
+    private final StorageProvider storageProvider;
+    private final StorageExecutor storageExecutor;
+    private final Logger logger;
+    private final long flushIntervalMillis;
+    private final int maxDirty;
+    private final WriteMode mode;
+    private final LongToIntFunction levelForXp;
+    private volatile Consumer<PlayerData> remoteChangeListener = data -> { };
+    private final ConcurrentHashMap<UUID, PlayerData> dirty = new ConcurrentHashMap<>();
+    // Players whose write has started but not finished; they are no longer dirty but storage may still hold older data
+    private final ConcurrentHashMap<UUID, PlayerData> inFlight = new ConcurrentHashMap<>();
+    private final AtomicBoolean earlyFlushQueued = new AtomicBoolean();
+    private final ScheduledExecutorService scheduler;
+
+    /**
+     * @param levelForXp Maps a total XP amount to its level, used to level players up from totals returned in delta mode
+     */
+    public WriteBehindQueue(StorageProvider storageProvider, StorageExecutor storageExecutor,
+                            PluginConfig.WriteBehindConfig config, Logger logger, LongToIntFunction levelForXp) {
+        this.storageProvider = storageProvider;
+        this.storageExecutor = storageExecutor;
+        this.logger = logger;
+        this.mode = config.getMode();
+        this.levelForXp = levelForXp;
+        // Interval is configured in ticks like the other timers, one tick being 50ms
+        this.flushIntervalMillis = Math.max(1, config.getFlushInterval()) * 50L;
+        this.maxDirty = Math.max(1, config.getMaxDirty());
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "PreppyLevels-WriteBehind");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public void start() {
+        scheduler.scheduleWithFixedDelay(this::flushDirty, flushIntervalMillis, flushIntervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Mark a player's data as changed so it is written on the next flush
+     */
+    public void markDirty(PlayerData playerData) {
+        dirty.put(playerData.getPlayerId(), playerData);
+        if (dirty.size() >= maxDirty && earlyFlushQueued.compareAndSet(false, true)) {
+            runOnFlushThread(() -> {
+                earlyFlushQueued.set(false);
+                flushDirty();
+            });
+        }
+    }
+
+    /**
+     * Write a single player's pending changes now, e.g. when they leave the server
+     */
+    public CompletableFuture<Void> flush(UUID playerId) {
+        return runOnFlushThread(() -> flushPlayers(List.of(playerId)));
+    }
+
+    /**
+     * Write the pending changes of several players now, as one batch
+     */
+    public CompletableFuture<Void> flush(Collection<UUID> playerIds) {
+        List<UUID> ids = new ArrayList<>(playerIds);
+        return runOnFlushThread(() -> flushPlayers(ids));
+    }
+
+    /**
+     * Write all pending changes now
+     */
+    public CompletableFuture<Void> flushAll() {
+        return runOnFlushThread(this::flushDirty);
+    }
+
+    /**
+     * Get a player's data if it has changes that are not yet written, or are being written right
+     * now, so a reload can pick up the in-memory state instead of the older stored copy
+     */
+    public PlayerData getPending(UUID playerId) {
+        PlayerData data = dirty.get(playerId);
+        return data != null ? data : inFlight.get(playerId);
+    }
+
+    /**
+     * Set the callback run on the flush thread when a write or refresh reveals XP granted by another server
+     */
+    public void setRemoteChangeListener(Consumer<PlayerData> remoteChangeListener) {
+        this.remoteChangeListener = remoteChangeListener;
+    }
+
+    public WriteMode getMode() {
+        return mode;
+    }
+
+    public int getDirtyCount() {
+        return dirty.size();
+    }
+
+    /**
+     * Stop the flush timer and synchronously write everything that is still pending. Writes wait
+     * for room in the storage queue instead of being dropped, and failed batches are retried.
+     */
+    public void shutdown() {
+        scheduler.shutdown();
+        try {
+            if (!scheduler.awaitTermination(30, TimeUnit.SECONDS)) {
+                logger.warning("Timed out waiting for the write-behind flush to finish");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        for (int attempt = 1; !dirty.isEmpty(); attempt++) {
+            storageExecutor.runWaitingWhenFull(this::flushDirty);
+            if (dirty.isEmpty() || attempt == FINAL_FLUSH_ATTEMPTS) {
+                break;
+            }
+            try {
+                Thread.sleep(FINAL_FLUSH_RETRY_MILLIS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        if (!dirty.isEmpty()) {
+            logger.severe("Could not save data for " + dirty.size() + " players on shutdown; their latest XP is lost");
+        }
+    }
+
+    private CompletableFuture<Void> runOnFlushThread(Runnable task) {
+        try {
+            return CompletableFuture.runAsync(task, scheduler);
+        } catch (RejectedExecutionException e) {
+            // Shutting down: whatever is still dirty is written by the final flush in shutdown()
+            return CompletableFuture.completedFuture(null);
+        }
+    }
+
+    private void flushDirty() {
+        if (!dirty.isEmpty()) {
+            flushPlayers(new ArrayList<>(dirty.keySet()));
+        }
+    }
+
+    private void flushPlayers(Collection<UUID> playerIds) {
+        List<PlayerData> batch = new ArrayList<>();
+        for (UUID playerId : playerIds) {
+            PlayerData data = dirty.get(playerId);
+            if (data == null) {
+                continue;
+            }
+            // Stays reachable through getPending until the write completes, even if the cache evicts it meanwhile
+            inFlight.put(playerId, data);
+            // Remove before taking the snapshot so a change made in between marks the player dirty again
+            dirty.remove(playerId, data);
+            batch.add(data);
+        }
+        if (batch.isEmpty()) {
+            return;
+        }
+        try {
+            if (mode == WriteMode.DELTA) {
+                flushDeltas(batch);
+            } else {
+                flushAbsolute(batch);
+            }
+        } finally {
+            for (PlayerData data : batch) {
+                inFlight.remove(data.getPlayerId(), data);
+            }
+        }
+    }
+
+    private void flushAbsolute(List<PlayerData> batch) {
+        List<PlayerData> snapshots = new ArrayList<>(batch.size());
+        for (PlayerData data : batch) {
+            snapshots.add(data.snapshot());
+        }
+
+        Set<UUID> conflicts = Set.of();
+        try {
+            // Wait for this batch so the next flush can never overtake it
+            storageProvider.savePlayerDataBatch(snapshots).join();
+        } catch (CompletionException e) {
+            if (!(e.getCause() instanceof VersionConflictException conflict)) {
+                requeue(batch, e);
+                return;
+            }
+            conflicts = conflict.getPlayerIds();
+        } catch (Exception e) {
+            requeue(batch, e);
+            return;
+        }
+
+        List<PlayerData> conflicted = new ArrayList<>();
+        for (int i = 0; i < batch.size(); i++) {
+            PlayerData data = batch.get(i);
+            if (conflicts.contains(data.getPlayerId())) {
+                conflicted.add(data);
+                continue;
+            }
+            PlayerData saved = snapshots.get(i);
+            data.setSyncedXp(saved.getXp());
+            data.setVersion(saved.getVersion() + 1);
+        }
+        if (!conflicted.isEmpty()) {
+            resolveConflicts(conflicted);
+        }
+    }
+
+    private void requeue(List<PlayerData> batch, Exception e) {
+        logger.warning("Failed to save data for " + batch.size() + " players, retrying on next flush: " + e.getMessage());
+        for (PlayerData data : batch) {
+            dirty.putIfAbsent(data.getPlayerId(), data);
+        }
+    }
+
+    /**
+     * Rebase players whose save lost a race with another server onto the stored row, keeping the
+     * XP gained here since the last sync, and write them again on the next flush
+     */
+    private void resolveConflicts(List<PlayerData> conflicted) {
+        try {
+            mergeStored(conflicted);
+        } catch (Exception e) {
+            logger.warning("Failed to reload " + conflicted.size() + " players changed by another server: " + e.getMessage());
+        }
+        for (PlayerData data : conflicted) {
+            dirty.putIfAbsent(data.getPlayerId(), data);
+        }
+    }
+
+    /**
+     * Reload players that another server changed and fold the stored changes into the cached copies,
+     * keeping XP gained here that is not written yet. Runs on the flush thread so it never
+     * interleaves with a write of the same players.
+     */
+    public CompletableFuture<Void> refresh(Collection<PlayerData> players) {
+        List<PlayerData> stale = new ArrayList<>(players);
+        return runOnFlushThread(() -> mergeStored(stale));
+    }
+
+    private void mergeStored(List<PlayerData> players) {
+        List<UUID> ids = new ArrayList<>();
+        for (PlayerData data : players) {
+            ids.add(data.getPlayerId());
+        }
+        Map<UUID, PlayerData> stored = storageProvider.loadPlayerDataBatch(ids).join();
+        for (PlayerData data : players) {
+            PlayerData current = stored.get(data.getPlayerId());
+            if (current == null || current.getVersion() <= data.getVersion()) {
+                continue;
+            }
+            long remote = current.getXp() - data.getSyncedXp();
+            data.setSyncedXp(current.getXp());
+            data.setVersion(current.getVersion());
+            applyRemote(data, remote);
+        }
+    }
+
+    private void flushDeltas(List<PlayerData> batch) {
+        List<XpDelta> deltas = new ArrayList<>();
+        long[] sentXp = new long[batch.size()];
+        for (int i = 0; i < batch.size(); i++) {
+            PlayerData data = batch.get(i);
+            sentXp[i] = data.getXp();
+            deltas.add(new XpDelta(data.getPlayerId(), data.getPlayerName(), sentXp[i] - data.getSyncedXp()));
+        }
+
+        Map<UUID, Long> totals;
+        try {
+            totals = storageProvider.savePlayerDeltaBatch(deltas, levelForXp).join();
+        } catch (Exception e) {
+            logger.warning("Failed to save XP for " + batch.size() + " players, retrying on next flush: " + e.getMessage());
+            for (PlayerData data : batch) {
+                dirty.putIfAbsent(data.getPlayerId(), data);
+            }
+            return;
+        }
+
+        for (int i = 0; i < batch.size(); i++) {
+            PlayerData data = batch.get(i);
+            Long total = totals.get(data.getPlayerId());
+            if (total == null) {
+                continue;
+            }
+            data.setSyncedXp(total);
+            applyRemote(data, total - sentXp[i]);
+        }
+    }
+
+    /**
+     * Fold in XP that other servers added (or removed) since our last sync, keeping grants made here meanwhile
+     */
+    private void applyRemote(PlayerData data, long remote) {
+        if (remote == 0) {
+            return;
+        }
+        while (true) {
+            PlayerData.Progress current = data.getProgress();
+            long xp = current.getXp() + remote;
+            int level = levelForXp.applyAsInt(xp);
+            if (remote > 0) {
+                level = Math.max(current.getLevel(), level);
+            }
+            if (data.compareAndSetProgress(current, new PlayerData.Progress(xp, level))) {
+                break;
+            }
+        }
+        remoteChangeListener.accept(data);
+    }
+}
@@ -0,0 +1,31 @@
+package jsemolik.dev.preppyLevels.storage;
+
+import java.util.UUID;
+
+/**
+ * XP gained (or lost) by a player since their data was last written, applied on top of the
+ * stored total rather than replacing it
+ */
+public final class XpDelta {
+    private final UUID playerId;
+    private final String playerName;
+    private final long delta;
+
+    public XpDelta(UUID playerId, String playerName, long delta) {
+        this.playerId = playerId;
+        this.playerName = playerName;
+        this.delta = delta;
+    }
+
+    public UUID getPlayerId() {
+        return playerId;
+    }
+
+    public String getPlayerName() {
+        return playerName;
+    }
+
+    public long getDelta() {
+        return delta;
+    }
+}
@@ -0,0 +1,271 @@
+package jsemolik.dev.preppyLevels.storage;
+
+import org.yaml.snakeyaml.Yaml;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Writer;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import java.util.function.LongToIntFunction;
+import java.util.logging.Logger;
+
+public class YAMLStorageProvider implements StorageProvider {
+    private static final int WALK_CHUNK_SIZE = 1000;
+
+    private final Logger logger;
+    private final Path dataDirectory;
+    // Yaml instances are not thread-safe and files are read and written in parallel
+    private final ThreadLocal<Yaml> yaml = ThreadLocal.withInitial(Yaml::new);
+    private final StorageExecutor executor;
+
+    public YAMLStorageProvider(Logger logger, Path dataDirectory, StorageExecutor executor) {
+        this.logger = logger;
+        this.dataDirectory = dataDirectory;
+        this.executor = executor;
+    }
+
+    private Path getPlayerFile(UUID playerId) {
+        return dataDirectory.resolve("players").resolve(playerId.toString() + ".yml");
+    }
+
+    @Override
+    public CompletableFuture<Void> initialize() {
+        return executor.run(() -> {
+            try {
+                Files.createDirectories(dataDirectory.resolve("players"));
+                logger.info("YAML storage initialized successfully");
+            } catch (IOException e) {
+                logger.severe("Failed to initialize YAML storage: " + e.getMessage());
+                e.printStackTrace();
+                throw new RuntimeException(e);
+            }
+        });
+    }
+
+    @Override
+    public CompletableFuture<Void> shutdown() {
+        // The shared storage executor is shut down by the plugin once every provider is done
+        return CompletableFuture.completedFuture(null);
+    }
+
+    @Override
+    public CompletableFuture<PlayerData> loadPlayerData(UUID playerId) {
+        return executor.supply(() -> readPlayerFile(playerId));
+    }
+
+    private PlayerData readPlayerFile(UUID playerId) {
+        Path file = getPlayerFile(playerId);
+        if (!Files.exists(file)) {
+            return null;
+        }
+        
+        try {
+            Map<String, Object> data;
+            try (InputStream in = Files.newInputStream(file)) {
+                data = yaml.get().load(in);
+            }
+            return new PlayerData(
+                playerId,
+                (String) data.get("player_name"),
+                ((Number) data.getOrDefault("level", 1)).intValue(),
+                ((Number) data.getOrDefault("xp", 0)).longValue()
+            );
+        } catch (Exception e) {
+            logger.severe("Failed to load player data for " + playerId + ": " + e.getMessage());
+            e.printStackTrace();
+            return null;
+        }
+    }
+
+    @Override
+    public CompletableFuture<Void> savePlayerData(PlayerData playerData) {
+        return executor.run(playerData.getPlayerId(), () -> {
+            try {
+                writePlayerFile(playerData);
+            } catch (Exception e) {
+                // Already logged
+            }
+        });
+    }
+
+    private void writePlayerFile(PlayerData playerData) {
+        Path file = getPlayerFile(playerData.getPlayerId());
+        try {
+            Files.createDirectories(file.getParent());
+            
+            Map<String, Object> data = new HashMap<>();
+            data.put("player_id", playerData.getPlayerId().toString());
+            data.put("player_name", playerData.getPlayerName());
+            data.put("level", playerData.getLevel());
+            data.put("xp", playerData.getXp());
+            
+            // Close the writer so the file is flushed before the save completes
+            try (Writer writer = Files.newBufferedWriter(file)) {
+                yaml.get().dump(data, writer);
+            }
+        } catch (Exception e) {
+            logger.severe("Failed to save player data for " + playerData.getPlayerId() + ": " + e.getMessage());
+            e.printStackTrace();
+            throw new RuntimeException(e);
+        }
+    }
+
+    @Override
+    public CompletableFuture<Boolean> playerExists(UUID playerId) {
+        return executor.supply(() -> {
+            return Files.exists(getPlayerFile(playerId));
+        });
+    }
+
+    @Override
+    public CompletableFuture<Void> forEachPlayer(Consumer<PlayerData> action) {
+        return executor.run(() -> forEachPlayerOnCaller(action));
+    }
+
+    @Override
+    public void forEachPlayerOnCaller(Consumer<PlayerData> action) {
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(dataDirectory.resolve("players"), "*.yml")) {
+            for (Path file : files) {
+                String fileName = file.getFileName().toString();
+                UUID playerId;
+                try {
+                    playerId = UUID.fromString(fileName.substring(0, fileName.length() - 4));
+                } catch (IllegalArgumentException e) {
+                    continue;
+                }
+                PlayerData data = readPlayerFile(playerId);
+                if (data != null) {
+                    action.accept(data);
+                }
+            }
+        } catch (IOException e) {
+            logger.severe("Failed to read all player data: " + e.getMessage());
+            e.printStackTrace();
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Directory listings have no order, so each pass over the folder keeps only the next
+     * {@value #WALK_CHUNK_SIZE} IDs after the cursor. Memory stays bounded however many players there
+     * are, at the cost of one listing per chunk.
+     */
+    @Override
+    public CompletableFuture<Void> forEachPlayer(UUID after, Consumer<PlayerData> action) {
+        return executor.run(() -> {
+            UUID cursor = after;
+            while (true) {
+                TreeSet<UUID> chunk = new TreeSet<>(PLAYER_ID_ORDER);
+                try (DirectoryStream<Path> files = Files.newDirectoryStream(dataDirectory.resolve("players"), "*.yml")) {
+                    for (Path file : files) {
+                        String fileName = file.getFileName().toString();
+                        UUID playerId;
+                        try {
+                            playerId = UUID.fromString(fileName.substring(0, fileName.length() - 4));
+                        } catch (IllegalArgumentException e) {
+                            // Not a player file
+                            continue;
+                        }
+                        if (cursor == null || PLAYER_ID_ORDER.compare(playerId, cursor) > 0) {
+                            chunk.add(playerId);
+                            if (chunk.size() > WALK_CHUNK_SIZE) {
+                                chunk.pollLast();
+                            }
+                        }
+                    }
+                } catch (IOException e) {
+                    logger.severe("Failed to read all player data: " + e.getMessage());
+                    e.printStackTrace();
+                    throw new RuntimeException(e);
+                }
+                for (UUID playerId : chunk) {
+                    PlayerData data = readPlayerFile(playerId);
+                    if (data != null) {
+                        action.accept(data);
+                    }
+                }
+                if (chunk.size() < WALK_CHUNK_SIZE) {
+                    return;
+                }
+                cursor = chunk.last();
+            }
+        });
+    }
+
+    @Override
+    public CompletableFuture<List<PlayerData>> getTopPlayers(PlayerData after, int limit) {
+        return TopPlayersScan.top(this, after, limit);
+    }
+
+    @Override
+    public CompletableFuture<Integer> getRank(UUID playerId) {
+        return TopPlayersScan.rank(this, playerId);
+    }
+
+    @Override
+    public CompletableFuture<Map<UUID, PlayerData>> loadPlayerDataBatch(Collection<UUID> playerIds) {
+        // Files are read in parallel, one slice of the players per storage thread
+        Map<UUID, PlayerData> players = new ConcurrentHashMap<>();
+        return executor.forEachParallel(playerIds, playerId -> {
+            PlayerData data = readPlayerFile(playerId);
+            if (data != null) {
+                players.put(playerId, data);
+            }
+        }).thenApply(ignored -> new HashMap<>(players));
+    }
+
+    @Override
+    public CompletableFuture<Void> savePlayerDataBatch(Collection<PlayerData> players) {
+        // Files are written in parallel, one slice of the players per storage thread
+        return executor.forEachParallel(players, PlayerData::getPlayerId, this::writePlayerFile);
+    }
+
+    @Override
+    public CompletableFuture<Map<UUID, Long>> savePlayerDeltaBatch(Collection<XpDelta> deltas, LongToIntFunction levelForXp) {
+        return CompletableFuture.failedFuture(new UnsupportedOperationException("Delta writes need a SQL storage backend"));
+    }
+
+    @Override
+    public CompletableFuture<Map<UUID, Long>> pollChanges() {
+        // Player files belong to this server alone
+        return CompletableFuture.completedFuture(Map.of());
+    }
+
+    /**
+     * Files keep no write counter, so the mark combines the number of player files with the newest
+     * modification time. It costs a stat of every player file, which is why it is only read on startup,
+     * shutdown and before a migration. It is a checksum rather than a counter: deleting a file can
+     * lower it, and an edit that keeps a file's modification time is not noticed.
+     */
+    @Override
+    public CompletableFuture<Long> getHighWaterMark() {
+        return executor.supply(() -> {
+            // Every save rewrites a file, so the newest modification time moves with it
+            long count = 0;
+            long newest = 0;
+            try (DirectoryStream<Path> files = Files.newDirectoryStream(dataDirectory.resolve("players"), "*.yml")) {
+                for (Path file : files) {
+                    count++;
+                    newest = Math.max(newest, Files.getLastModifiedTime(file).toMillis());
+                }
+                return 31 * newest + count;
+            } catch (IOException e) {
+                logger.severe("Failed to read storage high-water mark: " + e.getMessage());
+                e.printStackTrace();
+                throw new RuntimeException(e);
+            }
+        });
+    }
+}
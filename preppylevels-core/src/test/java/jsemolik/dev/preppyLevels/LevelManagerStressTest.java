@@ -0,0 +1,211 @@
+package jsemolik.dev.preppyLevels;
+
+import jsemolik.dev.preppyLevels.config.ConfigLoader;
+import jsemolik.dev.preppyLevels.config.PluginConfig;
+import jsemolik.dev.preppyLevels.curve.XpCurve;
+import jsemolik.dev.preppyLevels.platform.ExecutorScheduler;
+import jsemolik.dev.preppyLevels.storage.PlayerData;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * Fires millions of XP grants from many threads at once through a headless engine on H2 and
+ * checks that no grant is lost and that level and XP never disagree.
+ */
+@Timeout(value = 5, unit = TimeUnit.MINUTES)
+class LevelManagerStressTest {
+    private static final int THREADS = 8;
+    private static final int GRANTS_PER_THREAD = 250_000;
+    private static final int PLAYERS = 256;
+
+    @TempDir
+    Path dataFolder;
+
+    private final AtomicInteger levelUps = new AtomicInteger();
+    private ExecutorScheduler scheduler;
+    private XpEngine engine;
+    private XpCurve curve;
+
+    @BeforeEach
+    void setUp() {
+        Logger logger = Logger.getLogger("PreppyLevels-Test");
+        logger.setLevel(Level.WARNING);
+        PluginConfig config = new ConfigLoader(logger, dataFolder.resolve("config.yml")).loadConfig();
+        config.setStorageType(PluginConfig.StorageType.H2);
+        config.getCacheConfig().setWarmStart(false);
+        curve = config.getXpCurve();
+
+        scheduler = new ExecutorScheduler(2);
+        engine = new XpEngine(config, dataFolder, logger, scheduler, (playerId, data, leveledUp) -> {
+            if (leveledUp) {
+                levelUps.incrementAndGet();
+            }
+        });
+        engine.start().join();
+    }
+
+    @AfterEach
+    void tearDown() {
+        engine.shutdown();
+        scheduler.shutdown();
+    }
+
+    @Test
+    void concurrentGrantsToOnePlayerAreExact() throws InterruptedException {
+        UUID playerId = UUID.randomUUID();
+        LevelManager levelManager = engine.getLevelManager();
+
+        runConcurrently(THREADS, thread -> {
+            for (int i = 0; i < GRANTS_PER_THREAD; i++) {
+                levelManager.addXp(playerId, "player", 1).join();
+            }
+        });
+
+        long expectedXp = (long) THREADS * GRANTS_PER_THREAD;
+        PlayerData data = levelManager.getPlayerData(playerId).join();
+        assertEquals(expectedXp, data.getXp());
+        assertEquals(curve.getLevel(expectedXp), data.getLevel());
+        // Grants of 1 XP cross each threshold one at a time, so every level-up is reported exactly once
+        assertEquals(data.getLevel() - 1, levelUps.get());
+
+        engine.getWriteBehindQueue().flushAll().join();
+        PlayerData stored = engine.getStorageProvider().loadPlayerData(playerId).join();
+        assertEquals(expectedXp, stored.getXp());
+        assertEquals(data.getLevel(), stored.getLevel());
+    }
+
+    @Test
+    void concurrentGrantsToManyPlayersAreExact() throws InterruptedException {
+        UUID[] playerIds = new UUID[PLAYERS];
+        for (int i = 0; i < PLAYERS; i++) {
+            playerIds[i] = UUID.randomUUID();
+        }
+        AtomicLongArray expected = new AtomicLongArray(PLAYERS);
+        LevelManager levelManager = engine.getLevelManager();
+
+        runConcurrently(THREADS, thread -> {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            for (int i = 0; i < GRANTS_PER_THREAD; i++) {
+                int index = random.nextInt(PLAYERS);
+                long amount = 1 + random.nextInt(50);
+                expected.addAndGet(index, amount);
+                levelManager.addXp(playerIds[index], "player" + index, amount).join();
+            }
+        });
+
+        engine.getWriteBehindQueue().flushAll().join();
+        Map<UUID, PlayerData> stored = engine.getStorageProvider().loadPlayerDataBatch(List.of(playerIds)).join();
+        for (int i = 0; i < PLAYERS; i++) {
+            PlayerData data = levelManager.getPlayerData(playerIds[i]).join();
+            assertEquals(expected.get(i), data.getXp());
+            assertEquals(curve.getLevel(expected.get(i)), data.getLevel());
+            assertEquals(expected.get(i), stored.get(playerIds[i]).getXp());
+        }
+    }
+
+    @Test
+    void levelMatchesXpWhileGrantsRaceWithSets() throws InterruptedException {
+        UUID[] playerIds = new UUID[16];
+        for (int i = 0; i < playerIds.length; i++) {
+            playerIds[i] = UUID.randomUUID();
+            engine.getLevelManager().addXp(playerIds[i], "player" + i, 1).join();
+        }
+        LevelManager levelManager = engine.getLevelManager();
+        List<PlayerData> players = new ArrayList<>();
+        for (UUID playerId : playerIds) {
+            players.add(levelManager.getPlayerData(playerId).join());
+        }
+
+        AtomicBoolean running = new AtomicBoolean(true);
+        AtomicReference<String> mismatch = new AtomicReference<>();
+        // Every state a reader can see must have the level that belongs to its XP
+        Thread reader = new Thread(() -> {
+            while (running.get() && mismatch.get() == null) {
+                for (PlayerData data : players) {
+                    PlayerData.Progress progress = data.getProgress();
+                    if (progress.getLevel() != curve.getLevel(progress.getXp())) {
+                        mismatch.set("level " + progress.getLevel() + " with " + progress.getXp() + " XP");
+                    }
+                    PlayerSnapshot snapshot = levelManager.snapshotOf(data);
+                    if (snapshot.getLevel() != curve.getLevel(snapshot.getXp())) {
+                        mismatch.set("snapshot of level " + snapshot.getLevel() + " with " + snapshot.getXp() + " XP");
+                    }
+                }
+            }
+        });
+        reader.start();
+
+        runConcurrently(THREADS, thread -> {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            if (thread == 0) {
+                // Sets move players both up and down while the other threads keep granting
+                for (int i = 0; i < 500; i++) {
+                    Map<UUID, Long> amounts = new HashMap<>();
+                    amounts.put(playerIds[random.nextInt(playerIds.length)], (long) random.nextInt(1_000_000));
+                    levelManager.applyXpBulk(amounts, true).join();
+                }
+                return;
+            }
+            for (int i = 0; i < GRANTS_PER_THREAD / 4; i++) {
+                int index = random.nextInt(playerIds.length);
+                levelManager.addXp(playerIds[index], "player" + index, 1 + random.nextInt(100)).join();
+            }
+        });
+        running.set(false);
+        reader.join();
+
+        assertNull(mismatch.get());
+        for (PlayerData data : players) {
+            assertNotNull(data);
+            assertEquals(curve.getLevel(data.getXp()), data.getLevel());
+            // The published snapshot is the last state written, not a mix of two
+            PlayerSnapshot published = levelManager.getSnapshot(data.getPlayerId());
+            assertEquals(data.getXp(), published.getXp());
+            assertEquals(data.getLevel(), published.getLevel());
+        }
+    }
+
+    private interface Worker {
+        void run(int thread);
+    }
+
+    private static void runConcurrently(int threads, Worker worker) throws InterruptedException {
+        List<Thread> started = new ArrayList<>();
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        for (int t = 0; t < threads; t++) {
+            int thread = t;
+            Thread runner = new Thread(() -> worker.run(thread), "stress-" + t);
+            runner.setUncaughtExceptionHandler((th, e) -> failure.compareAndSet(null, e));
+            started.add(runner);
+        }
+        started.forEach(Thread::start);
+        for (Thread runner : started) {
+            runner.join();
+        }
+        if (failure.get() != null) {
+            throw new AssertionError("Grant thread failed", failure.get());
+        }
+    }
+}
@@ -0,0 +1,138 @@
+package jsemolik.dev.preppyLevels.cache;
+
+import jsemolik.dev.preppyLevels.storage.PlayerData;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PlayerCacheTest {
+    private static final int MAX_SIZE = 10;
+
+    @Test
+    void pinsOfUncachedPlayersDoNotRaiseTheLimit() {
+        PlayerCache cache = new PlayerCache(MAX_SIZE, 0, data -> { });
+        // Players pinned on join whose entries were since removed, or never loaded
+        for (int i = 0; i < 100; i++) {
+            cache.pin(UUID.randomUUID());
+        }
+        for (int i = 0; i < 50; i++) {
+            cache.putIfAbsent(UUID.randomUUID(), data());
+        }
+        assertEquals(MAX_SIZE, cache.size());
+    }
+
+    @Test
+    void pinnedEntriesStayBeyondTheLimit() {
+        List<UUID> evicted = new ArrayList<>();
+        PlayerCache cache = new PlayerCache(MAX_SIZE, 0, data -> evicted.add(data.getPlayerId()));
+        List<UUID> online = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            UUID playerId = UUID.randomUUID();
+            online.add(playerId);
+            cache.pin(playerId);
+            cache.putIfAbsent(playerId, data(playerId));
+        }
+        for (int i = 0; i < 50; i++) {
+            cache.putIfAbsent(UUID.randomUUID(), data());
+        }
+        assertEquals(MAX_SIZE + online.size(), cache.size());
+        for (UUID playerId : online) {
+            assertNotNull(cache.peek(playerId));
+        }
+
+        // Once unpinned, they count towards the limit again
+        for (UUID playerId : online) {
+            cache.unpin(playerId);
+        }
+        assertEquals(MAX_SIZE, cache.size());
+        assertEquals(50 + online.size() - MAX_SIZE, evicted.size());
+    }
+
+    @Test
+    void removingAPinnedEntryKeepsTheCountRight() {
+        PlayerCache cache = new PlayerCache(MAX_SIZE, 0, data -> { });
+        UUID playerId = UUID.randomUUID();
+        cache.pin(playerId);
+        cache.putIfAbsent(playerId, data(playerId));
+        cache.remove(playerId);
+        for (int i = 0; i < 50; i++) {
+            cache.putIfAbsent(UUID.randomUUID(), data());
+        }
+        assertEquals(MAX_SIZE, cache.size());
+    }
+
+    @Test
+    void entryWithAnUpdateInFlightIsNotEvicted() {
+        PlayerCache cache = new PlayerCache(MAX_SIZE, 0, data -> { });
+        UUID playerId = UUID.randomUUID();
+        PlayerData updated = data(playerId);
+        cache.putIfAbsent(playerId, updated);
+        assertTrue(cache.beginUpdate(playerId, updated));
+
+        for (int i = 0; i < 50; i++) {
+            cache.putIfAbsent(UUID.randomUUID(), data());
+        }
+        assertSame(updated, cache.peek(playerId));
+        assertEquals(MAX_SIZE, cache.size());
+        cache.endUpdate(playerId, updated);
+    }
+
+    @Test
+    void evictionHeldBackByUpdatesCatchesUpWhenTheyEnd() {
+        List<UUID> evicted = new ArrayList<>();
+        PlayerCache cache = new PlayerCache(1, 0, data -> evicted.add(data.getPlayerId()));
+        UUID first = UUID.randomUUID();
+        UUID second = UUID.randomUUID();
+        PlayerData firstData = data(first);
+        PlayerData secondData = data(second);
+        cache.putIfAbsent(first, firstData);
+        assertTrue(cache.beginUpdate(first, firstData));
+        cache.pin(second);
+        cache.putIfAbsent(second, secondData);
+        assertTrue(cache.beginUpdate(second, secondData));
+
+        // Over the limit once unpinned, but both entries are being updated
+        cache.unpin(second);
+        assertEquals(2, cache.size());
+
+        cache.endUpdate(second, secondData);
+        assertEquals(1, cache.size());
+        assertEquals(List.of(second), evicted);
+        cache.endUpdate(first, firstData);
+    }
+
+    @Test
+    void evictedInstanceCannotBeUpdated() {
+        PlayerCache cache = new PlayerCache(MAX_SIZE, 0, data -> { });
+        UUID playerId = UUID.randomUUID();
+        PlayerData evicted = data(playerId);
+        cache.putIfAbsent(playerId, evicted);
+        for (int i = 0; i < 50; i++) {
+            cache.putIfAbsent(UUID.randomUUID(), data());
+        }
+
+        // Reloaded since, e.g. by another thread
+        PlayerData reloaded = data(playerId);
+        cache.putIfAbsent(playerId, reloaded);
+        assertFalse(cache.beginUpdate(playerId, evicted));
+        assertTrue(cache.beginUpdate(playerId, reloaded));
+        cache.endUpdate(playerId, reloaded);
+    }
+
+    private static PlayerData data() {
+        return data(UUID.randomUUID());
+    }
+
+    private static PlayerData data(UUID playerId) {
+        return new PlayerData(playerId, "player", 1, 0);
+    }
+}
@@ -0,0 +1,66 @@
+package jsemolik.dev.preppyLevels.curve;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class XpCurveTest {
+    private static final int LEVELS = 5_000;
+
+    @Test
+    void linearInverseMatchesTotals() {
+        assertInverseMatchesTotals(FormulaXpCurve.compile("linear(100, 25)"));
+        assertInverseMatchesTotals(FormulaXpCurve.compile("linear(7, 0)"));
+    }
+
+    @Test
+    void quadraticInverseMatchesTotals() {
+        assertInverseMatchesTotals(FormulaXpCurve.compile("quadratic(3, 10, 100)"));
+        assertInverseMatchesTotals(FormulaXpCurve.compile("quadratic(0, 10, 100)"));
+        assertInverseMatchesTotals(FormulaXpCurve.compile("quadratic(1, 0, 1)"));
+    }
+
+    @Test
+    void exponentialInverseMatchesTotals() {
+        assertInverseMatchesTotals(FormulaXpCurve.compile("exponential(100, 1.05)"));
+        assertInverseMatchesTotals(FormulaXpCurve.compile("exponential(50, 1)"));
+    }
+
+    @Test
+    void piecewiseInverseMatchesTotals() {
+        assertInverseMatchesTotals(FormulaXpCurve.compile(
+            "piecewise(1: linear(100, 50), 20: quadratic(2, 5, 1000), 60: exponential(5000, 1.1))"
+        ));
+    }
+
+    @Test
+    void tableInverseMatchesTotals() {
+        assertInverseMatchesTotals(new TableXpCurve(Map.of(1, 100, 2, 250, 3, 400), 150));
+    }
+
+    @Test
+    void piecewiseStartsMustBeWholeLevels() {
+        assertThrows(IllegalArgumentException.class, () -> FormulaXpCurve.compile("piecewise(1: linear(100, 50), 1.5: linear(10, 1))"));
+        assertThrows(IllegalArgumentException.class, () -> FormulaXpCurve.compile("piecewise(0: linear(100, 50))"));
+        assertThrows(IllegalArgumentException.class, () -> FormulaXpCurve.compile("piecewise(1: linear(100, 50), -3: linear(10, 1))"));
+    }
+
+    /**
+     * Every reachable level is reached at exactly its total, and not one XP earlier
+     */
+    private static void assertInverseMatchesTotals(XpCurve curve) {
+        assertEquals(1, curve.getLevel(0));
+        for (int level = 2; level <= LEVELS; level++) {
+            long total = curve.getXpToReachLevel(level);
+            if (total == Long.MAX_VALUE) {
+                // Saturated, so the remaining levels cannot be told apart
+                return;
+            }
+            assertEquals(level, curve.getLevel(total), "level at the total for level " + level);
+            assertEquals(level - 1, curve.getLevel(total - 1), "level one XP short of level " + level);
+        }
+    }
+}
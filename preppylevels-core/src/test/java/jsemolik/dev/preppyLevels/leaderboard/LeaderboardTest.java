@@ -0,0 +1,71 @@
+package jsemolik.dev.preppyLevels.leaderboard;
+
+import jsemolik.dev.preppyLevels.storage.PlayerData;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class LeaderboardTest {
+    private static final int PLAYERS = 400;
+    private static final int ROUNDS = 20;
+    // Most XP first, equal XP by UUID string descending
+    private static final Comparator<PlayerData> ORDER = Comparator.comparingLong(PlayerData::getXp).reversed()
+        .thenComparing(data -> data.getPlayerId().toString(), Comparator.reverseOrder());
+
+    @Test
+    void ranksAndPagesMatchASortedListAfterRandomUpdates() {
+        Random random = new Random(42);
+        Leaderboard leaderboard = new Leaderboard();
+        Map<UUID, PlayerData> expected = new HashMap<>();
+        List<UUID> ids = new ArrayList<>();
+        for (int i = 0; i < PLAYERS; i++) {
+            ids.add(UUID.randomUUID());
+        }
+
+        for (int round = 0; round < ROUNDS; round++) {
+            for (int i = 0; i < PLAYERS; i++) {
+                UUID playerId = ids.get(random.nextInt(PLAYERS));
+                if (random.nextInt(10) == 0) {
+                    leaderboard.remove(playerId);
+                    expected.remove(playerId);
+                } else {
+                    // A small XP range, so many players tie
+                    PlayerData data = new PlayerData(playerId, "P" + i, 1, random.nextInt(50));
+                    leaderboard.update(data);
+                    expected.put(playerId, data);
+                }
+            }
+
+            List<PlayerData> sorted = new ArrayList<>(expected.values());
+            sorted.sort(ORDER);
+            assertEquals(sorted.size(), leaderboard.size());
+            for (int rank = 1; rank <= sorted.size(); rank++) {
+                assertEquals(rank, leaderboard.getRank(sorted.get(rank - 1).getPlayerId()), "rank in round " + round);
+            }
+            for (UUID playerId : ids) {
+                if (!expected.containsKey(playerId)) {
+                    assertEquals(0, leaderboard.getRank(playerId), "rank of a removed player");
+                }
+            }
+
+            int offset = random.nextInt(sorted.size() + 5);
+            int count = 1 + random.nextInt(30);
+            List<LeaderboardEntry> page = leaderboard.getPage(offset, count);
+            assertEquals(Math.max(0, Math.min(count, sorted.size() - offset)), page.size());
+            for (int i = 0; i < page.size(); i++) {
+                PlayerData data = sorted.get(offset + i);
+                assertEquals(data.getPlayerId(), page.get(i).getPlayerId());
+                assertEquals(data.getXp(), page.get(i).getXp());
+                assertEquals(offset + i + 1, page.get(i).getRank());
+            }
+        }
+    }
+}
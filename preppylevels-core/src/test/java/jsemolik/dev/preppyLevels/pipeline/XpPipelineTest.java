@@ -0,0 +1,118 @@
+package jsemolik.dev.preppyLevels.pipeline;
+
+import jsemolik.dev.preppyLevels.XpEngine;
+import jsemolik.dev.preppyLevels.config.ConfigLoader;
+import jsemolik.dev.preppyLevels.config.PluginConfig;
+import jsemolik.dev.preppyLevels.platform.ExecutorScheduler;
+import jsemolik.dev.preppyLevels.platform.PlayerSink;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+@Timeout(value = 2, unit = TimeUnit.MINUTES)
+class XpPipelineTest {
+    @TempDir
+    Path dataFolder;
+
+    private ExecutorScheduler scheduler;
+    private XpEngine engine;
+
+    @BeforeEach
+    void setUp() {
+        Logger logger = Logger.getLogger("PreppyLevels-Test");
+        logger.setLevel(Level.WARNING);
+        PluginConfig config = new ConfigLoader(logger, dataFolder.resolve("config.yml")).loadConfig();
+        config.setStorageType(PluginConfig.StorageType.H2);
+        config.getCacheConfig().setWarmStart(false);
+        scheduler = new ExecutorScheduler(2);
+        engine = new XpEngine(config, dataFolder, logger, scheduler, PlayerSink.NONE);
+        engine.start().join();
+    }
+
+    @AfterEach
+    void tearDown() {
+        engine.shutdown();
+        scheduler.shutdown();
+    }
+
+    @Test
+    void lastGrantOnAQuietServerCompletes() throws Exception {
+        UUID playerId = UUID.randomUUID();
+        // Nothing else is submitted afterwards, so only the tick that applies this grant can complete it
+        engine.getXpPipeline().submit(playerId, "player", 25, "test").get(5, TimeUnit.SECONDS);
+        assertEquals(25, engine.getLevelManager().getPlayerData(playerId).join().getXp());
+
+        Thread.sleep(200);
+        engine.getXpPipeline().submit(playerId, "player", 5, "test").get(5, TimeUnit.SECONDS);
+        assertEquals(30, engine.getLevelManager().getPlayerData(playerId).join().getXp());
+    }
+
+    @Test
+    void futuresCompleteOnlyAfterTheirGrantIsApplied() throws InterruptedException {
+        int threads = 4;
+        int grants = 40;
+        List<Thread> started = new ArrayList<>();
+        AtomicReference<String> failure = new AtomicReference<>();
+        for (int t = 0; t < threads; t++) {
+            UUID playerId = UUID.randomUUID();
+            Thread thread = new Thread(() -> {
+                for (int i = 1; i <= grants; i++) {
+                    engine.getXpPipeline().submit(playerId, "player", 1, "test").join();
+                    long xp = engine.getLevelManager().getPlayerData(playerId).join().getXp();
+                    // Only this thread grants to this player, so every completed grant must already be visible
+                    if (xp != i) {
+                        failure.compareAndSet(null, "after grant " + i + " the player had " + xp + " XP");
+                    }
+                }
+            });
+            started.add(thread);
+            thread.start();
+        }
+        for (Thread thread : started) {
+            thread.join();
+        }
+        assertNull(failure.get());
+    }
+
+    @Test
+    void manyConcurrentGrantsAllComplete() throws InterruptedException {
+        UUID playerId = UUID.randomUUID();
+        int threads = 8;
+        int grants = 50_000;
+        List<Thread> started = new ArrayList<>();
+        List<CompletableFuture<Void>> futures = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            Thread thread = new Thread(() -> {
+                List<CompletableFuture<Void>> own = new ArrayList<>(grants);
+                for (int i = 0; i < grants; i++) {
+                    own.add(engine.getXpPipeline().submit(playerId, "player", 1, "test"));
+                }
+                synchronized (futures) {
+                    futures.addAll(own);
+                }
+            });
+            started.add(thread);
+            thread.start();
+        }
+        for (Thread thread : started) {
+            thread.join();
+        }
+        CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0])).join();
+        assertEquals((long) threads * grants, engine.getLevelManager().getPlayerData(playerId).join().getXp());
+    }
+}
@@ -0,0 +1,100 @@
+package jsemolik.dev.preppyLevels.storage;
+
+import jsemolik.dev.preppyLevels.config.ConfigLoader;
+import jsemolik.dev.preppyLevels.config.PluginConfig;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.UUID;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class HighWaterMarkTest {
+    private static final Logger LOGGER = Logger.getLogger("PreppyLevels-Test");
+
+    static {
+        LOGGER.setLevel(Level.SEVERE);
+    }
+
+    @TempDir
+    Path dataFolder;
+
+    private StorageExecutor executor;
+
+    @AfterEach
+    void tearDown() {
+        if (executor != null) {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    void h2MarkGrowsWithEveryWrite() {
+        assertMarkGrowsWithEveryWrite(PluginConfig.StorageType.H2);
+    }
+
+    @Test
+    void sqliteMarkGrowsWithEveryWrite() {
+        assertMarkGrowsWithEveryWrite(PluginConfig.StorageType.SQLITE);
+    }
+
+    @Test
+    void mysqlMarkGrowsWithEveryWrite() {
+        // H2 in MySQL mode stands in for a MySQL server
+        assertMarkGrowsWithEveryWrite(PluginConfig.StorageType.MYSQL);
+    }
+
+    private void assertMarkGrowsWithEveryWrite(PluginConfig.StorageType type) {
+        PluginConfig config = new ConfigLoader(LOGGER, dataFolder.resolve("config.yml")).loadConfig();
+        config.setStorageType(type);
+        config.getMysqlConfig().setJdbcUrl("jdbc:h2:" + dataFolder.resolve("mysql").toAbsolutePath()
+            + ";MODE=MySQL;DATABASE_TO_LOWER=TRUE");
+        executor = new StorageExecutor(config.getStorageExecutorConfig(), () -> false);
+        UUID first = UUID.randomUUID();
+        UUID second = UUID.randomUUID();
+
+        StorageProvider provider = open(config);
+        provider.savePlayerDataBatch(List.of(
+            new PlayerData(first, "First", 1, 10),
+            new PlayerData(second, "Second", 1, 20)
+        )).join();
+        long created = provider.getHighWaterMark().join();
+
+        // Same number of players and the same XP total as before
+        provider.savePlayerDataBatch(List.of(
+            stored(new PlayerData(first, "First", 1, 20)),
+            stored(new PlayerData(second, "Second", 1, 10))
+        )).join();
+        long swapped = provider.getHighWaterMark().join();
+        assertTrue(swapped > created, "moving XP between players changes the mark");
+
+        provider.savePlayerDeltaBatch(List.of(new XpDelta(first, "First", 5)), xp -> 1).join();
+        long added = provider.getHighWaterMark().join();
+        assertTrue(added > swapped, "a delta write changes the mark");
+        provider.shutdown().join();
+
+        StorageProvider reopened = open(config);
+        assertEquals(added, reopened.getHighWaterMark().join(), "reopening without writes keeps the mark");
+        reopened.shutdown().join();
+    }
+
+    /**
+     * Base a save on the first stored version, as MySQL only accepts saves of the version it holds
+     */
+    private static PlayerData stored(PlayerData data) {
+        data.setVersion(1);
+        return data;
+    }
+
+    private StorageProvider open(PluginConfig config) {
+        StorageProvider provider = StorageFactory.createStorageProvider(config, LOGGER, dataFolder, executor);
+        provider.initialize().join();
+        return provider;
+    }
+}
@@ -0,0 +1,104 @@
+package jsemolik.dev.preppyLevels.storage;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LogIndexTest {
+    private static final int PLAYERS = 10_000;
+
+    @Test
+    void growsFromASmallTableWithoutLosingEntries() {
+        LogIndex index = new LogIndex(1);
+        Map<UUID, Long> expected = new HashMap<>();
+        for (int i = 0; i < PLAYERS; i++) {
+            UUID playerId = UUID.randomUUID();
+            assertEquals(LogIndex.ABSENT, index.put(playerId, i));
+            expected.put(playerId, (long) i);
+        }
+        // Rewrites move a player to a later record without adding an entry
+        int moved = 0;
+        for (Map.Entry<UUID, Long> entry : expected.entrySet()) {
+            if (moved++ % 3 == 0) {
+                assertEquals(entry.getValue().longValue(), index.put(entry.getKey(), entry.getValue() + PLAYERS));
+                entry.setValue(entry.getValue() + PLAYERS);
+            }
+        }
+
+        assertEquals(PLAYERS, index.size());
+        expected.forEach((playerId, location) -> assertEquals(location.longValue(), index.get(playerId)));
+        assertEquals(LogIndex.ABSENT, index.get(UUID.randomUUID()));
+    }
+
+    @Test
+    void replaceOnlyMovesAnEntryThatWasNotRewritten() {
+        LogIndex index = new LogIndex(16);
+        UUID playerId = UUID.randomUUID();
+        index.put(playerId, 1);
+
+        // Compaction copied record 1 to record 3 while a save wrote record 2
+        index.put(playerId, 2);
+        assertFalse(index.replace(playerId, 1, 3));
+        assertEquals(2L, index.get(playerId));
+
+        assertTrue(index.replace(playerId, 2, 3));
+        assertEquals(3L, index.get(playerId));
+        assertFalse(index.replace(UUID.randomUUID(), LogIndex.ABSENT, 4), "absent players are not added");
+    }
+
+    @Test
+    void locationsAfterWalksPlayersInIdOrderInChunks() {
+        LogIndex index = new LogIndex(16);
+        Map<Long, UUID> playerAt = new HashMap<>();
+        List<UUID> ids = new ArrayList<>();
+        Random random = new Random(42);
+        for (int i = 0; i < PLAYERS; i++) {
+            UUID playerId = new UUID(random.nextLong(), random.nextLong());
+            index.put(playerId, i);
+            playerAt.put((long) i, playerId);
+            ids.add(playerId);
+        }
+        ids.sort(StorageProvider.PLAYER_ID_ORDER);
+
+        for (int limit : new int[] {1, 7, 1000, PLAYERS + 1}) {
+            List<UUID> walked = new ArrayList<>();
+            UUID cursor = null;
+            long[] chunk;
+            do {
+                chunk = index.locationsAfter(cursor, limit);
+                assertTrue(chunk.length <= limit);
+                for (long location : chunk) {
+                    walked.add(playerAt.get(location));
+                }
+                if (chunk.length > 0) {
+                    cursor = walked.get(walked.size() - 1);
+                }
+            } while (chunk.length == limit);
+            assertEquals(ids, walked, "chunks of " + limit);
+        }
+        assertEquals(0, index.locationsAfter(ids.get(PLAYERS - 1), 10).length);
+    }
+
+    @Test
+    void locationsAreSortedInFileOrder() {
+        LogIndex index = new LogIndex(16);
+        Random random = new Random(7);
+        for (int i = 0; i < PLAYERS; i++) {
+            index.put(UUID.randomUUID(), random.nextLong() & Long.MAX_VALUE);
+        }
+        long[] locations = index.locations();
+        assertEquals(PLAYERS, locations.length);
+        for (int i = 1; i < locations.length; i++) {
+            assertTrue(locations[i - 1] <= locations[i]);
+        }
+    }
+}
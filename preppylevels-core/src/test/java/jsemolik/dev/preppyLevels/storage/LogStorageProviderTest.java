@@ -0,0 +1,226 @@
+package jsemolik.dev.preppyLevels.storage;
+
+import jsemolik.dev.preppyLevels.config.ConfigLoader;
+import jsemolik.dev.preppyLevels.config.PluginConfig;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LogStorageProviderTest {
+    private static final Logger LOGGER = Logger.getLogger("PreppyLevels-Test");
+    private static final int PLAYERS = 50;
+    private static final int RECORD_SIZE = 64;
+
+    static {
+        LOGGER.setLevel(Level.SEVERE);
+    }
+
+    @TempDir
+    Path dataFolder;
+
+    private PluginConfig config;
+    private StorageExecutor executor;
+    private final List<StorageProvider> opened = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        config = new ConfigLoader(LOGGER, dataFolder.resolve("config.yml")).loadConfig();
+        config.setStorageType(PluginConfig.StorageType.LOG);
+        // Every batch starts its own segment, and every segment but the newest is compacted each second
+        config.getLogConfig().setSegmentSize(0);
+        config.getLogConfig().setCompactionThreshold(0);
+        config.getLogConfig().setCompactionInterval(1);
+        executor = StorageMigration.createExecutor(config.getStorageExecutorConfig());
+    }
+
+    @AfterEach
+    void tearDown() {
+        for (StorageProvider provider : opened) {
+            provider.shutdown().join();
+        }
+        executor.shutdown();
+    }
+
+    @Test
+    void reopeningDiscardsARecordCutShortAtTheEndOfTheLog() throws IOException {
+        StorageProvider provider = open();
+        List<PlayerData> players = players(0);
+        provider.savePlayerDataBatch(players).join();
+        provider.savePlayerDataBatch(players(players, 1000)).join();
+        close(provider);
+
+        // As left behind by a crash while the last record was being written
+        Path last = segments().get(segments().size() - 1);
+        try (FileChannel channel = FileChannel.open(last, StandardOpenOption.WRITE)) {
+            channel.truncate(channel.size() - RECORD_SIZE / 2);
+        }
+
+        StorageProvider reopened = open();
+        assertEquals((PLAYERS - 1) * (long) RECORD_SIZE, Files.size(last), "the torn record is cut off");
+        for (int i = 0; i < PLAYERS; i++) {
+            long expected = i * 10L + (i == PLAYERS - 1 ? 0 : 1000);
+            assertEquals(expected, reopened.loadPlayerData(players.get(i).getPlayerId()).join().getXp(), "player " + i);
+        }
+
+        // The log accepts writes again where the torn record was
+        reopened.savePlayerDataBatch(players(players.subList(PLAYERS - 1, PLAYERS), 2000)).join();
+        close(reopened);
+        assertEquals((PLAYERS - 1) * 10L + 2000, open().loadPlayerData(players.get(PLAYERS - 1).getPlayerId()).join().getXp());
+    }
+
+    @Test
+    void compactionKeepsTheLatestRecordOfEveryPlayerWhileTheyAreRewritten() throws Exception {
+        StorageProvider provider = open();
+        List<PlayerData> players = players(0);
+        provider.savePlayerDataBatch(players).join();
+
+        // Rewrite players in small batches for a few compaction rounds, so compaction copies records
+        // of segments that the rewrites keep superseding
+        long[] latest = new long[PLAYERS];
+        for (int i = 0; i < PLAYERS; i++) {
+            latest[i] = i * 10L;
+        }
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(3500);
+        for (int round = 1; System.nanoTime() < deadline; round++) {
+            int from = (round * 7) % PLAYERS;
+            List<PlayerData> batch = new ArrayList<>();
+            for (int i = from; i < Math.min(PLAYERS, from + 5); i++) {
+                latest[i] = round * 1000L;
+                batch.add(new PlayerData(players.get(i).getPlayerId(), "Player" + i, 1, latest[i]));
+            }
+            provider.savePlayerDataBatch(batch).join();
+            Thread.sleep(20);
+        }
+
+        assertEveryPlayer(provider, players, latest);
+        close(provider);
+        assertEveryPlayer(open(), players, latest);
+    }
+
+    @Test
+    void retiredSegmentsAreKeptUntilActiveReadersFinish() throws Exception {
+        StorageProvider provider = open();
+        List<PlayerData> players = players(0);
+        provider.savePlayerDataBatch(players).join();
+        Path first = segments().get(0);
+
+        // A walk that copied its locations before the rewrite and is still reading them
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        List<PlayerData> walked = new ArrayList<>();
+        CompletableFuture<Void> walk = provider.forEachPlayer(data -> {
+            walked.add(data);
+            started.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+
+        provider.savePlayerDataBatch(players(players, 1000)).join();
+        // Wait for a few compaction rounds, which retire the first segment
+        Thread.sleep(2500);
+        assertTrue(Files.exists(first), "a segment still being read is not deleted");
+
+        release.countDown();
+        walk.join();
+        assertEquals(PLAYERS, walked.size());
+        for (PlayerData data : walked) {
+            assertTrue(data.getXp() < 1000, "the walk reads the records it started with");
+        }
+
+        assertTrue(waitUntil(() -> !Files.exists(first)), "the retired segment is deleted once the walk is done");
+        long[] latest = new long[PLAYERS];
+        for (int i = 0; i < PLAYERS; i++) {
+            latest[i] = i * 10L + 1000;
+        }
+        assertEveryPlayer(provider, players, latest);
+    }
+
+    private StorageProvider open() {
+        StorageProvider provider = StorageFactory.createStorageProvider(config, LOGGER, dataFolder, executor);
+        provider.initialize().join();
+        opened.add(provider);
+        return provider;
+    }
+
+    private void close(StorageProvider provider) {
+        provider.shutdown().join();
+        opened.remove(provider);
+    }
+
+    private List<Path> segments() throws IOException {
+        try (Stream<Path> files = Files.list(dataFolder.resolve(config.getLogConfig().getDirectory()))) {
+            return files.sorted().toList();
+        }
+    }
+
+    private static List<PlayerData> players(long xpOffset) {
+        List<PlayerData> players = new ArrayList<>();
+        for (int i = 0; i < PLAYERS; i++) {
+            players.add(new PlayerData(UUID.randomUUID(), "Player" + i, 1, i * 10L + xpOffset));
+        }
+        return players;
+    }
+
+    /**
+     * The same players with xpOffset added to their original XP of i * 10
+     */
+    private static List<PlayerData> players(List<PlayerData> players, long xpOffset) {
+        List<PlayerData> updated = new ArrayList<>();
+        for (PlayerData player : players) {
+            int i = Integer.parseInt(player.getPlayerName().substring("Player".length()));
+            updated.add(new PlayerData(player.getPlayerId(), player.getPlayerName(), 1, i * 10L + xpOffset));
+        }
+        return updated;
+    }
+
+    private static void assertEveryPlayer(StorageProvider provider, List<PlayerData> players, long[] xp) {
+        List<UUID> ids = new ArrayList<>();
+        for (PlayerData player : players) {
+            ids.add(player.getPlayerId());
+        }
+        Map<UUID, PlayerData> loaded = provider.loadPlayerDataBatch(ids).join();
+        for (int i = 0; i < players.size(); i++) {
+            assertEquals(xp[i], loaded.get(ids.get(i)).getXp(), "player " + i);
+        }
+        AtomicInteger walked = new AtomicInteger();
+        provider.forEachPlayer(data -> walked.incrementAndGet()).join();
+        assertEquals(players.size(), walked.get(), "every player is walked once");
+    }
+
+    private static boolean waitUntil(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (System.nanoTime() < deadline) {
+            if (condition.getAsBoolean()) {
+                return true;
+            }
+            Thread.sleep(50);
+        }
+        return condition.getAsBoolean();
+    }
+}
@@ -0,0 +1,140 @@
+package jsemolik.dev.preppyLevels.storage;
+
+import jsemolik.dev.preppyLevels.config.PluginConfig;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class StorageExecutorTest {
+    private StorageExecutor executor;
+    private CountDownLatch blocker;
+
+    @BeforeEach
+    void setUp() {
+        PluginConfig.StorageExecutorConfig config = new PluginConfig.StorageExecutorConfig();
+        config.setThreads(1);
+        config.setQueueCapacity(8);
+        config.setOverloadPolicy(StorageExecutor.OverloadPolicy.COALESCE);
+        executor = new StorageExecutor(config, () -> false);
+
+        // Hold the only thread so that batches stay queued
+        blocker = new CountDownLatch(1);
+        executor.run(() -> {
+            try {
+                blocker.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+    }
+
+    @AfterEach
+    void tearDown() {
+        blocker.countDown();
+        executor.shutdown();
+    }
+
+    @Test
+    void laterBatchTakesOverQueuedPlayers() {
+        List<List<Integer>> writes = Collections.synchronizedList(new ArrayList<>());
+        CompletableFuture<Void> first = executor.runBatch(List.of(1, 2, 3), id -> id, writes::add);
+        CompletableFuture<Void> second = executor.runBatch(List.of(2, 4), id -> id, writes::add);
+
+        blocker.countDown();
+        first.join();
+
+        assertTrue(second.isDone(), "the first batch completed before the batch that took over its player");
+        assertEquals(List.of(List.of(1, 3), List.of(2, 4)), writes);
+        assertEquals(1, executor.getCoalescedCount());
+    }
+
+    @Test
+    void batchWithEveryPlayerTakenOverWritesNothing() {
+        List<List<Integer>> writes = Collections.synchronizedList(new ArrayList<>());
+        CompletableFuture<Void> first = executor.runBatch(List.of(1, 2), id -> id, writes::add);
+        executor.runBatch(List.of(1, 2), id -> id, writes::add);
+
+        blocker.countDown();
+        first.join();
+
+        assertEquals(List.of(List.of(1, 2)), writes);
+    }
+
+    @Test
+    void startedBatchKeepsItsPlayers() throws InterruptedException {
+        blocker.countDown();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        List<List<Integer>> writes = Collections.synchronizedList(new ArrayList<>());
+        CompletableFuture<Void> first = executor.runBatch(List.of(1, 2), id -> id, batch -> {
+            started.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            writes.add(batch);
+        });
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+
+        CompletableFuture<Void> second = executor.runBatch(List.of(2), id -> id, writes::add);
+        assertFalse(first.isDone());
+        release.countDown();
+        CompletableFuture.allOf(first, second).join();
+
+        assertEquals(List.of(List.of(1, 2), List.of(2)), writes);
+        assertEquals(0, executor.getCoalescedCount());
+    }
+
+    @Test
+    void failedTakeOverFailsTheEarlierBatch() {
+        CompletableFuture<Void> first = executor.runBatch(List.of(1, 2), id -> id, batch -> { });
+        executor.runBatch(List.of(2), id -> id, batch -> {
+            throw new IllegalStateException("write failed");
+        });
+
+        blocker.countDown();
+
+        assertTrue(first.handle((ignored, throwable) -> throwable != null).join(),
+            "the earlier batch reports the failure of the write that took over its player");
+    }
+
+    @Test
+    void attachedQueueCountsTowardsTheGaugesAndDropsWhenFull() {
+        PluginConfig.StorageExecutorConfig config = new PluginConfig.StorageExecutorConfig();
+        config.setThreads(1);
+        config.setQueueCapacity(2);
+        config.setOverloadPolicy(StorageExecutor.OverloadPolicy.DROP);
+        StorageExecutor dropping = new StorageExecutor(config, () -> false);
+        try {
+            BlockingQueue<Integer> queue = dropping.attachQueue();
+            dropping.enqueue(queue, 1);
+            dropping.enqueue(queue, 2);
+            assertEquals(2, dropping.getQueueDepth());
+            assertEquals(4, dropping.getQueueCapacity());
+
+            assertThrows(RejectedExecutionException.class, () -> dropping.enqueue(queue, 3));
+            assertEquals(1, dropping.getDroppedCount());
+            assertEquals(List.of(1, 2), new ArrayList<>(queue));
+
+            dropping.detachQueue(queue);
+            assertEquals(0, dropping.getQueueDepth());
+        } finally {
+            dropping.shutdown();
+        }
+    }
+}
@@ -0,0 +1,139 @@
+package jsemolik.dev.preppyLevels.storage;
+
+import jsemolik.dev.preppyLevels.config.ConfigLoader;
+import jsemolik.dev.preppyLevels.config.PluginConfig;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Properties;
+import java.util.UUID;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+class StorageMigrationTest {
+    private static final Logger LOGGER = Logger.getLogger("PreppyLevels-Test");
+    private static final int PLAYERS = 50;
+
+    static {
+        LOGGER.setLevel(Level.SEVERE);
+    }
+
+    @TempDir
+    Path dataFolder;
+
+    private PluginConfig config;
+    private StorageExecutor executor;
+    private final List<StorageProvider> opened = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        config = new ConfigLoader(LOGGER, dataFolder.resolve("config.yml")).loadConfig();
+        executor = StorageMigration.createExecutor(config.getStorageExecutorConfig());
+    }
+
+    @AfterEach
+    void tearDown() {
+        for (StorageProvider provider : opened) {
+            provider.shutdown().join();
+        }
+        executor.shutdown();
+    }
+
+    @Test
+    void playerIdOrderMatchesTheOrderOfIdStrings() {
+        for (int i = 0; i < 10_000; i++) {
+            UUID a = UUID.randomUUID();
+            UUID b = UUID.randomUUID();
+            assertEquals(Integer.signum(a.toString().compareTo(b.toString())),
+                Integer.signum(StorageProvider.PLAYER_ID_ORDER.compare(a, b)), a + " and " + b);
+        }
+    }
+
+    @Test
+    void everyBackendWalksPlayersInIdOrderFromACursor() {
+        for (PluginConfig.StorageType type : new PluginConfig.StorageType[] {
+            PluginConfig.StorageType.H2, PluginConfig.StorageType.SQLITE, PluginConfig.StorageType.JSON,
+            PluginConfig.StorageType.YAML, PluginConfig.StorageType.LOG
+        }) {
+            StorageProvider provider = open(type, type.name().toLowerCase(Locale.ROOT));
+            List<UUID> ids = savePlayers(provider);
+
+            assertEquals(ids, walk(provider, null), type + " walk from the start");
+            assertEquals(ids.subList(20, PLAYERS), walk(provider, ids.get(19)), type + " walk after a player");
+            assertEquals(List.of(), walk(provider, ids.get(PLAYERS - 1)), type + " walk after the last player");
+        }
+    }
+
+    @Test
+    void resumedMigrationCopiesOnlyPlayersAfterTheCheckpoint() throws IOException {
+        StorageProvider source = open(PluginConfig.StorageType.SQLITE, "source");
+        StorageProvider target = open(PluginConfig.StorageType.H2, "target");
+        List<UUID> ids = savePlayers(source);
+
+        // As left behind by a run that copied the first three pages of ten
+        Path checkpointFile = dataFolder.resolve("migration.checkpoint");
+        Properties checkpoint = new Properties();
+        checkpoint.setProperty("migration", "SQLITE to H2");
+        checkpoint.setProperty("source-mark", Long.toString(source.getHighWaterMark().join()));
+        checkpoint.setProperty("last-player", ids.get(29).toString());
+        checkpoint.setProperty("copied", "30");
+        try (OutputStream out = Files.newOutputStream(checkpointFile)) {
+            checkpoint.store(out, null);
+        }
+
+        long copied = new StorageMigration(source, target, "SQLITE to H2", checkpointFile, 10, LOGGER).run(count -> { });
+
+        assertEquals(PLAYERS, copied);
+        assertEquals(ids.subList(30, PLAYERS), walk(target, null));
+        assertFalse(Files.exists(checkpointFile), "a finished migration removes its checkpoint");
+    }
+
+    private StorageProvider open(PluginConfig.StorageType type, String folder) {
+        try {
+            Files.createDirectories(dataFolder.resolve(folder));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        config.setStorageType(type);
+        StorageProvider provider = StorageFactory.createStorageProvider(config, LOGGER, dataFolder.resolve(folder), executor);
+        provider.initialize().join();
+        opened.add(provider);
+        return provider;
+    }
+
+    /**
+     * @return The saved IDs in player ID order
+     */
+    private static List<UUID> savePlayers(StorageProvider provider) {
+        List<PlayerData> players = new ArrayList<>();
+        for (int i = 0; i < PLAYERS; i++) {
+            players.add(new PlayerData(UUID.randomUUID(), "Player" + i, 1, i * 10L));
+        }
+        provider.savePlayerDataBatch(players).join();
+        List<UUID> ids = new ArrayList<>();
+        for (PlayerData player : players) {
+            ids.add(player.getPlayerId());
+        }
+        ids.sort(StorageProvider.PLAYER_ID_ORDER);
+        return ids;
+    }
+
+    private static List<UUID> walk(StorageProvider provider, UUID after) {
+        List<UUID> ids = new ArrayList<>();
+        provider.forEachPlayer(after, data -> ids.add(data.getPlayerId())).join();
+        return ids;
+    }
+}
@@ -0,0 +1,145 @@
+package jsemolik.dev.preppyLevels.storage;
+
+import jsemolik.dev.preppyLevels.config.ConfigLoader;
+import jsemolik.dev.preppyLevels.config.PluginConfig;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class WriteBehindQueueTest {
+    private static final Logger LOGGER = Logger.getLogger("PreppyLevels-Test");
+
+    static {
+        LOGGER.setLevel(Level.SEVERE);
+    }
+
+    @TempDir
+    Path dataFolder;
+
+    private PluginConfig config;
+    private StorageExecutor executor;
+    private StorageProvider provider;
+
+    @BeforeEach
+    void setUp() {
+        config = new ConfigLoader(LOGGER, dataFolder.resolve("config.yml")).loadConfig();
+        config.setStorageType(PluginConfig.StorageType.JSON);
+        // One thread and one queue slot, dropping overflow, as if every caller were the server thread
+        PluginConfig.StorageExecutorConfig executorConfig = config.getStorageExecutorConfig();
+        executorConfig.setThreads(1);
+        executorConfig.setQueueCapacity(1);
+        executorConfig.setOverloadPolicy(StorageExecutor.OverloadPolicy.DROP);
+        executor = new StorageExecutor(executorConfig, () -> true);
+        provider = StorageFactory.createStorageProvider(config, LOGGER, dataFolder, executor);
+        provider.initialize().join();
+    }
+
+    @AfterEach
+    void tearDown() {
+        provider.shutdown().join();
+        executor.shutdown();
+    }
+
+    @Test
+    void finalFlushWaitsForRoomInsteadOfDropping() throws InterruptedException {
+        WriteBehindQueue queue = new WriteBehindQueue(provider, executor, config.getWriteBehindConfig(), LOGGER, xp -> 1);
+        List<PlayerData> players = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            PlayerData data = new PlayerData(UUID.randomUUID(), "player" + i, 1, 100L * i);
+            players.add(data);
+            queue.markDirty(data);
+        }
+
+        // Keep the storage thread busy and its queue full while the final flush runs
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch busy = new CountDownLatch(1);
+        executor.run(() -> {
+            busy.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        assertTrue(busy.await(5, TimeUnit.SECONDS));
+        executor.run(() -> { });
+        Thread releaser = new Thread(() -> {
+            try {
+                Thread.sleep(500);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            release.countDown();
+        });
+        releaser.start();
+
+        queue.shutdown();
+        releaser.join();
+
+        assertEquals(0, queue.getDirtyCount());
+        List<UUID> ids = new ArrayList<>();
+        players.forEach(data -> ids.add(data.getPlayerId()));
+        Map<UUID, PlayerData> stored = provider.loadPlayerDataBatch(ids).join();
+        for (PlayerData data : players) {
+            assertEquals(data.getXp(), stored.get(data.getPlayerId()).getXp());
+        }
+    }
+
+    @Test
+    void playerBeingWrittenStaysPending() throws InterruptedException {
+        WriteBehindQueue queue = new WriteBehindQueue(provider, executor, config.getWriteBehindConfig(), LOGGER, xp -> 1);
+        PlayerData data = new PlayerData(UUID.randomUUID(), "player", 1, 500);
+        queue.markDirty(data);
+
+        // Hold the write up so the player is neither dirty nor stored yet
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch busy = new CountDownLatch(1);
+        executor.run(() -> {
+            busy.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        assertTrue(busy.await(5, TimeUnit.SECONDS));
+        CompletableFuture<Void> flush = queue.flushAll();
+        while (queue.getDirtyCount() > 0) {
+            Thread.sleep(1);
+        }
+
+        // An evicted player reloaded now must get the in-memory copy, not the missing stored one
+        assertEquals(data, queue.getPending(data.getPlayerId()));
+        release.countDown();
+        flush.join();
+        assertNull(queue.getPending(data.getPlayerId()));
+        assertEquals(500L, provider.loadPlayerData(data.getPlayerId()).join().getXp());
+        queue.shutdown();
+    }
+
+    @Test
+    void flushAfterShutdownDoesNotThrow() {
+        WriteBehindQueue queue = new WriteBehindQueue(provider, executor, config.getWriteBehindConfig(), LOGGER, xp -> 1);
+        queue.shutdown();
+
+        CompletableFuture<Void> flush = queue.flush(UUID.randomUUID());
+        assertTrue(flush.isDone());
+        queue.flushAll().join();
+    }
+}
@@ -30,7 +30,7 @@ public class AutoXpHandler implements Listener {
         // Give join XP
         int joinXp = plugin.getPluginConfig().getAutoXpConfig().getXpForTask("join");
         if (joinXp > 0) {
-            plugin.getLevelManager().addXp(playerId, playerName, joinXp);
+            plugin.getXpPipeline().submit(playerId, playerName, joinXp, "join");
         }
         
         // Start tracking playtime
@@ -54,7 +54,7 @@ public class AutoXpHandler implements Listener {
             // Prevent spam - only give XP once per 10 seconds
             long lastChat = lastChatTime.getOrDefault(playerId, 0L);
             if (System.currentTimeMillis() - lastChat > 10000) {
-                plugin.getLevelManager().addXp(playerId, playerName, chatXp);
+                plugin.getXpPipeline().submit(playerId, playerName, chatXp, "chat");
                 lastChatTime.put(playerId, System.currentTimeMillis());
             }
         }
@@ -67,7 +67,7 @@ public class AutoXpHandler implements Listener {
         
         int commandXp = plugin.getPluginConfig().getAutoXpConfig().getXpForTask("command");
         if (commandXp > 0) {
-            plugin.getLevelManager().addXp(playerId, playerName, commandXp);
+            plugin.getXpPipeline().submit(playerId, playerName, commandXp, "command");
         }
     }
 
@@ -86,7 +86,7 @@ public class AutoXpHandler implements Listener {
                         if (lastUpdate != null) {
                             long timeSinceLastUpdate = (currentTime - lastUpdate) / 1000 / 60; // minutes
                             if (timeSinceLastUpdate >= 1) {
-                                plugin.getLevelManager().addXp(playerId, player.getName(), timeXp);
+                                plugin.getXpPipeline().submit(playerId, player.getName(), timeXp, "time-played");
                                 playTime.put(playerId, currentTime);
                             }
                         }
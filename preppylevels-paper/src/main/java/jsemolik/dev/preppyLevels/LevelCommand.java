@@ -0,0 +1,406 @@
+package jsemolik.dev.preppyLevels;
+
+import net.kyori.adventure.text.Component;
+import net.kyori.adventure.text.format.NamedTextColor;
+import org.bukkit.command.Command;
+import org.bukkit.command.CommandExecutor;
+import org.bukkit.command.CommandSender;
+import org.bukkit.command.TabCompleter;
+import org.bukkit.entity.Player;
+import jsemolik.dev.preppyLevels.config.PluginConfig;
+import jsemolik.dev.preppyLevels.leaderboard.Leaderboard;
+import jsemolik.dev.preppyLevels.leaderboard.LeaderboardEntry;
+import jsemolik.dev.preppyLevels.storage.PlayerData;
+import jsemolik.dev.preppyLevels.storage.PlayerDataTransfer;
+import jsemolik.dev.preppyLevels.storage.StorageExecutor;
+import jsemolik.dev.preppyLevels.storage.StorageFactory;
+import jsemolik.dev.preppyLevels.storage.StorageMigration;
+import jsemolik.dev.preppyLevels.storage.StorageProvider;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+public class LevelCommand implements CommandExecutor, TabCompleter {
+    private static final int TOP_PAGE_SIZE = 10;
+    private static final long CURSOR_TTL_NANOS = TimeUnit.SECONDS.toNanos(30);
+    private static final String ADMIN_PERMISSION = "preppylevels.admin";
+    private static final String EXPORT_DIRECTORY = "exports";
+    private static final DateTimeFormatter EXPORT_TIMESTAMP = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss");
+
+    private final PreppyLevels plugin;
+    // Last player of each recently viewed top page, so the next page starts where it ended
+    private final Map<Integer, PageCursor> topCursors = new ConcurrentHashMap<>();
+    private final AtomicBoolean migrating = new AtomicBoolean();
+    private final AtomicBoolean exporting = new AtomicBoolean();
+
+    public LevelCommand(PreppyLevels plugin) {
+        this.plugin = plugin;
+    }
+
+    @Override
+    public boolean onCommand(CommandSender sender, Command command, String label, String[] args) {
+        if (args.length > 0 && args[0].equalsIgnoreCase("top")) {
+            int page = 1;
+            if (args.length > 1) {
+                try {
+                    page = Integer.parseInt(args[1]);
+                } catch (NumberFormatException e) {
+                    page = 0;
+                }
+                if (page < 1) {
+                    sender.sendMessage(Component.text("Usage: /" + label + " top [page]", NamedTextColor.RED));
+                    return true;
+                }
+            }
+            showTop(sender, page);
+            return true;
+        }
+
+        if (args.length > 0 && args[0].equalsIgnoreCase("admin")) {
+            handleAdmin(sender, label, args);
+            return true;
+        }
+
+        if (!(sender instanceof Player)) {
+            sender.sendMessage(Component.text("This command can only be used by players!", NamedTextColor.RED));
+            return true;
+        }
+
+        Player player = (Player) sender;
+        UUID playerId = player.getUniqueId();
+
+        plugin.getLevelManager().getPlayerData(playerId).thenAccept(data -> {
+            org.bukkit.Bukkit.getScheduler().runTask(plugin, () -> {
+                if (data == null) {
+                    player.sendMessage(Component.text("You are level 1 with 0 XP.", NamedTextColor.GRAY));
+                    return;
+                }
+
+                PlayerSnapshot snapshot = plugin.getLevelManager().snapshotOf(data);
+                int level = snapshot.getLevel();
+                long xp = snapshot.getXp();
+                long xpNeeded = snapshot.getXpNeeded();
+                int nextLevel = level + 1;
+                float progress = snapshot.getProgress();
+
+                player.sendMessage(Component.text("═══════════════════════════", NamedTextColor.GRAY));
+                player.sendMessage(Component.text("Level: ", NamedTextColor.GRAY)
+                    .append(Component.text(level, NamedTextColor.GOLD)));
+                player.sendMessage(Component.text("Total XP: ", NamedTextColor.GRAY)
+                    .append(Component.text(xp, NamedTextColor.AQUA)));
+                player.sendMessage(Component.text("XP to Level " + nextLevel + ": ", NamedTextColor.GRAY)
+                    .append(Component.text(xpNeeded, NamedTextColor.GREEN)));
+                player.sendMessage(Component.text("Progress: ", NamedTextColor.GRAY)
+                    .append(Component.text(String.format("%.1f%%", progress * 100), NamedTextColor.YELLOW)));
+                player.sendMessage(Component.text("═══════════════════════════", NamedTextColor.GRAY));
+            });
+        });
+
+        return true;
+    }
+
+    private void showTop(CommandSender sender, int page) {
+        CompletableFuture<List<LeaderboardEntry>> players = loadTopPage(page);
+        if (players == null) {
+            sender.sendMessage(Component.text("The leaderboard is still loading. Please try again in a moment, or start from page 1.", NamedTextColor.GRAY));
+            return;
+        }
+        UUID senderId = sender instanceof Player ? ((Player) sender).getUniqueId() : null;
+        CompletableFuture<Integer> rank;
+        if (senderId == null) {
+            rank = CompletableFuture.completedFuture(0);
+        } else if (plugin.getEngine().isLeaderboardLoaded()) {
+            rank = CompletableFuture.completedFuture(plugin.getLeaderboard().getRank(senderId));
+        } else {
+            rank = plugin.getStorageProvider().getRank(senderId);
+        }
+
+        players.thenCombine(rank, (entries, playerRank) -> {
+            org.bukkit.Bukkit.getScheduler().runTask(plugin, () -> {
+                if (entries.isEmpty()) {
+                    sender.sendMessage(Component.text("There are no players on page " + page + ".", NamedTextColor.GRAY));
+                    return;
+                }
+
+                sender.sendMessage(Component.text("═════ Top Players (page " + page + ") ═════", NamedTextColor.GRAY));
+                for (LeaderboardEntry entry : entries) {
+                    sender.sendMessage(Component.text("#" + entry.getRank() + " ", NamedTextColor.GOLD)
+                        .append(Component.text(entry.getPlayerName() != null ? entry.getPlayerName() : "?", NamedTextColor.YELLOW))
+                        .append(Component.text(" - Level ", NamedTextColor.GRAY))
+                        .append(Component.text(entry.getLevel(), NamedTextColor.GOLD))
+                        .append(Component.text(" (" + entry.getXp() + " XP)", NamedTextColor.AQUA)));
+                }
+                if (playerRank > 0) {
+                    sender.sendMessage(Component.text("Your rank: ", NamedTextColor.GRAY)
+                        .append(Component.text("#" + playerRank, NamedTextColor.GOLD)));
+                }
+            });
+            return null;
+        }).exceptionally(throwable -> {
+            org.bukkit.Bukkit.getScheduler().runTask(plugin, () ->
+                sender.sendMessage(Component.text("Could not load the leaderboard. Please try again later.", NamedTextColor.RED)));
+            return null;
+        });
+    }
+
+    /**
+     * Load one page of the leaderboard
+     * @return The page, or null if it cannot be served until the in-memory leaderboard has loaded
+     */
+    private CompletableFuture<List<LeaderboardEntry>> loadTopPage(int page) {
+        long offset = (long) (page - 1) * TOP_PAGE_SIZE;
+        if (plugin.getEngine().isLeaderboardLoaded()) {
+            // The in-memory leaderboard ranks every player, so any page is an O(log n) lookup
+            Leaderboard leaderboard = plugin.getLeaderboard();
+            if (offset >= leaderboard.size()) {
+                return CompletableFuture.completedFuture(Collections.emptyList());
+            }
+            return CompletableFuture.completedFuture(leaderboard.getPage((int) offset, TOP_PAGE_SIZE));
+        }
+
+        // Until then, storage is paged by key, one page at a time, from the top or from where a page just viewed ended
+        PlayerData after = null;
+        if (page > 1) {
+            PageCursor cursor = topCursors.get(page - 1);
+            if (cursor == null || System.nanoTime() - cursor.createdAt >= CURSOR_TTL_NANOS) {
+                return null;
+            }
+            after = cursor.last;
+        }
+        return plugin.getStorageProvider().getTopPlayers(after, TOP_PAGE_SIZE).thenApply(players -> {
+            long now = System.nanoTime();
+            topCursors.values().removeIf(cursor -> now - cursor.createdAt >= CURSOR_TTL_NANOS);
+            if (players.size() == TOP_PAGE_SIZE) {
+                topCursors.put(page, new PageCursor(players.get(players.size() - 1), now));
+            }
+            List<LeaderboardEntry> entries = new ArrayList<>(players.size());
+            for (int i = 0; i < players.size(); i++) {
+                PlayerData data = players.get(i);
+                entries.add(new LeaderboardEntry((int) offset + i + 1, data.getPlayerId(), data.getPlayerName(),
+                    data.getLevel(), data.getXp()));
+            }
+            return entries;
+        });
+    }
+
+    private void handleAdmin(CommandSender sender, String label, String[] args) {
+        if (!sender.hasPermission(ADMIN_PERMISSION)) {
+            sender.sendMessage(Component.text("You do not have permission to use this command.", NamedTextColor.RED));
+            return;
+        }
+        if ((args.length == 3 || args.length == 4) && args[1].equalsIgnoreCase("export")) {
+            PlayerDataTransfer.Format format;
+            try {
+                format = PlayerDataTransfer.Format.valueOf(args[2].toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                sender.sendMessage(Component.text("Unknown export format. Options: NDJSON, CSV", NamedTextColor.RED));
+                return;
+            }
+            if (args.length == 4 && !args[3].equalsIgnoreCase("gzip")) {
+                sender.sendMessage(Component.text("Usage: /" + label + " admin export <ndjson|csv> [gzip]", NamedTextColor.RED));
+                return;
+            }
+            export(sender, format, args.length == 4);
+            return;
+        }
+        if (args.length != 4 || !args[1].equalsIgnoreCase("migrate")) {
+            sender.sendMessage(Component.text("Usage: /" + label + " admin migrate <from> <to>", NamedTextColor.RED));
+            sender.sendMessage(Component.text("Usage: /" + label + " admin export <ndjson|csv> [gzip]", NamedTextColor.RED));
+            return;
+        }
+        PluginConfig.StorageType from;
+        PluginConfig.StorageType to;
+        try {
+            from = PluginConfig.StorageType.valueOf(args[2].toUpperCase(Locale.ROOT));
+            to = PluginConfig.StorageType.valueOf(args[3].toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            sender.sendMessage(Component.text("Unknown storage type. Options: MYSQL, H2, SQLITE, YAML, JSON, LOG", NamedTextColor.RED));
+            return;
+        }
+        migrate(sender, from, to);
+    }
+
+    private void migrate(CommandSender sender, PluginConfig.StorageType from, PluginConfig.StorageType to) {
+        PluginConfig config = plugin.getPluginConfig();
+        if (from == to) {
+            sender.sendMessage(Component.text("Source and target storage must differ.", NamedTextColor.RED));
+            return;
+        }
+        if (to == config.getStorageType()) {
+            // Copied players would overwrite changes made while the migration runs
+            sender.sendMessage(Component.text("Cannot migrate into the storage in use. Stop the server and use the offline migration runner instead.", NamedTextColor.RED));
+            return;
+        }
+        boolean sourceInUse = from == config.getStorageType();
+        if (sourceInUse && !isSql(from)) {
+            // Files and log segments are only opened by the storage in use, and reading through it would hold one of its threads
+            sender.sendMessage(Component.text("Cannot migrate out of " + from + " storage while it is in use. Stop the server and use the offline migration runner instead.", NamedTextColor.RED));
+            return;
+        }
+        if (!migrating.compareAndSet(false, true)) {
+            sender.sendMessage(Component.text("A migration is already running.", NamedTextColor.RED));
+            return;
+        }
+
+        sender.sendMessage(Component.text("Migrating players from " + from + " to " + to + "...", NamedTextColor.GRAY));
+        org.bukkit.Bukkit.getScheduler().runTaskAsynchronously(plugin, () -> {
+            // Both sides are opened with their own connections and threads, even a SQL source that is in use,
+            // so the copy never holds up live storage work
+            StorageExecutor executor = StorageMigration.createExecutor(config.getStorageExecutorConfig());
+            StorageProvider source = null;
+            StorageProvider target = null;
+            try {
+                if (sourceInUse) {
+                    // Include changes that are still waiting to be written
+                    plugin.getWriteBehindQueue().flushAll().join();
+                }
+                source = StorageFactory.createStorageProvider(from, config, plugin.getLogger(), plugin.getDataFolder().toPath(), executor);
+                source.initialize().join();
+                target = StorageFactory.createStorageProvider(to, config, plugin.getLogger(), plugin.getDataFolder().toPath(), executor);
+                target.initialize().join();
+
+                StorageMigration migration = new StorageMigration(source, target, from + " to " + to,
+                    StorageMigration.checkpointFile(plugin.getDataFolder().toPath(), from, to),
+                    StorageMigration.DEFAULT_PAGE_SIZE, plugin.getLogger());
+                long copied = migration.run(count -> sendLater(sender,
+                    Component.text("Copied " + count + " players...", NamedTextColor.GRAY)));
+                plugin.getLogger().info("Migrated " + copied + " players from " + from + " to " + to);
+                sendLater(sender, Component.text("Migrated " + copied + " players from " + from + " to " + to
+                    + ". Set storage-type to " + to + " and restart to switch.", NamedTextColor.GREEN));
+            } catch (Exception e) {
+                plugin.getLogger().severe("Migration from " + from + " to " + to + " failed: " + e.getMessage());
+                e.printStackTrace();
+                // Saves since the failure move the source's high-water mark, which makes the next run start over
+                sendLater(sender, Component.text("Migration failed: " + e.getMessage() + (sourceInUse
+                    ? ". Run the command again; it resumes only if no players were saved since."
+                    : ". Run the command again to resume."), NamedTextColor.RED));
+            } finally {
+                if (source != null) {
+                    source.shutdown().join();
+                }
+                if (target != null) {
+                    target.shutdown().join();
+                }
+                executor.shutdown();
+                migrating.set(false);
+            }
+        });
+    }
+
+    private void export(CommandSender sender, PlayerDataTransfer.Format format, boolean gzip) {
+        if (!exporting.compareAndSet(false, true)) {
+            sender.sendMessage(Component.text("An export is already running.", NamedTextColor.RED));
+            return;
+        }
+        PluginConfig config = plugin.getPluginConfig();
+        Path file = plugin.getDataFolder().toPath().resolve(EXPORT_DIRECTORY).resolve("players-"
+            + LocalDateTime.now().format(EXPORT_TIMESTAMP) + "." + format.getExtension() + (gzip ? ".gz" : ""));
+
+        sender.sendMessage(Component.text("Exporting players to " + file.getFileName() + "...", NamedTextColor.GRAY));
+        org.bukkit.Bukkit.getScheduler().runTaskAsynchronously(plugin, () -> {
+            // SQL storage is read over its own connections and threads, and file or log storage on this
+            // thread, so the export never holds up a live storage thread
+            PluginConfig.StorageType type = config.getStorageType();
+            boolean ownProvider = isSql(type);
+            StorageExecutor executor = ownProvider ? StorageMigration.createExecutor(config.getStorageExecutorConfig()) : null;
+            StorageProvider source = null;
+            try {
+                Files.createDirectories(file.getParent());
+                // Include changes that are still waiting to be written
+                plugin.getWriteBehindQueue().flushAll().join();
+                if (ownProvider) {
+                    source = StorageFactory.createStorageProvider(type, config, plugin.getLogger(), plugin.getDataFolder().toPath(), executor);
+                    source.initialize().join();
+                } else {
+                    source = plugin.getStorageProvider();
+                }
+
+                long written = PlayerDataTransfer.export(source, file, count -> sendLater(sender,
+                    Component.text("Exported " + count + " players...", NamedTextColor.GRAY)));
+                plugin.getLogger().info("Exported " + written + " players to " + file);
+                sendLater(sender, Component.text("Exported " + written + " players to " + EXPORT_DIRECTORY + "/"
+                    + file.getFileName() + ".", NamedTextColor.GREEN));
+            } catch (Exception e) {
+                plugin.getLogger().severe("Export to " + file + " failed: " + e.getMessage());
+                e.printStackTrace();
+                sendLater(sender, Component.text("Export failed: " + e.getMessage(), NamedTextColor.RED));
+            } finally {
+                if (source != null && ownProvider) {
+                    source.shutdown().join();
+                }
+                if (executor != null) {
+                    executor.shutdown();
+                }
+                exporting.set(false);
+            }
+        });
+    }
+
+    private static boolean isSql(PluginConfig.StorageType type) {
+        return type == PluginConfig.StorageType.MYSQL || type == PluginConfig.StorageType.H2
+            || type == PluginConfig.StorageType.SQLITE;
+    }
+
+    private void sendLater(CommandSender sender, Component message) {
+        org.bukkit.Bukkit.getScheduler().runTask(plugin, () -> sender.sendMessage(message));
+    }
+
+    @Override
+    public List<String> onTabComplete(CommandSender sender, Command command, String alias, String[] args) {
+        List<String> completions = new ArrayList<>();
+        if (args.length == 1) {
+            if ("top".startsWith(args[0].toLowerCase())) {
+                completions.add("top");
+            }
+            if (sender.hasPermission(ADMIN_PERMISSION) && "admin".startsWith(args[0].toLowerCase())) {
+                completions.add("admin");
+            }
+        } else if (args[0].equalsIgnoreCase("admin") && sender.hasPermission(ADMIN_PERMISSION)) {
+            if (args.length == 2) {
+                for (String action : new String[]{"migrate", "export"}) {
+                    if (action.startsWith(args[1].toLowerCase())) {
+                        completions.add(action);
+                    }
+                }
+            } else if (args.length == 3 && args[1].equalsIgnoreCase("export")) {
+                for (PlayerDataTransfer.Format format : PlayerDataTransfer.Format.values()) {
+                    if (format.getExtension().startsWith(args[2].toLowerCase(Locale.ROOT))) {
+                        completions.add(format.getExtension());
+                    }
+                }
+            } else if (args.length == 4 && args[1].equalsIgnoreCase("export") && "gzip".startsWith(args[3].toLowerCase(Locale.ROOT))) {
+                completions.add("gzip");
+            } else if ((args.length == 3 || args.length == 4) && args[1].equalsIgnoreCase("migrate")) {
+                for (PluginConfig.StorageType type : PluginConfig.StorageType.values()) {
+                    if (type.name().startsWith(args[args.length - 1].toUpperCase(Locale.ROOT))) {
+                        completions.add(type.name());
+                    }
+                }
+            }
+        }
+        return completions;
+    }
+
+    private static final class PageCursor {
+        final PlayerData last;
+        final long createdAt;
+
+        PageCursor(PlayerData last, long createdAt) {
+            this.last = last;
+            this.createdAt = createdAt;
+        }
+    }
+}
+
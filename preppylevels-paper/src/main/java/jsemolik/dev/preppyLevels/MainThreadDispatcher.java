@@ -0,0 +1,111 @@
+package jsemolik.dev.preppyLevels;
+
+import jsemolik.dev.preppyLevels.platform.PlayerSink;
+import jsemolik.dev.preppyLevels.storage.PlayerData;
+import net.kyori.adventure.text.Component;
+import net.kyori.adventure.text.format.NamedTextColor;
+import net.kyori.adventure.text.format.TextDecoration;
+import org.bukkit.Bukkit;
+import org.bukkit.Sound;
+import org.bukkit.entity.Player;
+import org.bukkit.scheduler.BukkitTask;
+
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Collects player UI updates (XP bar and level-up messages) from any thread and applies them
+ * on the main thread once per tick. Several updates for the same player within a tick collapse
+ * into one that uses the player's latest state, instead of each scheduling its own task.
+ */
+public class MainThreadDispatcher implements PlayerSink {
+    private final PreppyLevels plugin;
+    private final ConcurrentHashMap<UUID, PlayerData> pending = new ConcurrentHashMap<>();
+    private final Set<UUID> pendingLevelUps = ConcurrentHashMap.newKeySet();
+    private BukkitTask task;
+
+    public MainThreadDispatcher(PreppyLevels plugin) {
+        this.plugin = plugin;
+    }
+
+    public void start() {
+        task = Bukkit.getScheduler().runTaskTimer(plugin, this::drain, 1L, 1L);
+    }
+
+    public void stop() {
+        if (task != null) {
+            task.cancel();
+        }
+    }
+
+    /**
+     * Queue a UI update for a player, to be applied on the next tick
+     * @param leveledUp Whether a level-up message should be shown with this update
+     */
+    @Override
+    public void update(UUID playerId, PlayerData data, boolean leveledUp) {
+        // Flag the level-up before queueing the update so a drain never sees one without the other
+        if (leveledUp) {
+            pendingLevelUps.add(playerId);
+        }
+        pending.put(playerId, data);
+    }
+
+    @Override
+    public String lookupName(UUID playerId) {
+        return Bukkit.getOfflinePlayer(playerId).getName();
+    }
+
+    private void drain() {
+        if (pending.isEmpty()) {
+            return;
+        }
+
+        LevelManager levelManager = plugin.getLevelManager();
+        XpBarUpdater xpBarUpdater = plugin.getXpBarUpdater();
+        for (UUID playerId : pending.keySet()) {
+            // Removing by key takes whatever state was queued last for the player
+            PlayerData data = pending.remove(playerId);
+            if (data == null) {
+                continue;
+            }
+
+            boolean leveledUp = pendingLevelUps.remove(playerId);
+            Player player = Bukkit.getPlayer(playerId);
+            if (player == null || !player.isOnline()) {
+                continue;
+            }
+
+            // Send messages only on level up
+            if (leveledUp) {
+                sendLevelUpMessage(player, data, levelManager);
+            }
+            if (xpBarUpdater != null) {
+                xpBarUpdater.update(player, data);
+            }
+        }
+    }
+
+    private void sendLevelUpMessage(Player player, PlayerData data, LevelManager levelManager) {
+        PlayerSnapshot snapshot = levelManager.snapshotOf(data);
+        int level = snapshot.getLevel();
+        long xpNeeded = snapshot.getXpNeeded();
+        int nextLevel = level + 1;
+        
+        // Play level up sound
+        player.playSound(player.getLocation(), Sound.ENTITY_PLAYER_LEVELUP, 1.0f, 1.0f);
+        
+        // Build the level up message with proper colors
+        Component message = Component.text("LEVEL UP! ", NamedTextColor.GOLD, TextDecoration.BOLD)
+            .append(Component.text("You are now level ", NamedTextColor.YELLOW))
+            .append(Component.text(level, NamedTextColor.GOLD, TextDecoration.BOLD))
+            .append(Component.text(". ", NamedTextColor.YELLOW))
+            .append(Component.text("You need ", NamedTextColor.GRAY))
+            .append(Component.text(xpNeeded, NamedTextColor.GREEN))
+            .append(Component.text(" more XP to reach level ", NamedTextColor.GRAY))
+            .append(Component.text(nextLevel, NamedTextColor.GOLD));
+        
+        player.sendMessage(message);
+    }
+}
@@ -0,0 +1,28 @@
+package jsemolik.dev.preppyLevels;
+
+import jsemolik.dev.preppyLevels.platform.Scheduler;
+import org.bukkit.Bukkit;
+import org.bukkit.plugin.Plugin;
+import org.bukkit.scheduler.BukkitTask;
+
+/**
+ * Runs the XP engine's timers as asynchronous tasks on the server scheduler
+ */
+public class PaperScheduler implements Scheduler {
+    private final Plugin plugin;
+
+    public PaperScheduler(Plugin plugin) {
+        this.plugin = plugin;
+    }
+
+    @Override
+    public Task runRepeating(Runnable task, long delayTicks, long periodTicks) {
+        BukkitTask bukkitTask = Bukkit.getScheduler().runTaskTimerAsynchronously(plugin, task, delayTicks, periodTicks);
+        return bukkitTask::cancel;
+    }
+
+    @Override
+    public boolean isMainThread() {
+        return Bukkit.isPrimaryThread();
+    }
+}
@@ -0,0 +1,72 @@
+package jsemolik.dev.preppyLevels;
+
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.player.AsyncPlayerPreLoginEvent;
+import org.bukkit.event.player.PlayerJoinEvent;
+import org.bukkit.event.player.PlayerLoginEvent;
+import org.bukkit.event.player.PlayerQuitEvent;
+
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Ties cached player data to the player's session: data is loaded and pinned in the cache before
+ * the player joins, stays pinned while they are online, and is flushed and released when they leave.
+ */
+public class PlayerSessionListener implements Listener {
+    private final PreppyLevels plugin;
+
+    public PlayerSessionListener(PreppyLevels plugin) {
+        this.plugin = plugin;
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onAsyncPreLogin(AsyncPlayerPreLoginEvent event) {
+        if (event.getLoginResult() != AsyncPlayerPreLoginEvent.Result.ALLOWED) {
+            return;
+        }
+
+        // Pinned from here on, so eviction cannot drop the entry before the join reads it
+        plugin.getLevelManager().getCache().pin(event.getUniqueId());
+
+        // This event runs off the main thread, so it is safe to wait for storage here
+        long timeout = plugin.getPluginConfig().getCacheConfig().getPreloadTimeout();
+        try {
+            plugin.getLevelManager().preload(event.getUniqueId(), event.getName()).get(timeout, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            plugin.getLogger().warning("Timed out preloading data for " + event.getName() + ", it will be loaded on first use");
+        } catch (ExecutionException e) {
+            plugin.getLogger().warning("Failed to preload data for " + event.getName() + ": " + e.getCause().getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onPlayerLogin(PlayerLoginEvent event) {
+        // Denied after the preload, e.g. by a ban or a full server; the player will not join
+        if (event.getResult() != PlayerLoginEvent.Result.ALLOWED) {
+            plugin.getLevelManager().getCache().unpin(event.getPlayer().getUniqueId());
+        }
+    }
+
+    @EventHandler(priority = EventPriority.LOWEST)
+    public void onPlayerJoin(PlayerJoinEvent event) {
+        // Online players are never evicted from the cache. Already pinned at pre-login, but a
+        // previous session of the same player may have unpinned them on its way out.
+        plugin.getLevelManager().getCache().pin(event.getPlayer().getUniqueId());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onPlayerQuit(PlayerQuitEvent event) {
+        UUID playerId = event.getPlayer().getUniqueId();
+        plugin.getLevelManager().getCache().unpin(playerId);
+        plugin.getXpBarUpdater().forget(playerId);
+        // Persist anything still pending, then release the cached entry
+        plugin.getWriteBehindQueue().flush(playerId).thenRun(() -> plugin.getLevelManager().unload(playerId));
+    }
+}
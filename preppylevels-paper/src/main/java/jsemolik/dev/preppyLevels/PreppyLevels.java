@@ -1,67 +1,73 @@
 package jsemolik.dev.preppyLevels;
 
 import org.bukkit.Bukkit;
+import org.bukkit.entity.Player;
 import org.bukkit.plugin.java.JavaPlugin;
 import jsemolik.dev.preppyLevels.config.ConfigLoader;
 import jsemolik.dev.preppyLevels.config.PluginConfig;
+import jsemolik.dev.preppyLevels.leaderboard.Leaderboard;
+import jsemolik.dev.preppyLevels.pipeline.XpPipeline;
 import jsemolik.dev.preppyLevels.placeholders.PreppyLevelsPlaceholders;
+import jsemolik.dev.preppyLevels.storage.StorageExecutor;
 import jsemolik.dev.preppyLevels.storage.StorageProvider;
-import jsemolik.dev.preppyLevels.storage.StorageFactory;
+import jsemolik.dev.preppyLevels.storage.WriteBehindQueue;
 
 import java.nio.file.Path;
 
 public class PreppyLevels extends JavaPlugin {
-    
     private PluginConfig config;
-    private StorageProvider storageProvider;
-    private LevelManager levelManager;
-    private PreppyLevelsAPI api;
+    private XpEngine engine;
+    private MainThreadDispatcher mainThreadDispatcher;
     private AutoXpHandler autoXpHandler;
     private XpBarUpdater xpBarUpdater;
 
     @Override
     public void onEnable() {
         getLogger().info("Initializing PreppyLevels...");
-        
+
         try {
             // Load configuration
             Path dataFolder = getDataFolder().toPath();
-            ConfigLoader configLoader = new ConfigLoader(this, dataFolder.resolve("config.yml"));
+            ConfigLoader configLoader = new ConfigLoader(getLogger(), dataFolder.resolve("config.yml"));
             config = configLoader.loadConfig();
-            
-            // Initialize storage
-            storageProvider = StorageFactory.createStorageProvider(config, this, dataFolder);
-            storageProvider.initialize().thenRun(() -> {
-                getLogger().info("Storage provider initialized");
-                
-                // Initialize level manager and API (these are just object creation, safe on any thread)
-                levelManager = new LevelManager(this, config);
-                api = new PreppyLevelsAPI(this);
-                
+
+            // The engine runs its timers on the server scheduler and shows changes with the next tick's UI update
+            mainThreadDispatcher = new MainThreadDispatcher(this);
+            engine = new XpEngine(config, dataFolder, getLogger(), new PaperScheduler(this), mainThreadDispatcher);
+            engine.start().thenRun(() -> {
                 // All Bukkit API calls must be on the main thread
                 Bukkit.getScheduler().runTask(this, () -> {
+                    // Apply queued UI updates once per tick
+                    mainThreadDispatcher.start();
+
                     // Initialize XP bar updater
                     xpBarUpdater = new XpBarUpdater(this);
                     xpBarUpdater.start();
-                    
+
+                    // Pin online players in the cache and flush their data when they leave
+                    getServer().getPluginManager().registerEvents(new PlayerSessionListener(this), this);
+                    for (Player player : Bukkit.getOnlinePlayers()) {
+                        engine.getLevelManager().getCache().pin(player.getUniqueId());
+                    }
+
                     // Initialize auto XP handler if enabled
                     if (config.getAutoXpConfig() != null && config.getAutoXpConfig().isEnabled()) {
                         autoXpHandler = new AutoXpHandler(this);
                         getServer().getPluginManager().registerEvents(autoXpHandler, this);
                         getLogger().info("Auto XP handler enabled");
                     }
-                    
+
                     // Register commands
                     LevelCommand levelCommand = new LevelCommand(this);
                     getCommand("level").setExecutor(levelCommand);
                     getCommand("level").setTabCompleter(levelCommand);
-                    
+
                     // Register PlaceholderAPI expansion if available
                     if (getServer().getPluginManager().getPlugin("PlaceholderAPI") != null) {
                         new PreppyLevelsPlaceholders(this).register();
                         getLogger().info("PlaceholderAPI expansion registered!");
                     }
-                    
+
                     getLogger().info("PreppyLevels has been enabled!");
                 });
             }).exceptionally(throwable -> {
@@ -81,14 +87,14 @@ public class PreppyLevels extends JavaPlugin {
         if (xpBarUpdater != null) {
             xpBarUpdater.stop();
         }
+        if (mainThreadDispatcher != null) {
+            mainThreadDispatcher.stop();
+        }
         if (autoXpHandler != null) {
             autoXpHandler.shutdown();
         }
-        if (storageProvider != null) {
-            storageProvider.shutdown().join();
-        }
-        if (levelManager != null) {
-            levelManager.clearCache();
+        if (engine != null) {
+            engine.shutdown();
         }
         getLogger().info("PreppyLevels has been disabled!");
     }
@@ -97,16 +103,44 @@ public class PreppyLevels extends JavaPlugin {
         return config;
     }
 
+    public XpEngine getEngine() {
+        return engine;
+    }
+
+    public Leaderboard getLeaderboard() {
+        return engine.getLeaderboard();
+    }
+
+    public StorageExecutor getStorageExecutor() {
+        return engine.getStorageExecutor();
+    }
+
     public StorageProvider getStorageProvider() {
-        return storageProvider;
+        return engine.getStorageProvider();
+    }
+
+    public WriteBehindQueue getWriteBehindQueue() {
+        return engine.getWriteBehindQueue();
     }
 
     public LevelManager getLevelManager() {
-        return levelManager;
+        return engine.getLevelManager();
+    }
+
+    public XpBarUpdater getXpBarUpdater() {
+        return xpBarUpdater;
+    }
+
+    public MainThreadDispatcher getMainThreadDispatcher() {
+        return mainThreadDispatcher;
+    }
+
+    public XpPipeline getXpPipeline() {
+        return engine.getXpPipeline();
     }
 
     public PreppyLevelsAPI getAPI() {
-        return api;
+        return engine != null ? engine.getAPI() : null;
     }
 
     /**
@@ -122,4 +156,3 @@ public class PreppyLevels extends JavaPlugin {
         return null;
     }
 }
-
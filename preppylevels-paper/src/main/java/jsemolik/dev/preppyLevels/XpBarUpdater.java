@@ -0,0 +1,109 @@
+package jsemolik.dev.preppyLevels;
+
+import jsemolik.dev.preppyLevels.storage.PlayerData;
+import org.bukkit.Bukkit;
+import org.bukkit.entity.Player;
+import org.bukkit.scheduler.BukkitTask;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Keeps each player's vanilla XP bar in sync with their level.
+ * Bars are updated when a player's XP changes, and only if the level or progress shown
+ * would actually change, so unchanged values never cause an XP packet. A slow periodic pass
+ * reconciles bars that drifted, e.g. after vanilla XP pickups or death.
+ * All methods must be called on the main thread.
+ */
+public class XpBarUpdater {
+    private final PreppyLevels plugin;
+    private final Map<UUID, SentState> lastSent = new HashMap<>();
+    private BukkitTask task;
+
+    public XpBarUpdater(PreppyLevels plugin) {
+        this.plugin = plugin;
+    }
+
+    public void start() {
+        int interval = plugin.getPluginConfig().getXpBarConfig().getUpdateInterval();
+        task = Bukkit.getScheduler().runTaskTimer(plugin, this::reconcileAllPlayers, interval, interval);
+    }
+
+    public void stop() {
+        if (task != null) {
+            task.cancel();
+        }
+    }
+
+    /**
+     * Show the player's current level and progress, skipping the update if nothing changed
+     * since the last one sent
+     */
+    public void update(Player player, PlayerData data) {
+        update(player, data, false);
+    }
+
+    /**
+     * Forget what was last sent to a player, e.g. when they leave
+     */
+    public void forget(UUID playerId) {
+        lastSent.remove(playerId);
+    }
+
+    private void update(Player player, PlayerData data, boolean verify) {
+        if (player == null || !player.isOnline()) {
+            return;
+        }
+
+        PlayerSnapshot snapshot = plugin.getLevelManager().snapshotOf(data);
+        int level = snapshot.getLevel();
+        float progress = Math.max(0.0f, Math.min(1.0f, snapshot.getProgress()));
+
+        SentState sent = lastSent.get(player.getUniqueId());
+        if (sent != null && sent.level == level && sent.progress == progress) {
+            // During reconciliation also check the bar was not changed by something else
+            if (!verify || (player.getLevel() == level && player.getExp() == progress)) {
+                return;
+            }
+        }
+
+        // Set the level (this shows the number in the XP bar)
+        player.setLevel(level);
+        
+        // Set the progress (0.0 to 1.0, this shows the progress bar)
+        player.setExp(progress);
+
+        if (sent == null) {
+            sent = new SentState();
+            lastSent.put(player.getUniqueId(), sent);
+        }
+        sent.level = level;
+        sent.progress = progress;
+    }
+
+    private void reconcileAllPlayers() {
+        for (Player player : Bukkit.getOnlinePlayers()) {
+            UUID playerId = player.getUniqueId();
+            CompletableFuture<PlayerData> future = plugin.getLevelManager().getPlayerData(playerId);
+            if (future.isDone()) {
+                PlayerData data = future.getNow(null);
+                if (data != null) {
+                    update(player, data, true);
+                }
+            } else {
+                future.thenAccept(data -> {
+                    if (data != null) {
+                        plugin.getMainThreadDispatcher().update(playerId, data, false);
+                    }
+                });
+            }
+        }
+    }
+
+    private static final class SentState {
+        int level;
+        float progress;
+    }
+}
@@ -0,0 +1,145 @@
+package jsemolik.dev.preppyLevels.placeholders;
+
+import jsemolik.dev.preppyLevels.PlayerSnapshot;
+import jsemolik.dev.preppyLevels.PreppyLevels;
+import jsemolik.dev.preppyLevels.leaderboard.LeaderboardEntry;
+import me.clip.placeholderapi.expansion.PlaceholderExpansion;
+import org.bukkit.OfflinePlayer;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.UUID;
+
+public class PreppyLevelsPlaceholders extends PlaceholderExpansion {
+    private final PreppyLevels plugin;
+
+    public PreppyLevelsPlaceholders(PreppyLevels plugin) {
+        this.plugin = plugin;
+    }
+
+    @Override
+    public @NotNull String getIdentifier() {
+        return "preppylevels";
+    }
+
+    @Override
+    public @NotNull String getAuthor() {
+        return plugin.getDescription().getAuthors().toString();
+    }
+
+    @Override
+    public @NotNull String getVersion() {
+        return plugin.getDescription().getVersion();
+    }
+
+    @Override
+    public boolean persist() {
+        return true;
+    }
+
+    @Override
+    public @Nullable String onRequest(OfflinePlayer player, @NotNull String params) {
+        if (player == null) {
+            return null;
+        }
+
+        String placeholder = params.toLowerCase();
+        if (placeholder.startsWith("top_")) {
+            return onTopRequest(placeholder);
+        }
+        if (placeholder.equals("rank")) {
+            int rank = plugin.getLeaderboard().getRank(player.getUniqueId());
+            return rank > 0 ? String.valueOf(rank) : plugin.getPluginConfig().getPlaceholderConfig().getFallback();
+        }
+        if (!isKnown(placeholder)) {
+            return null;
+        }
+
+        // Only read the published snapshot; placeholders are resolved on the main thread
+        UUID playerId = player.getUniqueId();
+        PlayerSnapshot snapshot = plugin.getLevelManager().getSnapshot(playerId);
+        if (snapshot == null) {
+            // Load in the background so the next request can be answered. Only stored players are
+            // loaded; players who never joined must not get a 0 XP entry on the leaderboard.
+            plugin.getLevelManager().getPlayerData(playerId);
+            return plugin.getPluginConfig().getPlaceholderConfig().getFallback();
+        }
+
+        // Handle different placeholder types
+        switch (placeholder) {
+            case "level":
+                return snapshot.getLevelText();
+            
+            case "xp":
+            case "totalxp":
+                return snapshot.getXpText();
+            
+            case "xpneeded":
+            case "xp_needed":
+            case "xp-needed":
+                return snapshot.getXpNeededText();
+            
+            case "nextlevel":
+            case "next_level":
+            case "next-level":
+                return snapshot.getNextLevelText();
+            
+            case "levelprogress":
+            case "level_progress":
+            case "level-progress":
+                return snapshot.getProgressText();
+            
+            default:
+                return null;
+        }
+    }
+
+    // top_<n>_name, top_<n>_level and top_<n>_xp
+    private String onTopRequest(String placeholder) {
+        String[] parts = placeholder.split("_");
+        if (parts.length != 3) {
+            return null;
+        }
+        int rank;
+        try {
+            rank = Integer.parseInt(parts[1]);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+        if (rank < 1) {
+            return null;
+        }
+
+        LeaderboardEntry entry = plugin.getLeaderboard().getEntry(rank);
+        switch (parts[2]) {
+            case "name":
+                return entry != null && entry.getPlayerName() != null ? entry.getPlayerName() : "";
+            case "level":
+                return entry != null ? String.valueOf(entry.getLevel()) : "";
+            case "xp":
+                return entry != null ? String.valueOf(entry.getXp()) : "";
+            default:
+                return null;
+        }
+    }
+
+    private boolean isKnown(String placeholder) {
+        switch (placeholder) {
+            case "level":
+            case "xp":
+            case "totalxp":
+            case "xpneeded":
+            case "xp_needed":
+            case "xp-needed":
+            case "nextlevel":
+            case "next_level":
+            case "next-level":
+            case "levelprogress":
+            case "level_progress":
+            case "level-progress":
+                return true;
+            default:
+                return false;
+        }
+    }
+}